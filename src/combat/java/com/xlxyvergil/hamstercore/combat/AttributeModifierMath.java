@@ -0,0 +1,116 @@
+package com.xlxyvergil.hamstercore.combat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 属性修饰符合并计算核心
+ * 同名修饰符的合并公式（完全采用Apotheosis的公式），不依赖Minecraft
+ * 属性默认值由调用方从属性注册表中查询后提供
+ *
+ * 公式：
+ * - amt = 默认值 + 所有ADDITION之和（未知操作按ADDITION处理）
+ * - 每个MULTIPLY_BASE：amt += amount × 默认值
+ * - 每个MULTIPLY_TOTAL：amt *= 1 + amount
+ */
+public final class AttributeModifierMath {
+
+    private AttributeModifierMath() {
+    }
+
+    /**
+     * 参与合并计算的修饰符
+     */
+    public interface Modifier {
+        String getElementType();
+
+        double getAmount();
+
+        String getOperation();
+    }
+
+    /**
+     * 属性默认值查询
+     */
+    public interface DefaultValueLookup {
+        double getDefaultValue(String name);
+    }
+
+    /**
+     * 按elementType分组，对每组修饰符进行合并计算
+     * @param modifiers 修饰符列表
+     * @param defaultValues 属性默认值查询
+     * @return 属性名 -> 合并计算后的值
+     */
+    public static Map<String, Double> calculateGrouped(List<? extends Modifier> modifiers, DefaultValueLookup defaultValues) {
+        Map<String, List<Modifier>> groupedModifiers = new HashMap<>();
+        for (Modifier modifier : modifiers) {
+            groupedModifiers.computeIfAbsent(modifier.getElementType(), key -> new ArrayList<>()).add(modifier);
+        }
+
+        Map<String, Double> values = new HashMap<>();
+        for (Map.Entry<String, List<Modifier>> entry : groupedModifiers.entrySet()) {
+            String name = entry.getKey();
+            values.put(name, calculateValue(entry.getValue(), defaultValues.getDefaultValue(name)));
+        }
+        return values;
+    }
+
+    /**
+     * 对同名修饰符进行合并计算
+     * 按列表顺序依次处理ADDITION、MULTIPLY_BASE、MULTIPLY_TOTAL，不创建临时列表
+     * @param modifiers 同名的修饰符列表
+     * @param defaultValue 属性的默认值
+     * @return 合并计算后的值
+     */
+    public static double calculateValue(List<? extends Modifier> modifiers, double defaultValue) {
+        int count = modifiers.size();
+
+        // 基础值（ADDITION）
+        double additionValue = 0.0;
+        for (int i = 0; i < count; i++) {
+            Modifier modifier = modifiers.get(i);
+            if (operationOf(modifier) == Operation.ADDITION) {
+                additionValue += modifier.getAmount();
+            }
+        }
+
+        double amt = defaultValue + additionValue;
+
+        // 处理 MULTIPLY_BASE：每个都乘原始的 baseValue，然后累加
+        for (int i = 0; i < count; i++) {
+            Modifier modifier = modifiers.get(i);
+            if (operationOf(modifier) == Operation.MULTIPLY_BASE) {
+                amt += modifier.getAmount() * defaultValue;
+            }
+        }
+
+        // 处理 MULTIPLY_TOTAL：连乘（每个乘 1 + amount，负数会自动减少）
+        for (int i = 0; i < count; i++) {
+            Modifier modifier = modifiers.get(i);
+            if (operationOf(modifier) == Operation.MULTIPLY_TOTAL) {
+                amt *= 1 + modifier.getAmount();
+            }
+        }
+        return amt;
+    }
+
+    private enum Operation {
+        ADDITION,
+        MULTIPLY_BASE,
+        MULTIPLY_TOTAL
+    }
+
+    private static Operation operationOf(Modifier modifier) {
+        String operation = modifier.getOperation();
+        if ("MULTIPLY_BASE".equalsIgnoreCase(operation)) {
+            return Operation.MULTIPLY_BASE;
+        }
+        if ("MULTIPLY_TOTAL".equalsIgnoreCase(operation)) {
+            return Operation.MULTIPLY_TOTAL;
+        }
+        return Operation.ADDITION; // 默认为ADDITION
+    }
+}
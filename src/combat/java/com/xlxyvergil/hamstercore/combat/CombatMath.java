@@ -0,0 +1,273 @@
+package com.xlxyvergil.hamstercore.combat;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * 战斗数值计算核心
+ * 伤害公式的纯数学部分，只接收基本类型输入，不依赖Minecraft，可以脱离游戏单独测试和基准测试
+ * 所有随机判定都由调用方传入[0,1)的随机数，保证同样的输入和随机数得到同样的结果
+ *
+ * 最终伤害公式：ID = BD × (1+HM) × 元素总倍率 × 暴击倍率 × (1-AM)
+ */
+public final class CombatMath {
+
+    // 护甲值上限
+    public static final double MAX_ARMOR = 2700.0;
+
+    private CombatMath() {
+    }
+
+    /**
+     * 计算派系克制系数HM
+     * HM = 派系元素数据值之和 + 攻击者拥有（值大于0）的各元素对目标派系的克制系数之和
+     * @param totalFactionValue 攻击者派系元素数据值之和
+     * @param elementValues 攻击者元素值，按元素序号索引
+     * @param resistanceElements 参与克制判定的元素序号
+     * @param resistanceRow 目标派系的克制系数，按元素序号索引
+     * @return HM值
+     */
+    public static double factionModifier(double totalFactionValue, double[] elementValues, int[] resistanceElements, double[] resistanceRow) {
+        double totalResistance = 0.0;
+        for (int ordinal : resistanceElements) {
+            if (ordinal < elementValues.length && ordinal < resistanceRow.length && elementValues[ordinal] > 0) {
+                totalResistance += resistanceRow[ordinal];
+            }
+        }
+        return totalFactionValue + totalResistance;
+    }
+
+    /**
+     * 计算指定元素中为正的元素值之和
+     * @param elementValues 元素值，按元素序号索引
+     * @param ordinals 参与累加的元素序号
+     * @return 正值之和
+     */
+    public static double sumPositive(double[] elementValues, int[] ordinals) {
+        double sum = 0.0;
+        for (int ordinal : ordinals) {
+            if (ordinal < elementValues.length && elementValues[ordinal] > 0) {
+                sum += elementValues[ordinal];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 计算元素总倍率，所有元素倍率之和，确保至少为1.0
+     * @param totalElementRatio 物理、基础、复合元素正值之和
+     * @return 元素总倍率
+     */
+    public static double totalElementMultiplier(double totalElementRatio) {
+        return Math.max(1.0, totalElementRatio);
+    }
+
+    /**
+     * 根据暴击率判定暴击等级
+     * 每个暴击等级需要100%的暴击率，超出保底的部分由随机数决定是否达到更高等级
+     * 例如：150%暴击率 = 保底1级 + 50%概率达到2级
+     * @param criticalChance 暴击率
+     * @param roll [0,1)随机数
+     * @return 暴击等级
+     */
+    public static int criticalLevel(double criticalChance, double roll) {
+        double chancePercent = criticalChance * 100;
+        int guaranteedCriticalLevel = (int) Math.floor((chancePercent + 100) / 100) - 1; // 保底暴击等级
+        int maxCriticalLevel = (int) Math.floor((chancePercent + 100) / 100); // 最大可能暴击等级
+        double extraChance = chancePercent - (guaranteedCriticalLevel * 100); // 超出保底等级的部分
+
+        // 确保暴击等级至少为0
+        if (guaranteedCriticalLevel < 0) {
+            guaranteedCriticalLevel = 0;
+        }
+
+        if (maxCriticalLevel < 0) {
+            maxCriticalLevel = 0;
+        }
+
+        // 判断随机数是否达到更高等级
+        if (roll * 100 < extraChance) {
+            return maxCriticalLevel;
+        }
+        return guaranteedCriticalLevel;
+    }
+
+    /**
+     * 计算暴击倍率
+     * 暴击倍率 = 1 + 暴击等级 × (暴击伤害 - 1)，确保至少为1.0
+     * @param criticalLevel 暴击等级
+     * @param criticalDamage 暴击伤害（已经过基础暴击伤害计算的完整值）
+     * @return 暴击倍率
+     */
+    public static double criticalMultiplier(int criticalLevel, double criticalDamage) {
+        return Math.max(1.0, 1 + criticalLevel * (criticalDamage - 1));
+    }
+
+    /**
+     * 计算护甲的AM值，AM = 0.9 × √(AR/2700)
+     * @param armor 护甲值
+     * @return AM值
+     */
+    public static double armorModifier(double armor) {
+        return 0.9 * Math.sqrt(armor / MAX_ARMOR);
+    }
+
+    /**
+     * 计算护甲减免系数 (1-AM)
+     * @param armor 护甲值
+     * @return 护甲减免系数
+     */
+    public static double armorReduction(double armor) {
+        return 1.0 - armorModifier(armor);
+    }
+
+    /**
+     * 计算最终伤害，确保不小于0
+     * @param baseDamage 基础伤害BD
+     * @param factionModifier 派系克制系数HM
+     * @param elementMultiplier 元素总倍率
+     * @param criticalMultiplier 暴击倍率
+     * @param armorReduction 护甲减免系数(1-AM)
+     * @return 最终伤害
+     */
+    public static float finalDamage(float baseDamage, double factionModifier, double elementMultiplier, double criticalMultiplier, double armorReduction) {
+        float finalDamage = (float) (baseDamage * (1.0 + factionModifier)
+                * elementMultiplier
+                * criticalMultiplier
+                * armorReduction);
+        return finalDamage < 0 ? 0 : finalDamage;
+    }
+
+    /**
+     * 计算单次命中的伤害：派系克制 → 元素总倍率 → 暴击 → 护甲 → 最终伤害
+     * 暴击率为0时不会暴击，调用方需要跳过暴击判定时（例如DoT伤害）传入0即可
+     * @param baseDamage 基础伤害BD
+     * @param factionModifier 派系克制系数HM
+     * @param elementMultiplier 元素总倍率
+     * @param criticalChance 暴击率
+     * @param criticalDamage 暴击伤害
+     * @param criticalRoll 暴击判定用的[0,1)随机数
+     * @param armorModifier 护甲AM值
+     * @return 命中结果
+     */
+    public static Hit hit(float baseDamage, double factionModifier, double elementMultiplier,
+                          double criticalChance, double criticalDamage, double criticalRoll, double armorModifier) {
+        int criticalLevel = criticalLevel(criticalChance, criticalRoll);
+        double criticalMultiplier = criticalMultiplier(criticalLevel, criticalDamage);
+        double armorReduction = 1.0 - armorModifier;
+        float damage = finalDamage(baseDamage, factionModifier, elementMultiplier, criticalMultiplier, armorReduction);
+        return new Hit(criticalLevel, criticalMultiplier, armorReduction, damage);
+    }
+
+    /**
+     * 计算同一攻击者在同一tick内对同一目标的多次命中（霰弹枪弹丸、高射速枪械）的合计伤害
+     * 派系克制、元素总倍率、暴击率、暴击伤害和护甲只使用一份，每次命中仍各自判定暴击等级
+     * 结果中的暴击等级为各次命中的最高等级，暴击倍率为按基础伤害加权的平均倍率，最终伤害为各次命中之和
+     * @param baseDamages 各次命中的基础伤害
+     * @param count 命中次数
+     * @param factionModifier 派系克制系数HM
+     * @param elementMultiplier 元素总倍率
+     * @param criticalChance 暴击率
+     * @param criticalDamage 暴击伤害
+     * @param criticalRolls 暴击判定用的[0,1)随机数来源，每次命中消耗一个
+     * @param armorModifier 护甲AM值
+     * @return 合计的命中结果
+     */
+    public static Hit hitGroup(float[] baseDamages, int count, double factionModifier, double elementMultiplier,
+                               double criticalChance, double criticalDamage, DoubleSupplier criticalRolls, double armorModifier) {
+        double armorReduction = 1.0 - armorModifier;
+        int maxCriticalLevel = 0;
+        double totalBaseDamage = 0.0;
+        double weightedCriticalMultiplier = 0.0;
+        float totalDamage = 0.0F;
+        for (int i = 0; i < count; i++) {
+            int criticalLevel = criticalLevel(criticalChance, criticalRolls.getAsDouble());
+            double criticalMultiplier = criticalMultiplier(criticalLevel, criticalDamage);
+            maxCriticalLevel = Math.max(maxCriticalLevel, criticalLevel);
+            totalBaseDamage += baseDamages[i];
+            weightedCriticalMultiplier += baseDamages[i] * criticalMultiplier;
+            totalDamage += finalDamage(baseDamages[i], factionModifier, elementMultiplier, criticalMultiplier, armorReduction);
+        }
+        double averageCriticalMultiplier = totalBaseDamage > 0 ? weightedCriticalMultiplier / totalBaseDamage : 1.0;
+        return new Hit(maxCriticalLevel, averageCriticalMultiplier, armorReduction, totalDamage);
+    }
+
+    /**
+     * 命中的计算结果
+     */
+    public static final class Hit {
+        private final int criticalLevel;
+        private final double criticalMultiplier;
+        private final double armorReduction;
+        private final float finalDamage;
+
+        private Hit(int criticalLevel, double criticalMultiplier, double armorReduction, float finalDamage) {
+            this.criticalLevel = criticalLevel;
+            this.criticalMultiplier = criticalMultiplier;
+            this.armorReduction = armorReduction;
+            this.finalDamage = finalDamage;
+        }
+
+        public int getCriticalLevel() {
+            return criticalLevel;
+        }
+
+        public double getCriticalMultiplier() {
+            return criticalMultiplier;
+        }
+
+        public double getArmorReduction() {
+            return armorReduction;
+        }
+
+        public float getFinalDamage() {
+            return finalDamage;
+        }
+    }
+
+    /**
+     * 判断是否触发元素效果
+     * @param triggerChance 触发率
+     * @param roll [0,1)随机数
+     * @return 是否触发
+     */
+    public static boolean triggers(double triggerChance, double roll) {
+        return roll <= triggerChance;
+    }
+
+    /**
+     * 计算触发等级（同时触发的不同元素数量）
+     * 与暴击等级相同：每100%触发率保底一级，超出部分由随机数决定是否再加一级
+     * 已经判定触发时，触发等级为0也至少触发一个效果
+     * @param triggerChance 触发率
+     * @param roll [0,1)随机数
+     * @return 触发等级
+     */
+    public static int triggerLevel(double triggerChance, double roll) {
+        double chancePercent = triggerChance * 100;
+        int guaranteedTriggerLevel = (int) Math.floor((chancePercent + 100) / 100) - 1; // 保底触发等级
+        int maxTriggerLevel = (int) Math.floor((chancePercent + 100) / 100); // 最大可能触发等级
+
+        // 确保触发等级至少为0
+        if (guaranteedTriggerLevel < 0) {
+            guaranteedTriggerLevel = 0;
+        }
+
+        if (maxTriggerLevel < 0) {
+            maxTriggerLevel = 0;
+        }
+
+        // 判断是否能达到更高的触发等级
+        int triggerLevel = guaranteedTriggerLevel;
+        double extraChance = chancePercent - (guaranteedTriggerLevel * 100); // 超出保底等级的部分
+
+        if (roll * 100 < extraChance) {
+            triggerLevel = maxTriggerLevel;
+        }
+
+        // 触发等级为0时，也要至少触发一个效果
+        if (triggerLevel == 0 && triggerChance > 0) {
+            triggerLevel = 1;
+        }
+        return triggerLevel;
+    }
+}
@@ -0,0 +1,295 @@
+package com.xlxyvergil.hamstercore.combat;
+
+import java.util.*;
+
+/**
+ * 元素复合计算核心
+ * 元素复合规则的纯计算部分，只接收元素名、数值和来源，不依赖Minecraft
+ *
+ * 复合规则:
+ * - blast(火焰+冰冻)
+ * - corrosive(电击+毒素)
+ * - gas(火焰+毒素)
+ * - magnetic(冰冻+电击)
+ * - radiation(火焰+电击)
+ * - viral(冰冻+毒素)
+ */
+public final class ElementCombiner {
+
+    // 定义元素复合规则
+    private static final Map<Set<String>, String> COMBINATION_RULES = new HashMap<>();
+    private static final Map<String, Set<String>> REVERSE_COMBINATION_RULES = new HashMap<>();
+
+    static {
+        // 爆炸 = 火焰 + 冰冻
+        addRule("blast", "heat", "cold");
+
+        // 腐蚀 = 电击 + 毒素
+        addRule("corrosive", "electricity", "toxin");
+
+        // 毒气 = 火焰 + 毒素
+        addRule("gas", "heat", "toxin");
+
+        // 磁力 = 冰冻 + 电击
+        addRule("magnetic", "cold", "electricity");
+
+        // 辐射 = 火焰 + 电击
+        addRule("radiation", "heat", "electricity");
+
+        // 病毒 = 冰冻 + 毒素
+        addRule("viral", "cold", "toxin");
+    }
+
+    private static void addRule(String composite, String first, String second) {
+        Set<String> components = new HashSet<>(Arrays.asList(first, second));
+        COMBINATION_RULES.put(components, composite);
+        REVERSE_COMBINATION_RULES.put(composite, components);
+    }
+
+    private ElementCombiner() {
+    }
+
+    /**
+     * 元素分类，由调用方根据元素注册表提供
+     */
+    public interface ElementClassifier {
+        boolean isBasic(String type);
+
+        boolean isComplex(String type);
+    }
+
+    /**
+     * 元素条目，存储元素类型、值和来源
+     */
+    public static final class Entry {
+        private final String type;
+        private final double value;
+        private final String source; // "def" 或 "user"
+
+        public Entry(String type, double value, String source) {
+            this.type = type;
+            this.value = value;
+            this.source = source;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s(%.3f,%s)", type, value, source);
+        }
+    }
+
+    /**
+     * 对Basic层元素进行复合计算
+     * @param orderedBasicElements 按Basic层顺序排列的元素（仅包含基础元素和复合元素）
+     * @param classifier 元素分类
+     * @return 复合后的元素值映射（只包含值大于0的元素）
+     */
+    public static Map<String, Double> combine(List<Entry> orderedBasicElements, ElementClassifier classifier) {
+        // 1. 对基础元素进行二次排序（user优先，def次之）
+        List<Entry> reorderedBasicElements = reorderBasicElements(orderedBasicElements, classifier);
+
+        // 2. 对所有基础元素按重新排序后的顺序进行复合操作
+        Map<String, Double> compositeResults = processElementCombinations(reorderedBasicElements);
+
+        // 3. 分离Basic层中的复合元素（这些始终为def）
+        Map<String, Double> defCompositeElementsFromBasic = separateDefCompositeElements(reorderedBasicElements, classifier);
+
+        // 4. 合并计算产生的复合元素和Basic层中的复合元素
+        mergeCalculatedAndBasicCompositeElements(compositeResults, defCompositeElementsFromBasic);
+
+        // 5. 处理剩余的基础元素与复合结果的交互
+        processRemainingElementsInteraction(compositeResults, reorderedBasicElements, classifier);
+
+        // 6. 过滤掉值为0或负数的元素
+        Map<String, Double> finalResults = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : compositeResults.entrySet()) {
+            if (entry.getValue() > 0) {
+                finalResults.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return finalResults;
+    }
+
+    /**
+     * 对基础元素进行二次排序：基础元素优先于复合元素，同类中user优先，def次之
+     */
+    private static List<Entry> reorderBasicElements(List<Entry> elements, ElementClassifier classifier) {
+        List<Entry> reorderedElements = new ArrayList<>(elements);
+
+        reorderedElements.sort((e1, e2) -> {
+            boolean isBasic1 = classifier.isBasic(e1.type);
+            boolean isBasic2 = classifier.isBasic(e2.type);
+
+            // 基础元素优先于复合元素
+            if (isBasic1 && !isBasic2) {
+                return -1;
+            } else if (!isBasic1 && isBasic2) {
+                return 1;
+            }
+
+            // 如果都是基础元素或都是复合元素，则按user/def排序
+            if (e1.source.equals(e2.source)) {
+                return 0; // 如果source相同，则保持原有顺序
+            } else if (e1.source.equals("user")) {
+                return -1; // user优先
+            } else {
+                return 1; // def次之
+            }
+        });
+
+        return reorderedElements;
+    }
+
+    /**
+     * 判断是否为可以相互组合的基础元素类型
+     */
+    private static boolean isBasicElementType(String type) {
+        // 基础元素类型：只有这四种可以相互组合
+        return "heat".equals(type) || "cold".equals(type) ||
+               "electricity".equals(type) || "toxin".equals(type);
+    }
+
+    /**
+     * 对所有基础元素按重新排序后的顺序组合相邻元素
+     */
+    private static Map<String, Double> processElementCombinations(List<Entry> reorderedElements) {
+        Map<String, Double> compositeResults = new LinkedHashMap<>();
+        Set<String> usedElements = new HashSet<>();
+
+        // 只处理基础元素进行复合
+        List<Entry> basicElements = new ArrayList<>();
+        for (Entry element : reorderedElements) {
+            if (isBasicElementType(element.type)) {
+                basicElements.add(element);
+            }
+        }
+
+        // 按照重新排序后的顺序尝试组合相邻的基础元素
+        for (int i = 0; i < basicElements.size() - 1; i++) {
+            Entry elem1 = basicElements.get(i);
+            Entry elem2 = basicElements.get(i + 1);
+
+            // 检查两个元素是否都未被使用
+            if (!usedElements.contains(elem1.type) && !usedElements.contains(elem2.type)) {
+                // 查找这两个元素是否能组成复合元素
+                String compositeType = findCompositeType(elem1.type, elem2.type);
+                if (compositeType != null) {
+                    // 组合元素，数值相加
+                    compositeResults.put(compositeType, elem1.value + elem2.value);
+
+                    // 标记元素为已使用
+                    usedElements.add(elem1.type);
+                    usedElements.add(elem2.type);
+                }
+            }
+        }
+
+        return compositeResults;
+    }
+
+    /**
+     * 分离Basic层中的def复合元素
+     */
+    private static Map<String, Double> separateDefCompositeElements(List<Entry> reorderedElements, ElementClassifier classifier) {
+        Map<String, Double> defCompositeElements = new LinkedHashMap<>();
+
+        for (Entry element : reorderedElements) {
+            if (classifier.isComplex(element.type)) {
+                defCompositeElements.put(element.type, element.value);
+            }
+        }
+
+        return defCompositeElements;
+    }
+
+    /**
+     * 合并计算产生的复合元素和Basic层中的复合元素，同类型数值相加
+     */
+    private static void mergeCalculatedAndBasicCompositeElements(Map<String, Double> compositeResults,
+                                                                 Map<String, Double> defCompositeElementsFromBasic) {
+        for (Map.Entry<String, Double> defEntry : defCompositeElementsFromBasic.entrySet()) {
+            String type = defEntry.getKey();
+            double value = defEntry.getValue();
+
+            if (compositeResults.containsKey(type)) {
+                compositeResults.put(type, compositeResults.get(type) + value);
+            } else {
+                compositeResults.put(type, value);
+            }
+        }
+    }
+
+    /**
+     * 处理剩余的基础元素与复合结果的交互
+     * 已有复合元素（包括Basic层中的def复合元素）的组成元素都视为已参与复合，其余基础元素单独保留
+     */
+    private static void processRemainingElementsInteraction(Map<String, Double> compositeResults,
+                                                            List<Entry> reorderedElements,
+                                                            ElementClassifier classifier) {
+        // 从复合结果中找出已使用的元素
+        Set<String> usedInCombinations = new HashSet<>();
+        for (String compositeType : compositeResults.keySet()) {
+            Set<String> components = REVERSE_COMBINATION_RULES.get(compositeType);
+            if (components != null) {
+                usedInCombinations.addAll(components);
+            }
+        }
+
+        // 查找未被使用的基础元素
+        List<Entry> remainingElements = new ArrayList<>();
+        for (Entry element : reorderedElements) {
+            if (isBasicElementType(element.type) && !usedInCombinations.contains(element.type)) {
+                remainingElements.add(element);
+            }
+        }
+
+        for (Entry remainingElement : remainingElements) {
+            String baseType = remainingElement.type;
+            double baseValue = remainingElement.value;
+            boolean foundComposite = false;
+
+            // 按照Basic层中的复合元素顺序找到首个可以由这个基础元素合成的复合元素
+            for (Entry element : reorderedElements) {
+                if (classifier.isComplex(element.type) && compositeResults.containsKey(element.type)) {
+                    Set<String> components = REVERSE_COMBINATION_RULES.get(element.type);
+
+                    if (components != null && components.contains(baseType)) {
+                        // 将基础元素值加到复合元素中
+                        compositeResults.put(element.type, compositeResults.get(element.type) + baseValue);
+                        foundComposite = true;
+                        break; // 只处理第一个匹配的复合元素
+                    }
+                }
+            }
+
+            // 如果没有找到可以合成的复合元素，则直接添加基础元素
+            if (!foundComposite) {
+                compositeResults.put(baseType, baseValue);
+            }
+        }
+    }
+
+    /**
+     * 根据两个基础元素类型查找对应的复合元素类型
+     * @return 复合元素类型，如果找不到则返回null
+     */
+    public static String findCompositeType(String type1, String type2) {
+        Set<String> elements = new HashSet<>();
+        elements.add(type1);
+        elements.add(type2);
+        return COMBINATION_RULES.get(elements);
+    }
+}
@@ -0,0 +1,199 @@
+package com.xlxyvergil.hamstercore.combat;
+
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮
+ * 按tick调度定时任务，每次推进只处理到期的任务，开销与到期任务数量成正比，而不是与全部任务数量成正比
+ *
+ * 结构：
+ * - 第0层：64个槽，每槽1 tick，覆盖未来64 tick
+ * - 第1层：64个槽，每槽64 tick，覆盖未来4096 tick
+ * - 第2层：64个槽，每槽4096 tick，覆盖未来262144 tick
+ * - 更远的任务放在溢出链表中，每262144 tick重新分配一次
+ * 高层槽位在轮到时整体下放到低层，每个任务最多下放3次
+ *
+ * 取消的任务不会立即从槽中摘除，而是在到期或下放时跳过
+ * 不是线程安全的，只应在所属世界的服务端主线程上使用
+ * @param <T> 任务数据类型
+ */
+public final class TimingWheel<T> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS; // 64
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 3;
+    private static final long LEVEL1_SPAN = 1L << WHEEL_BITS;        // 64
+    private static final long LEVEL2_SPAN = 1L << (WHEEL_BITS * 2);  // 4096
+    private static final long WHEEL_SPAN = 1L << (WHEEL_BITS * 3);   // 262144
+
+    /**
+     * 定时任务句柄
+     */
+    public static final class Timer<T> {
+        private final T value;
+        private final long deadline;
+        private Timer<T> next;
+        private boolean cancelled;
+        private boolean fired;
+
+        private Timer(T value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * 取消任务，已到期或已取消的任务再次取消没有效果
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * 任务是否仍在等待到期
+         */
+        public boolean isPending() {
+            return !cancelled && !fired;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Timer<T>[][] slots = new Timer[LEVELS][WHEEL_SIZE];
+    private Timer<T> overflow;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param currentTick 当前tick，之后按这个值之后的tick推进
+     */
+    public TimingWheel(long currentTick) {
+        this.currentTick = currentTick;
+    }
+
+    /**
+     * 获取已推进到的tick
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * 获取等待中的任务数量（包括已取消但尚未被清理的任务）
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 调度一个任务
+     * 到期时间不晚于当前tick的任务在下一次推进时立即到期
+     * @param value 任务数据
+     * @param deadline 到期tick
+     * @return 任务句柄，可用于取消
+     */
+    public Timer<T> schedule(T value, long deadline) {
+        Timer<T> timer = new Timer<>(value, Math.max(deadline, currentTick + 1));
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * 推进到指定tick，依次处理途经每个tick的到期任务
+     * 处理函数中可以调度新的任务，到期时间不晚于当前tick的新任务在下一次推进时处理
+     * @param tick 目标tick
+     * @param handler 到期任务处理函数
+     */
+    public void advanceTo(long tick, Consumer<Timer<T>> handler) {
+        while (currentTick < tick) {
+            currentTick++;
+            long now = currentTick;
+
+            // 先从高层往低层下放，保证到期时间恰好是当前tick的任务在本tick处理
+            if ((now & (WHEEL_SPAN - 1)) == 0) {
+                Timer<T> list = overflow;
+                overflow = null;
+                cascade(list);
+            }
+            if ((now & (LEVEL2_SPAN - 1)) == 0) {
+                int slot = (int) ((now >> (WHEEL_BITS * 2)) & WHEEL_MASK);
+                Timer<T> list = slots[2][slot];
+                slots[2][slot] = null;
+                cascade(list);
+            }
+            if ((now & (LEVEL1_SPAN - 1)) == 0) {
+                int slot = (int) ((now >> WHEEL_BITS) & WHEEL_MASK);
+                Timer<T> list = slots[1][slot];
+                slots[1][slot] = null;
+                cascade(list);
+            }
+
+            // 处理第0层当前槽位的到期任务
+            int slot = (int) (now & WHEEL_MASK);
+            Timer<T> timer = slots[0][slot];
+            slots[0][slot] = null;
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                timer.next = null;
+                if (timer.cancelled) {
+                    size--;
+                } else if (timer.deadline <= now) {
+                    size--;
+                    timer.fired = true;
+                    handler.accept(timer);
+                } else {
+                    place(timer); // 正常情况下不会发生，保险起见重新放回
+                }
+                timer = next;
+            }
+        }
+    }
+
+    /**
+     * 将高层槽位中的任务按剩余时间重新分配到低层
+     */
+    private void cascade(Timer<T> timer) {
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.next = null;
+            if (timer.cancelled) {
+                size--;
+            } else {
+                place(timer);
+            }
+            timer = next;
+        }
+    }
+
+    /**
+     * 按到期时间与当前tick的距离放入对应层级的槽位
+     */
+    private void place(Timer<T> timer) {
+        long deadline = timer.deadline;
+        long delta = deadline - currentTick;
+        if (delta < LEVEL1_SPAN) {
+            int slot = (int) (deadline & WHEEL_MASK);
+            timer.next = slots[0][slot];
+            slots[0][slot] = timer;
+        } else if (delta < LEVEL2_SPAN) {
+            int slot = (int) ((deadline >> WHEEL_BITS) & WHEEL_MASK);
+            timer.next = slots[1][slot];
+            slots[1][slot] = timer;
+        } else if (delta < WHEEL_SPAN) {
+            int slot = (int) ((deadline >> (WHEEL_BITS * 2)) & WHEEL_MASK);
+            timer.next = slots[2][slot];
+            slots[2][slot] = timer;
+        } else {
+            timer.next = overflow;
+            overflow = timer;
+        }
+    }
+}
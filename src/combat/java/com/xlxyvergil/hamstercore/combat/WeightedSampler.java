@@ -0,0 +1,186 @@
+package com.xlxyvergil.hamstercore.combat;
+
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 加权不放回抽样核心
+ * 按权重不放回地抽取候选项，概率分布与逐次按剩余候选项重新归一化抽样完全一致
+ * 内部使用树状数组（Fenwick树）维护前缀和，每次抽取和移除都是O(log n)
+ * 数组只在候选项数量超过容量时扩容，清空后可以重复使用，抽样过程不产生临时对象
+ * 随机数由调用方传入，不依赖Minecraft
+ * @param <T> 候选项类型
+ */
+public class WeightedSampler<T> {
+
+    private Object[] items;
+    private double[] weights; // 下标从1开始
+    private double[] tree;    // 树状数组，下标从1开始
+    private int size;
+    private double totalWeight;
+
+    public WeightedSampler(int capacity) {
+        int initialCapacity = Math.max(1, capacity);
+        this.items = new Object[initialCapacity + 1];
+        this.weights = new double[initialCapacity + 1];
+        this.tree = new double[initialCapacity + 1];
+    }
+
+    /**
+     * 清空所有候选项，保留已分配的数组
+     */
+    public void clear() {
+        for (int i = 1; i <= size; i++) {
+            items[i] = null;
+        }
+        size = 0;
+        totalWeight = 0.0;
+    }
+
+    /**
+     * 添加一个候选项，权重不大于0时忽略
+     * 必须在所有候选项添加完毕后调用build()
+     * @param item 候选项
+     * @param weight 权重
+     */
+    public void add(T item, double weight) {
+        if (weight <= 0.0) {
+            return;
+        }
+        if (size + 1 >= weights.length) {
+            grow();
+        }
+        size++;
+        items[size] = item;
+        weights[size] = weight;
+        totalWeight += weight;
+    }
+
+    private void grow() {
+        int capacity = weights.length * 2;
+        Object[] newItems = new Object[capacity];
+        double[] newWeights = new double[capacity];
+        System.arraycopy(items, 0, newItems, 0, items.length);
+        System.arraycopy(weights, 0, newWeights, 0, weights.length);
+        items = newItems;
+        weights = newWeights;
+        tree = new double[capacity];
+    }
+
+    /**
+     * 根据已添加的权重构建树状数组，O(n)
+     */
+    public void build() {
+        for (int i = 1; i <= size; i++) {
+            tree[i] = weights[i];
+        }
+        for (int i = 1; i <= size; i++) {
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * 是否还有可抽取的候选项
+     */
+    public boolean isEmpty() {
+        return size == 0 || totalWeight <= 0.0;
+    }
+
+    /**
+     * 按剩余权重的比例抽取一个候选项，并将其从候选中移除
+     * @param roll [0,1)随机数
+     * @return 选中的候选项，如果没有可选候选项则返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T sampleAndRemove(double roll) {
+        if (isEmpty()) {
+            return null; // 没有可选的候选项
+        }
+
+        double target = roll * totalWeight;
+
+        // 在树状数组上查找前缀和首次超过target的位置
+        int position = 0;
+        double remaining = target;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= size && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        int index = position + 1;
+
+        // 如果由于浮点数精度问题越界或落在已移除的候选项上，选择最后一个仍可选的候选项
+        if (index > size || weights[index] <= 0.0) {
+            index = size;
+            while (index > 0 && weights[index] <= 0.0) {
+                index--;
+            }
+            if (index == 0) {
+                totalWeight = 0.0;
+                return null;
+            }
+        }
+
+        remove(index);
+        return (T) items[index];
+    }
+
+    /**
+     * 元素触发判定：按触发率判定是否触发并计算触发等级，再按剩余权重不放回地抽取触发等级个候选项
+     * 添加完候选项后调用，内部会构建树状数组；没有可选候选项时不消耗随机数
+     * 随机数依次用于触发判定、触发等级和每次抽取
+     * @param triggerChance 触发率
+     * @param rolls [0,1)随机数来源
+     * @param action 依次处理每个选中的候选项
+     * @return 选中的候选项数量
+     */
+    public int sampleTriggered(double triggerChance, DoubleSupplier rolls, Consumer<? super T> action) {
+        if (isEmpty() || !CombatMath.triggers(triggerChance, rolls.getAsDouble())) {
+            return 0; // 没有可选的候选项或没有触发
+        }
+
+        // 触发等级（保底等级 + 超出部分的随机判定，至少为1）
+        int triggerLevel = CombatMath.triggerLevel(triggerChance, rolls.getAsDouble());
+
+        build();
+        int candidateCount = size;
+        int selectedCount = 0;
+        for (int i = 0; i < triggerLevel && i < candidateCount && !isEmpty(); i++) {
+            T selected = sampleAndRemove(rolls.getAsDouble());
+            if (selected == null) {
+                break;
+            }
+            action.accept(selected);
+            selectedCount++;
+        }
+        return selectedCount;
+    }
+
+    private void remove(int index) {
+        double weight = weights[index];
+        weights[index] = 0.0;
+        totalWeight -= weight;
+        for (int i = index; i <= size; i += i & -i) {
+            tree[i] -= weight;
+        }
+    }
+
+    /**
+     * 获取候选项数量（包括已被抽取的）
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取剩余权重之和
+     */
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+}
@@ -0,0 +1,99 @@
+package com.xlxyvergil.hamstercore.combat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 属性修饰符合并计算核心测试
+ * 固定原先ElementCalculator中的Apotheosis公式：ADDITION累加、MULTIPLY_BASE按默认值累加、MULTIPLY_TOTAL连乘
+ */
+class AttributeModifierMathTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private static final class TestModifier implements AttributeModifierMath.Modifier {
+        private final String elementType;
+        private final double amount;
+        private final String operation;
+
+        private TestModifier(String elementType, double amount, String operation) {
+            this.elementType = elementType;
+            this.amount = amount;
+            this.operation = operation;
+        }
+
+        @Override
+        public String getElementType() {
+            return elementType;
+        }
+
+        @Override
+        public double getAmount() {
+            return amount;
+        }
+
+        @Override
+        public String getOperation() {
+            return operation;
+        }
+    }
+
+    private static TestModifier modifier(String operation, double amount) {
+        return new TestModifier("heat", amount, operation);
+    }
+
+    @Test
+    void emptyListReturnsDefaultValue() {
+        assertEquals(0.5, AttributeModifierMath.calculateValue(List.of(), 0.5), EPSILON);
+    }
+
+    @Test
+    void additionsAreSummedOntoDefaultValue() {
+        assertEquals(1.75, AttributeModifierMath.calculateValue(
+            List.of(modifier("ADDITION", 0.5), modifier("ADDITION", 0.25)), 1.0), EPSILON);
+        // 未知操作按ADDITION处理
+        assertEquals(1.5, AttributeModifierMath.calculateValue(List.of(modifier("unknown", 0.5)), 1.0), EPSILON);
+    }
+
+    @Test
+    void multiplyBaseScalesTheDefaultValueOnly() {
+        // 2 + 1 + 0.5 × 2 + 0.25 × 2 = 4.5
+        assertEquals(4.5, AttributeModifierMath.calculateValue(List.of(
+            modifier("MULTIPLY_BASE", 0.5), modifier("ADDITION", 1.0), modifier("MULTIPLY_BASE", 0.25)), 2.0), EPSILON);
+        // 默认值为0时MULTIPLY_BASE没有效果
+        assertEquals(0.0, AttributeModifierMath.calculateValue(List.of(modifier("MULTIPLY_BASE", 3.0)), 0.0), EPSILON);
+    }
+
+    @Test
+    void multiplyTotalIsAppliedLastRegardlessOfOrder() {
+        // (1 + 1 + 0.5 × 1) × 1.5 × 0.8 = 3.0
+        List<TestModifier> modifiers = List.of(
+            modifier("MULTIPLY_TOTAL", 0.5),
+            modifier("ADDITION", 1.0),
+            modifier("MULTIPLY_TOTAL", -0.2),
+            modifier("MULTIPLY_BASE", 0.5));
+        assertEquals(3.0, AttributeModifierMath.calculateValue(modifiers, 1.0), EPSILON);
+    }
+
+    @Test
+    void operationNamesAreCaseInsensitive() {
+        assertEquals(3.0, AttributeModifierMath.calculateValue(
+            List.of(modifier("multiply_total", 0.5), modifier("Multiply_Base", 1.0)), 1.0), EPSILON);
+    }
+
+    @Test
+    void calculateGroupedUsesPerNameDefaults() {
+        List<TestModifier> modifiers = List.of(
+            new TestModifier("heat", 0.5, "ADDITION"),
+            new TestModifier("cold", 1.0, "MULTIPLY_BASE"),
+            new TestModifier("heat", 1.0, "MULTIPLY_TOTAL"));
+        Map<String, Double> values = AttributeModifierMath.calculateGrouped(modifiers, name -> "cold".equals(name) ? 2.0 : 0.0);
+        assertEquals(2, values.size());
+        assertEquals(1.0, values.get("heat"), EPSILON);
+        assertEquals(4.0, values.get("cold"), EPSILON);
+    }
+}
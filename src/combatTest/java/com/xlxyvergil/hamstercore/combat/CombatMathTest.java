@@ -0,0 +1,270 @@
+package com.xlxyvergil.hamstercore.combat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 战斗数值计算核心测试
+ * 固定护甲减免、暴击/触发等级在100%边界附近的取值，以及派系克制系数与原先按名称查表的结果一致
+ */
+class CombatMathTest {
+
+    private static final double EPSILON = 1e-9;
+
+    // 测试用的元素序号，顺序与元素注册表无关
+    private static final String[] ELEMENTS = {
+        "heat", "cold", "electricity", "toxin",
+        "grineer", "infested", "corpus", "orokin", "sentient", "murmur",
+        "blast", "corrosive", "gas", "magnetic", "radiation", "viral",
+        "impact", "puncture", "slash"
+    };
+
+    // 原先派系克制计算依次检查的元素：派系元素、复合元素、物理元素
+    private static final String[] RESISTANCE_NAMES = {
+        "grineer", "infested", "corpus", "orokin", "sentient", "murmur",
+        "blast", "corrosive", "gas", "magnetic", "radiation", "viral",
+        "impact", "puncture", "slash"
+    };
+
+    private static final String[] FACTIONS = {"grineer", "infested", "corpus", "orokin", "sentient", "murmur"};
+
+    // 原先的派系克制关系表
+    private static final Map<String, Map<String, Double>> OLD_RESISTANCES = new HashMap<>();
+
+    static {
+        OLD_RESISTANCES.put("grineer", Map.of("impact", 0.5, "corrosive", 0.5));
+        OLD_RESISTANCES.put("infested", Map.of("slash", 0.5, "heat", 0.5));
+        OLD_RESISTANCES.put("corpus", Map.of("puncture", 0.5, "magnetic", 0.5));
+        OLD_RESISTANCES.put("orokin", Map.of("puncture", 0.5, "viral", 0.5, "radiation", -0.5));
+        OLD_RESISTANCES.put("sentient", Map.of("cold", 0.5, "radiation", 0.5, "corrosive", -0.5));
+        OLD_RESISTANCES.put("murmur", Map.of("electricity", 0.5, "radiation", 0.5, "viral", -0.5));
+    }
+
+    @Test
+    void armorModifierFollowsSquareRootCurve() {
+        assertEquals(0.0, CombatMath.armorModifier(0), EPSILON);
+        assertEquals(0.3, CombatMath.armorModifier(300), EPSILON);
+        assertEquals(0.45, CombatMath.armorModifier(675), EPSILON);
+        assertEquals(0.9, CombatMath.armorModifier(CombatMath.MAX_ARMOR), EPSILON);
+        assertEquals(0.1, CombatMath.armorReduction(CombatMath.MAX_ARMOR), EPSILON);
+        assertEquals(0.55, CombatMath.armorReduction(675), EPSILON);
+    }
+
+    @Test
+    void criticalLevelAtChanceBoundaries() {
+        // 0%：永远不暴击
+        assertEquals(0, CombatMath.criticalLevel(0.0, 0.0));
+        assertEquals(0, CombatMath.criticalLevel(0.0, 0.999));
+
+        // 99%：保底0级，99%概率1级
+        assertEquals(1, CombatMath.criticalLevel(0.99, 0.0));
+        assertEquals(1, CombatMath.criticalLevel(0.99, 0.985));
+        assertEquals(0, CombatMath.criticalLevel(0.99, 0.995));
+
+        // 100%：保底1级，不会达到2级
+        assertEquals(1, CombatMath.criticalLevel(1.0, 0.0));
+        assertEquals(1, CombatMath.criticalLevel(1.0, 0.999));
+
+        // 150%：保底1级，50%概率2级
+        assertEquals(2, CombatMath.criticalLevel(1.5, 0.0));
+        assertEquals(2, CombatMath.criticalLevel(1.5, 0.49));
+        assertEquals(1, CombatMath.criticalLevel(1.5, 0.5));
+        assertEquals(1, CombatMath.criticalLevel(1.5, 0.999));
+
+        // 300%：保底3级，不会达到4级
+        assertEquals(3, CombatMath.criticalLevel(3.0, 0.0));
+        assertEquals(3, CombatMath.criticalLevel(3.0, 0.999));
+    }
+
+    @Test
+    void triggerLevelAtChanceBoundaries() {
+        assertEquals(0, CombatMath.triggerLevel(0.0, 0.0));
+
+        // 不足100%时已经判定触发，至少触发一个效果
+        assertEquals(1, CombatMath.triggerLevel(0.99, 0.0));
+        assertEquals(1, CombatMath.triggerLevel(0.99, 0.995));
+
+        assertEquals(1, CombatMath.triggerLevel(1.0, 0.0));
+        assertEquals(1, CombatMath.triggerLevel(1.0, 0.999));
+
+        assertEquals(2, CombatMath.triggerLevel(1.5, 0.49));
+        assertEquals(1, CombatMath.triggerLevel(1.5, 0.5));
+
+        assertEquals(3, CombatMath.triggerLevel(3.0, 0.0));
+        assertEquals(3, CombatMath.triggerLevel(3.0, 0.999));
+    }
+
+    @Test
+    void triggersWhenRollDoesNotExceedChance() {
+        assertTrue(CombatMath.triggers(0.5, 0.5));
+        assertFalse(CombatMath.triggers(0.5, 0.51));
+        assertTrue(CombatMath.triggers(1.0, 0.999));
+        assertFalse(CombatMath.triggers(0.0, 0.001));
+    }
+
+    @Test
+    void criticalMultiplierIsAtLeastOne() {
+        assertEquals(1.0, CombatMath.criticalMultiplier(0, 2.0), EPSILON);
+        assertEquals(2.0, CombatMath.criticalMultiplier(1, 2.0), EPSILON);
+        assertEquals(5.5, CombatMath.criticalMultiplier(3, 2.5), EPSILON);
+        assertEquals(1.0, CombatMath.criticalMultiplier(2, 0.5), EPSILON);
+    }
+
+    @Test
+    void totalElementMultiplierIsAtLeastOne() {
+        assertEquals(1.0, CombatMath.totalElementMultiplier(0.0), EPSILON);
+        assertEquals(1.0, CombatMath.totalElementMultiplier(0.4), EPSILON);
+        assertEquals(2.5, CombatMath.totalElementMultiplier(2.5), EPSILON);
+        assertEquals(0.7, CombatMath.sumPositive(new double[] {0.5, -1.0, 0.2, 3.0}, new int[] {0, 1, 2}), EPSILON);
+    }
+
+    @Test
+    void finalDamageIsNeverNegative() {
+        assertEquals(30.0f, CombatMath.finalDamage(10f, 0.5, 2.0, 1.0, 1.0), 1e-5f);
+        assertEquals(0.0f, CombatMath.finalDamage(10f, -2.0, 1.0, 1.0, 1.0));
+    }
+
+    @Test
+    void hitAssemblesFactionElementCriticalAndArmor() {
+        // 150%暴击率、随机数0.25达到2级暴击：倍率 1 + 2 × (2 - 1) = 3
+        CombatMath.Hit hit = CombatMath.hit(10f, 0.5, 2.0, 1.5, 2.0, 0.25, CombatMath.armorModifier(675));
+        assertEquals(2, hit.getCriticalLevel());
+        assertEquals(3.0, hit.getCriticalMultiplier(), EPSILON);
+        assertEquals(0.55, hit.getArmorReduction(), EPSILON);
+        assertEquals(10f * 1.5f * 2f * 3f * 0.55f, hit.getFinalDamage(), 1e-4f);
+
+        // 暴击率为0（DoT伤害）时不暴击
+        CombatMath.Hit dot = CombatMath.hit(10f, 0.5, 2.0, 0.0, 2.0, 0.0, 0.0);
+        assertEquals(0, dot.getCriticalLevel());
+        assertEquals(1.0, dot.getCriticalMultiplier(), EPSILON);
+        assertEquals(30.0f, dot.getFinalDamage(), 1e-5f);
+    }
+
+    @Test
+    void hitGroupRollsCriticalPerPellet() {
+        // 150%暴击率：随机数0.1、0.9、0.2分别得到2级、1级、2级暴击，暴击倍率3、2、3
+        double[] rolls = {0.1, 0.9, 0.2};
+        int[] next = new int[1];
+        float[] baseDamages = {1f, 2f, 3f, 100f}; // 只有前3个有效
+        CombatMath.Hit group = CombatMath.hitGroup(baseDamages, 3, 0.0, 1.0, 1.5, 2.0, () -> rolls[next[0]++], 0.0);
+        assertEquals(3, next[0]);
+        assertEquals(2, group.getCriticalLevel());
+        assertEquals(16.0 / 6.0, group.getCriticalMultiplier(), EPSILON);
+        assertEquals(1.0, group.getArmorReduction(), EPSILON);
+        assertEquals(16.0f, group.getFinalDamage(), 1e-5f);
+    }
+
+    @Test
+    void hitGroupMatchesSumOfSingleHits() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int run = 0; run < 1000; run++) {
+            int count = 1 + random.nextInt(10);
+            float[] baseDamages = new float[count];
+            double[] rolls = new double[count];
+            for (int i = 0; i < count; i++) {
+                baseDamages[i] = (float) (1 + random.nextDouble() * 10);
+                rolls[i] = random.nextDouble();
+            }
+            double factionModifier = random.nextDouble() - 0.5;
+            double elementMultiplier = 1 + random.nextDouble() * 3;
+            double criticalChance = random.nextDouble() * 4;
+            double armorModifier = CombatMath.armorModifier(random.nextDouble() * CombatMath.MAX_ARMOR);
+
+            float expected = 0.0f;
+            int maxLevel = 0;
+            for (int i = 0; i < count; i++) {
+                CombatMath.Hit hit = CombatMath.hit(baseDamages[i], factionModifier, elementMultiplier, criticalChance, 2.5, rolls[i], armorModifier);
+                expected += hit.getFinalDamage();
+                maxLevel = Math.max(maxLevel, hit.getCriticalLevel());
+            }
+            int[] next = new int[1];
+            CombatMath.Hit group = CombatMath.hitGroup(baseDamages, count, factionModifier, elementMultiplier,
+                criticalChance, 2.5, () -> rolls[next[0]++], armorModifier);
+            assertEquals(expected, group.getFinalDamage(), 1e-3f);
+            assertEquals(maxLevel, group.getCriticalLevel());
+        }
+    }
+
+    @Test
+    void factionModifierMatchesOldTable() {
+        int[] resistanceElements = new int[RESISTANCE_NAMES.length];
+        for (int i = 0; i < RESISTANCE_NAMES.length; i++) {
+            resistanceElements[i] = indexOf(RESISTANCE_NAMES[i]);
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (String faction : FACTIONS) {
+            Map<String, Double> resistances = OLD_RESISTANCES.get(faction);
+            // 克制系数行包含原表中的全部条目（包括原先不参与判定的基础元素）
+            double[] row = new double[ELEMENTS.length];
+            for (Map.Entry<String, Double> entry : resistances.entrySet()) {
+                row[indexOf(entry.getKey())] = entry.getValue();
+            }
+
+            for (int run = 0; run < 1000; run++) {
+                double[] values = new double[ELEMENTS.length];
+                for (int i = 0; i < values.length; i++) {
+                    // 约三分之一的元素值不大于0
+                    values[i] = random.nextInt(3) == 0 ? -random.nextDouble() * 0.5 : random.nextDouble();
+                }
+                double totalFactionValue = 0.0;
+                for (String factionElement : FACTIONS) {
+                    totalFactionValue += values[indexOf(factionElement)];
+                }
+
+                double expected = oldFactionModifier(values, resistances, totalFactionValue);
+                double actual = CombatMath.factionModifier(totalFactionValue, values, resistanceElements, row);
+                assertEquals(expected, actual, EPSILON, faction + " run=" + run);
+            }
+        }
+    }
+
+    @Test
+    void factionModifierIgnoresBasicElementResistances() {
+        // 原表中感染者对火焰的克制系数不参与计算
+        int[] resistanceElements = new int[RESISTANCE_NAMES.length];
+        for (int i = 0; i < RESISTANCE_NAMES.length; i++) {
+            resistanceElements[i] = indexOf(RESISTANCE_NAMES[i]);
+        }
+        double[] row = new double[ELEMENTS.length];
+        row[indexOf("heat")] = 0.5;
+        row[indexOf("slash")] = 0.5;
+        double[] values = new double[ELEMENTS.length];
+        values[indexOf("heat")] = 1.0;
+        assertEquals(0.0, CombatMath.factionModifier(0.0, values, resistanceElements, row), EPSILON);
+        values[indexOf("slash")] = 0.1;
+        assertEquals(0.5, CombatMath.factionModifier(0.0, values, resistanceElements, row), EPSILON);
+    }
+
+    /**
+     * 原先的派系克制计算：派系元素总值 + 攻击者拥有的各元素在克制表中的系数
+     */
+    private static double oldFactionModifier(double[] values, Map<String, Double> resistances, double totalFactionValue) {
+        double totalResistance = 0.0;
+        for (String name : RESISTANCE_NAMES) {
+            if (values[indexOf(name)] > 0) {
+                Double resistance = resistances.get(name);
+                if (resistance != null) {
+                    totalResistance += resistance;
+                }
+            }
+        }
+        return totalFactionValue + totalResistance;
+    }
+
+    private static int indexOf(String name) {
+        for (int i = 0; i < ELEMENTS.length; i++) {
+            if (ELEMENTS[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+}
@@ -0,0 +1,119 @@
+package com.xlxyvergil.hamstercore.combat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 元素复合计算核心测试
+ * 固定原先ElementCombinationModifier的行为：user/def排序、剩余基础元素的处理、Basic层中的def复合元素
+ */
+class ElementCombinerTest {
+
+    private static final Set<String> BASIC = Set.of("heat", "cold", "electricity", "toxin");
+    private static final Set<String> COMPLEX = Set.of("blast", "corrosive", "gas", "magnetic", "radiation", "viral");
+
+    private static final ElementCombiner.ElementClassifier CLASSIFIER = new ElementCombiner.ElementClassifier() {
+        @Override
+        public boolean isBasic(String type) {
+            return BASIC.contains(type);
+        }
+
+        @Override
+        public boolean isComplex(String type) {
+            return COMPLEX.contains(type);
+        }
+    };
+
+    private static ElementCombiner.Entry def(String type, double value) {
+        return new ElementCombiner.Entry(type, value, "def");
+    }
+
+    private static ElementCombiner.Entry user(String type, double value) {
+        return new ElementCombiner.Entry(type, value, "user");
+    }
+
+    private static Map<String, Double> combine(ElementCombiner.Entry... entries) {
+        return ElementCombiner.combine(List.of(entries), CLASSIFIER);
+    }
+
+    private static void assertResult(Map<String, Double> actual, Object... expected) {
+        List<String> expectedKeys = new ArrayList<>();
+        for (int i = 0; i < expected.length; i += 2) {
+            String type = (String) expected[i];
+            expectedKeys.add(type);
+            assertEquals((Double) expected[i + 1], actual.get(type), 1e-9, type);
+        }
+        // 结果的顺序决定显示顺序，同样需要固定
+        assertEquals(expectedKeys, new ArrayList<>(actual.keySet()));
+    }
+
+    @Test
+    void adjacentBasicElementsCombineInOrder() {
+        assertResult(combine(def("heat", 0.6), def("cold", 0.4)), "blast", 1.0);
+        assertResult(combine(def("electricity", 0.3), def("toxin", 0.2)), "corrosive", 0.5);
+        // 前两个组合后，第三个元素单独保留
+        assertResult(combine(def("heat", 1.0), def("cold", 0.5), def("toxin", 0.3)),
+            "blast", 1.5, "toxin", 0.3);
+        // 两两组合
+        assertResult(combine(def("cold", 0.1), def("electricity", 0.2), def("heat", 0.3), def("toxin", 0.4)),
+            "magnetic", 0.3, "gas", 0.7);
+    }
+
+    @Test
+    void userElementsAreCombinedBeforeDefElements() {
+        // toxin(user)排到最前面，先与heat组合为gas，cold单独保留
+        assertResult(combine(def("heat", 1.0), def("cold", 0.5), user("toxin", 0.3)),
+            "gas", 1.3, "cold", 0.5);
+        // 同一来源内保持Basic层顺序
+        assertResult(combine(user("electricity", 0.2), def("toxin", 0.1), user("heat", 0.4)),
+            "radiation", 0.6, "toxin", 0.1);
+    }
+
+    @Test
+    void basicElementsAreOrderedBeforeComposites() {
+        // Basic层中复合元素排在前面时，基础元素仍然先组合
+        assertResult(combine(def("viral", 0.5), user("heat", 0.3), user("cold", 0.2)),
+            "blast", 0.5, "viral", 0.5);
+    }
+
+    @Test
+    void defCompositesMergeWithCalculatedComposites() {
+        assertResult(combine(def("heat", 0.3), def("cold", 0.2), def("blast", 0.4)), "blast", 0.9);
+        assertResult(combine(def("corrosive", 0.4), def("magnetic", 0.25)), "corrosive", 0.4, "magnetic", 0.25);
+    }
+
+    @Test
+    void leftoverBasicElementHandling() {
+        // 剩余的基础元素不属于任何已有复合元素时单独保留
+        assertResult(combine(user("heat", 1.0), user("electricity", 0.5), def("cold", 0.25)),
+            "radiation", 1.5, "cold", 0.25);
+        // 剩余的基础元素是已有复合元素的组成部分时，视为已经参与复合，不再单独保留
+        assertResult(combine(def("cold", 0.4), def("heat", 0.6), def("toxin", 0.2), def("viral", 0.5)),
+            "blast", 1.0, "viral", 0.5);
+        // 只有一个基础元素时同样适用
+        assertResult(combine(def("toxin", 0.2), def("gas", 0.5)), "gas", 0.5);
+        assertResult(combine(def("toxin", 0.2), def("blast", 0.5)), "blast", 0.5, "toxin", 0.2);
+    }
+
+    @Test
+    void nonPositiveValuesAreFilteredOut() {
+        assertResult(combine(def("toxin", -0.1)));
+        assertResult(combine(def("heat", 0.0), def("cold", 0.0)));
+        assertResult(combine(def("heat", 0.5), def("cold", -0.5), def("toxin", 0.2)), "toxin", 0.2);
+    }
+
+    @Test
+    void findCompositeTypeIsSymmetric() {
+        assertEquals("blast", ElementCombiner.findCompositeType("cold", "heat"));
+        assertEquals("viral", ElementCombiner.findCompositeType("toxin", "cold"));
+        assertNull(ElementCombiner.findCompositeType("heat", "heat"));
+        assertNull(ElementCombiner.findCompositeType("heat", "slash"));
+    }
+}
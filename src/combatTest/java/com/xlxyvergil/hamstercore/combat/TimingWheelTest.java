@@ -0,0 +1,194 @@
+package com.xlxyvergil.hamstercore.combat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分层时间轮测试
+ * 重点覆盖层级边界（64/4096/262144）附近的下放、取消和在处理函数中重新调度
+ */
+class TimingWheelTest {
+
+    // 各层级边界及其前后的距离，262144以上进入溢出链表
+    private static final long[] BOUNDARY_DELAYS = {
+        1, 2, 63, 64, 65,
+        4095, 4096, 4097,
+        262143, 262144, 262145,
+        300000, 600000
+    };
+
+    /**
+     * 记录每个任务到期时的tick
+     */
+    private static final class Recorder {
+        private final List<String> values = new ArrayList<>();
+        private final List<Long> ticks = new ArrayList<>();
+
+        private void record(TimingWheel<String> wheel, TimingWheel.Timer<String> timer) {
+            values.add(timer.getValue());
+            ticks.add(wheel.getCurrentTick());
+        }
+    }
+
+    @Test
+    void firesExactlyOnDeadlineAcrossLevelBoundaries() {
+        // 起始tick分别与各层边界对齐和不对齐
+        for (long start : new long[] {0, 1, 63, 64, 4095, 100_000, 262_143, 262_144}) {
+            for (long delay : BOUNDARY_DELAYS) {
+                TimingWheel<String> wheel = new TimingWheel<>(start);
+                long deadline = start + delay;
+                TimingWheel.Timer<String> timer = wheel.schedule("t", deadline);
+                Recorder recorder = new Recorder();
+
+                wheel.advanceTo(deadline - 1, t -> recorder.record(wheel, t));
+                assertTrue(recorder.ticks.isEmpty(), "start=" + start + " delay=" + delay + " fired early");
+                assertTrue(timer.isPending());
+
+                wheel.advanceTo(deadline, t -> recorder.record(wheel, t));
+                assertEquals(List.of(deadline), recorder.ticks, "start=" + start + " delay=" + delay);
+                assertFalse(timer.isPending());
+                assertEquals(0, wheel.size());
+            }
+        }
+    }
+
+    @Test
+    void firesManyTimersInDeadlineOrder() {
+        TimingWheel<String> wheel = new TimingWheel<>(10);
+        for (int i = BOUNDARY_DELAYS.length - 1; i >= 0; i--) {
+            wheel.schedule(String.valueOf(BOUNDARY_DELAYS[i]), 10 + BOUNDARY_DELAYS[i]);
+        }
+        assertEquals(BOUNDARY_DELAYS.length, wheel.size());
+
+        Recorder recorder = new Recorder();
+        wheel.advanceTo(10 + 600000, t -> recorder.record(wheel, t));
+
+        assertEquals(BOUNDARY_DELAYS.length, recorder.ticks.size());
+        for (int i = 0; i < BOUNDARY_DELAYS.length; i++) {
+            assertEquals(String.valueOf(BOUNDARY_DELAYS[i]), recorder.values.get(i));
+            assertEquals(10 + BOUNDARY_DELAYS[i], recorder.ticks.get(i));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(500);
+        wheel.schedule("past", 100);
+        wheel.schedule("now", 500);
+
+        Recorder recorder = new Recorder();
+        wheel.advanceTo(501, t -> recorder.record(wheel, t));
+        assertEquals(List.of(501L, 501L), recorder.ticks);
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        for (long delay : BOUNDARY_DELAYS) {
+            TimingWheel<String> wheel = new TimingWheel<>(0);
+            TimingWheel.Timer<String> cancelled = wheel.schedule("cancelled", delay);
+            TimingWheel.Timer<String> kept = wheel.schedule("kept", delay);
+            cancelled.cancel();
+            assertFalse(cancelled.isPending());
+
+            Recorder recorder = new Recorder();
+            wheel.advanceTo(delay, t -> recorder.record(wheel, t));
+            assertEquals(List.of("kept"), recorder.values, "delay=" + delay);
+            assertFalse(kept.isPending());
+            // 取消的任务在到期或下放时被清理
+            assertEquals(0, wheel.size(), "delay=" + delay);
+        }
+    }
+
+    @Test
+    void cancelAfterCascadeBeforeDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        TimingWheel.Timer<String> timer = wheel.schedule("t", 5000);
+
+        // 推进到第1层和第2层的下放都已经发生，但尚未到期
+        wheel.advanceTo(4999, t -> { throw new AssertionError("fired early"); });
+        timer.cancel();
+
+        Recorder recorder = new Recorder();
+        wheel.advanceTo(10000, t -> recorder.record(wheel, t));
+        assertTrue(recorder.values.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancellingFiredTimerHasNoEffect() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        TimingWheel.Timer<String> timer = wheel.schedule("t", 64);
+        Recorder recorder = new Recorder();
+        wheel.advanceTo(64, t -> recorder.record(wheel, t));
+        timer.cancel();
+        assertEquals(1, recorder.values.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void reschedulingFromHandlerFiresAtNewDeadline() {
+        // 周期任务：每次到期时在处理函数中按固定间隔重新调度，间隔跨越各层边界
+        for (long period : new long[] {1, 20, 64, 65, 4096, 4097}) {
+            TimingWheel<String> wheel = new TimingWheel<>(0);
+            List<Long> ticks = new ArrayList<>();
+            wheel.schedule("periodic", period);
+
+            int rounds = 5;
+            wheel.advanceTo(period * rounds, timer -> {
+                ticks.add(wheel.getCurrentTick());
+                wheel.schedule(timer.getValue(), timer.getDeadline() + period);
+            });
+
+            List<Long> expected = new ArrayList<>();
+            for (int i = 1; i <= rounds; i++) {
+                expected.add(period * i);
+            }
+            assertEquals(expected, ticks, "period=" + period);
+            assertEquals(1, wheel.size());
+        }
+    }
+
+    @Test
+    void reschedulingForCurrentTickFromHandlerFiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        wheel.schedule("t", 64);
+
+        List<Long> ticks = new ArrayList<>();
+        wheel.advanceTo(70, timer -> {
+            ticks.add(wheel.getCurrentTick());
+            if (ticks.size() < 3) {
+                wheel.schedule(timer.getValue(), wheel.getCurrentTick());
+            }
+        });
+        assertEquals(List.of(64L, 65L, 66L), ticks);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancellingSiblingFromHandlerSkipsIt() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        List<TimingWheel.Timer<String>> timers = new ArrayList<>();
+        timers.add(wheel.schedule("a", 4096));
+        timers.add(wheel.schedule("b", 4096));
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(4096, timer -> {
+            fired.add(timer.getValue());
+            // 同一槽位中先到期的任务取消另一个
+            for (TimingWheel.Timer<String> other : timers) {
+                if (other != timer) {
+                    other.cancel();
+                }
+            }
+        });
+        assertEquals(1, fired.size());
+        assertEquals(0, wheel.size());
+    }
+}
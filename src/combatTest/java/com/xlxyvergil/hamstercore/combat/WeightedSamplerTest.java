@@ -0,0 +1,232 @@
+package com.xlxyvergil.hamstercore.combat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 加权不放回抽样核心测试
+ * 抽样分布与原先逐次按剩余候选项重新归一化抽样的解析概率比较，并覆盖权重不大于0、最后一个候选项和空抽样器等边界情况
+ */
+class WeightedSamplerTest {
+
+    private static final int RUNS = 200_000;
+    private static final double TOLERANCE = 0.005;
+
+    private static WeightedSampler<Integer> samplerOf(double... weights) {
+        WeightedSampler<Integer> sampler = new WeightedSampler<>(4);
+        for (int i = 0; i < weights.length; i++) {
+            sampler.add(i, weights[i]);
+        }
+        sampler.build();
+        return sampler;
+    }
+
+    /**
+     * 原先的算法第一次抽到i的概率：w_i / W
+     */
+    private static double firstPickProbability(double[] weights, int i) {
+        double total = 0.0;
+        for (double weight : weights) {
+            total += Math.max(0.0, weight);
+        }
+        return Math.max(0.0, weights[i]) / total;
+    }
+
+    /**
+     * 原先的算法第二次抽到j的概率：Σ(k≠j) w_k / W × w_j / (W - w_k)
+     */
+    private static double secondPickProbability(double[] weights, int j) {
+        double total = 0.0;
+        for (double weight : weights) {
+            total += Math.max(0.0, weight);
+        }
+        double probability = 0.0;
+        for (int k = 0; k < weights.length; k++) {
+            if (k == j || weights[k] <= 0.0) {
+                continue;
+            }
+            probability += weights[k] / total * Math.max(0.0, weights[j]) / (total - weights[k]);
+        }
+        return probability;
+    }
+
+    private static void assertPickFrequencies(double[] weights, long seed) {
+        int[] firstCounts = new int[weights.length];
+        int[] secondCounts = new int[weights.length];
+        SplittableRandom random = new SplittableRandom(seed);
+        WeightedSampler<Integer> sampler = new WeightedSampler<>(4);
+        for (int run = 0; run < RUNS; run++) {
+            sampler.clear();
+            for (int i = 0; i < weights.length; i++) {
+                sampler.add(i, weights[i]);
+            }
+            sampler.build();
+            firstCounts[sampler.sampleAndRemove(random.nextDouble())]++;
+            secondCounts[sampler.sampleAndRemove(random.nextDouble())]++;
+        }
+
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals(firstPickProbability(weights, i), (double) firstCounts[i] / RUNS, TOLERANCE, "first pick " + i);
+            assertEquals(secondPickProbability(weights, i), (double) secondCounts[i] / RUNS, TOLERANCE, "second pick " + i);
+        }
+    }
+
+    @Test
+    void pickFrequenciesMatchRenormalizedDraws() {
+        assertPickFrequencies(new double[] {1.0, 1.0, 1.0}, 1L);
+        assertPickFrequencies(new double[] {0.5, 0.3, 0.15, 0.05}, 2L);
+        assertPickFrequencies(new double[] {5.0, 0.2, 1.3, 0.7, 2.8, 0.1, 0.9}, 3L);
+    }
+
+    @Test
+    void pickFrequenciesSkipNonPositiveWeights() {
+        double[] weights = {0.4, 0.0, 1.2, -0.5, 0.6};
+        assertPickFrequencies(weights, 4L);
+
+        WeightedSampler<Integer> sampler = samplerOf(weights);
+        assertEquals(3, sampler.size());
+        assertEquals(2.2, sampler.getTotalWeight(), 1e-9);
+        Set<Integer> picked = new HashSet<>();
+        SplittableRandom random = new SplittableRandom(5L);
+        for (int run = 0; run < 1000; run++) {
+            sampler.clear();
+            for (int i = 0; i < weights.length; i++) {
+                sampler.add(i, weights[i]);
+            }
+            sampler.build();
+            Integer selected;
+            while ((selected = sampler.sampleAndRemove(random.nextDouble())) != null) {
+                picked.add(selected);
+            }
+        }
+        assertEquals(Set.of(0, 2, 4), picked);
+    }
+
+    @Test
+    void drawsEveryCandidateExactlyOnce() {
+        WeightedSampler<Integer> sampler = samplerOf(0.1, 2.0, 0.5, 0.5, 3.0);
+        SplittableRandom random = new SplittableRandom(6L);
+        Set<Integer> picked = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(picked.add(sampler.sampleAndRemove(random.nextDouble())));
+        }
+        assertEquals(Set.of(0, 1, 2, 3, 4), picked);
+        assertTrue(sampler.isEmpty());
+        assertNull(sampler.sampleAndRemove(0.5));
+    }
+
+    @Test
+    void lastRemainingCandidateIsPickedForAnyRoll() {
+        for (double roll : new double[] {0.0, 0.5, Math.nextDown(1.0)}) {
+            WeightedSampler<Integer> sampler = samplerOf(1.0, 2.0, 3.0);
+            assertEquals(2, sampler.sampleAndRemove(Math.nextDown(1.0)));
+            assertEquals(0, sampler.sampleAndRemove(0.0));
+            assertEquals(1, sampler.sampleAndRemove(roll), "roll=" + roll);
+            assertNull(sampler.sampleAndRemove(roll));
+        }
+    }
+
+    @Test
+    void rollsMapToCumulativeWeightIntervals() {
+        // 累积区间：[0,1) -> 0，[1,3) -> 1，[3,6) -> 2
+        assertEquals(0, samplerOf(1.0, 2.0, 3.0).sampleAndRemove(0.0));
+        assertEquals(0, samplerOf(1.0, 2.0, 3.0).sampleAndRemove(0.16));
+        assertEquals(1, samplerOf(1.0, 2.0, 3.0).sampleAndRemove(0.17));
+        assertEquals(1, samplerOf(1.0, 2.0, 3.0).sampleAndRemove(0.49));
+        assertEquals(2, samplerOf(1.0, 2.0, 3.0).sampleAndRemove(0.51));
+        assertEquals(2, samplerOf(1.0, 2.0, 3.0).sampleAndRemove(Math.nextDown(1.0)));
+    }
+
+    @Test
+    void emptySamplerReturnsNull() {
+        WeightedSampler<Integer> sampler = new WeightedSampler<>(0);
+        sampler.build();
+        assertTrue(sampler.isEmpty());
+        assertNull(sampler.sampleAndRemove(0.5));
+
+        WeightedSampler<Integer> onlyNonPositive = samplerOf(0.0, -1.0);
+        assertEquals(0, onlyNonPositive.size());
+        assertTrue(onlyNonPositive.isEmpty());
+        assertNull(onlyNonPositive.sampleAndRemove(0.0));
+    }
+
+    @Test
+    void clearAllowsReuseBeyondInitialCapacity() {
+        WeightedSampler<Integer> sampler = new WeightedSampler<>(1);
+        for (int round = 0; round < 3; round++) {
+            sampler.clear();
+            int count = 10 + round * 10;
+            for (int i = 0; i < count; i++) {
+                sampler.add(i, 1.0);
+            }
+            sampler.build();
+            assertEquals(count, sampler.size());
+            SplittableRandom random = new SplittableRandom(round);
+            Set<Integer> picked = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                assertTrue(picked.add(sampler.sampleAndRemove(random.nextDouble())));
+            }
+            assertNull(sampler.sampleAndRemove(0.5));
+        }
+    }
+
+    @Test
+    void sampleTriggeredDrawsTriggerLevelDistinctCandidates() {
+        SplittableRandom random = new SplittableRandom(7L);
+
+        // 300%触发率保底3个效果，候选项只有2个时全部选中
+        List<Integer> selected = new ArrayList<>();
+        WeightedSampler<Integer> sampler = samplerOf(1.0, 0.0, 2.0);
+        assertEquals(2, sampler.sampleTriggered(3.0, random::nextDouble, selected::add));
+        assertEquals(Set.of(0, 2), new HashSet<>(selected));
+
+        // 100%触发率正好选中一个
+        selected.clear();
+        sampler = samplerOf(1.0, 1.0, 1.0, 1.0);
+        assertEquals(1, sampler.sampleTriggered(1.0, random::nextDouble, selected::add));
+        assertEquals(1, selected.size());
+
+        // 150%触发率选中1个或2个
+        for (int run = 0; run < 100; run++) {
+            selected.clear();
+            sampler = samplerOf(1.0, 1.0, 1.0, 1.0);
+            int count = sampler.sampleTriggered(1.5, random::nextDouble, selected::add);
+            assertTrue(count == 1 || count == 2, "count=" + count);
+            assertEquals(count, new HashSet<>(selected).size());
+        }
+    }
+
+    @Test
+    void sampleTriggeredConsumesNoRollsWhenEmpty() {
+        int[] rolls = new int[1];
+        WeightedSampler<Integer> sampler = samplerOf(0.0, -2.0);
+        int count = sampler.sampleTriggered(2.0, () -> {
+            rolls[0]++;
+            return 0.0;
+        }, item -> { throw new AssertionError("selected " + item); });
+        assertEquals(0, count);
+        assertEquals(0, rolls[0]);
+    }
+
+    @Test
+    void sampleTriggeredStopsWhenTriggerRollFails() {
+        // 触发判定失败时只消耗一个随机数
+        int[] rolls = new int[1];
+        WeightedSampler<Integer> sampler = samplerOf(1.0, 2.0);
+        int count = sampler.sampleTriggered(0.3, () -> {
+            rolls[0]++;
+            return 0.9;
+        }, item -> { throw new AssertionError("selected " + item); });
+        assertEquals(0, count);
+        assertEquals(1, rolls[0]);
+    }
+}
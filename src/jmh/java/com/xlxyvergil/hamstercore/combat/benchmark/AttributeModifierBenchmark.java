@@ -0,0 +1,91 @@
+package com.xlxyvergil.hamstercore.combat.benchmark;
+
+import com.xlxyvergil.hamstercore.combat.AttributeModifierMath;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InitialModifiers层元素值计算基准测试
+ * 对应ElementCalculator.calculateElementValuesFromInitialModifiers的纯计算部分（AttributeModifierMath.calculateGrouped），
+ * 属性默认值查询固定返回1.0
+ *
+ * 参数：
+ * - elementCount：武器上不同元素属性的数量
+ * - modifiersPerElement：每个元素属性上的修饰符数量，操作类型在ADDITION、MULTIPLY_BASE、MULTIPLY_TOTAL之间轮换
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttributeModifierBenchmark {
+
+    private static final String[] ELEMENT_NAMES = {
+        "hamstercore:impact", "hamstercore:puncture", "hamstercore:slash",
+        "hamstercore:cold", "hamstercore:electricity", "hamstercore:heat", "hamstercore:toxin",
+        "hamstercore:blast", "hamstercore:corrosive", "hamstercore:gas",
+        "hamstercore:magnetic", "hamstercore:radiation", "hamstercore:viral"
+    };
+
+    private static final String[] OPERATIONS = {"ADDITION", "MULTIPLY_BASE", "MULTIPLY_TOTAL"};
+
+    private static final AttributeModifierMath.DefaultValueLookup DEFAULT_VALUES = name -> 1.0;
+
+    @Param({"1", "4", "13"})
+    public int elementCount;
+
+    @Param({"1", "3", "8"})
+    public int modifiersPerElement;
+
+    private List<Modifier> modifiers;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42L);
+        modifiers = new ArrayList<>();
+        // 修饰符按来源交错排列，与武器上多个来源依次写入InitialModifiers层的顺序相同
+        for (int i = 0; i < modifiersPerElement; i++) {
+            for (int j = 0; j < elementCount; j++) {
+                modifiers.add(new Modifier(ELEMENT_NAMES[j], random.nextDouble() - 0.2, OPERATIONS[i % OPERATIONS.length]));
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, Double> calculateElementValues() {
+        return AttributeModifierMath.calculateGrouped(modifiers, DEFAULT_VALUES);
+    }
+
+    private static final class Modifier implements AttributeModifierMath.Modifier {
+        private final String elementType;
+        private final double amount;
+        private final String operation;
+
+        private Modifier(String elementType, double amount, String operation) {
+            this.elementType = elementType;
+            this.amount = amount;
+            this.operation = operation;
+        }
+
+        @Override
+        public String getElementType() {
+            return elementType;
+        }
+
+        @Override
+        public double getAmount() {
+            return amount;
+        }
+
+        @Override
+        public String getOperation() {
+            return operation;
+        }
+    }
+}
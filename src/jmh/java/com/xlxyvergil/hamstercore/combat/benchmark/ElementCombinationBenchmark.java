@@ -0,0 +1,62 @@
+package com.xlxyvergil.hamstercore.combat.benchmark;
+
+import com.xlxyvergil.hamstercore.combat.ElementCombiner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 元素复合计算基准测试
+ * 对应ElementCombinationModifier.computeElementCombinationsWithValues的纯计算部分（ElementCombiner.combine）
+ *
+ * 参数：
+ * - elementCount：Basic层的元素条目数量，依次取基础元素和复合元素，来源在user和def之间交替
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementCombinationBenchmark {
+
+    private static final String[] BASIC_ELEMENTS = {"heat", "cold", "electricity", "toxin"};
+    private static final String[] COMPLEX_ELEMENTS = {"blast", "corrosive", "gas", "magnetic", "radiation", "viral"};
+
+    private static final Set<String> BASIC_SET = new HashSet<>(Arrays.asList(BASIC_ELEMENTS));
+    private static final Set<String> COMPLEX_SET = new HashSet<>(Arrays.asList(COMPLEX_ELEMENTS));
+
+    private static final ElementCombiner.ElementClassifier CLASSIFIER = new ElementCombiner.ElementClassifier() {
+        @Override
+        public boolean isBasic(String type) {
+            return BASIC_SET.contains(type);
+        }
+
+        @Override
+        public boolean isComplex(String type) {
+            return COMPLEX_SET.contains(type);
+        }
+    };
+
+    @Param({"2", "4", "7", "10"})
+    public int elementCount;
+
+    private List<ElementCombiner.Entry> basicLayer;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42L);
+        basicLayer = new ArrayList<>();
+        for (int i = 0; i < elementCount; i++) {
+            String type = i < BASIC_ELEMENTS.length ? BASIC_ELEMENTS[i] : COMPLEX_ELEMENTS[i - BASIC_ELEMENTS.length];
+            String source = (i % 2 == 0) ? "user" : "def";
+            basicLayer.add(new ElementCombiner.Entry(type, 0.1 + random.nextDouble(), source));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Double> computeElementCombinations() {
+        return ElementCombiner.combine(basicLayer, CLASSIFIER);
+    }
+}
@@ -0,0 +1,169 @@
+package com.xlxyvergil.hamstercore.combat.benchmark;
+
+import com.xlxyvergil.hamstercore.combat.CombatMath;
+import com.xlxyvergil.hamstercore.combat.WeightedSampler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次命中的伤害计算与元素触发基准测试
+ * 直接调用ElementDamageManager和ElementTriggerHandler使用的战斗核心方法（CombatMath.hit、WeightedSampler.sampleTriggered），
+ * 属性快照、派系克制表和随机数流在setup中准备好，对应游戏内每tick缓存后的热路径
+ *
+ * 参数：
+ * - elementCount：攻击者拥有的伤害元素数量（物理、基础、复合元素，最多13种）
+ * - criticalChance：暴击率，0.25/1.5/3.5分别对应无保底暴击、1级保底、3级保底
+ * - triggerChance：触发率，0.3/1.0/3.0分别对应概率触发、保底1个、保底3个效果
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementDamageBenchmark {
+
+    // 元素序号布局，与游戏内的元素注册表无关，只用于组织测试数据
+    private static final String[] ELEMENTS = {
+        "impact", "puncture", "slash",
+        "heat", "cold", "electricity", "toxin",
+        "blast", "corrosive", "gas", "magnetic", "radiation", "viral",
+        "grineer", "infested", "corpus", "orokin", "sentient", "murmur"
+    };
+
+    // 参与元素总倍率和元素触发的元素：物理、基础、复合元素
+    private static final String[] DAMAGE_ELEMENTS = {
+        "impact", "puncture", "slash",
+        "heat", "cold", "electricity", "toxin",
+        "blast", "corrosive", "gas", "magnetic", "radiation", "viral"
+    };
+
+    // 派系元素
+    private static final String[] FACTION_ELEMENTS = {"grineer", "infested", "corpus", "orokin", "sentient", "murmur"};
+
+    // 参与派系克制判定的元素，顺序与FactionModifierCalculator一致：派系元素、复合元素、物理元素
+    private static final String[] RESISTANCE_ELEMENTS = {
+        "grineer", "infested", "corpus", "orokin", "sentient", "murmur",
+        "blast", "corrosive", "gas", "magnetic", "radiation", "viral",
+        "impact", "puncture", "slash"
+    };
+
+    private static final int[] DAMAGE_ORDINALS = ordinalsOf(DAMAGE_ELEMENTS);
+    private static final int[] RESISTANCE_ORDINALS = ordinalsOf(RESISTANCE_ELEMENTS);
+
+    @Param({"1", "4", "8", "13"})
+    public int elementCount;
+
+    @Param({"0.25", "1.5", "3.5"})
+    public double criticalChance;
+
+    @Param({"0.3", "1.0", "3.0"})
+    public double triggerChance;
+
+    private double[] elementValues;
+    private double[] resistanceRow;
+    private double totalFactionValue;
+    private double criticalDamage;
+    private float baseDamage;
+    private double targetArmor;
+    private double factionModifier;
+    private double elementMultiplier;
+    private double armorModifier;
+    private SplittableRandom random;
+    private WeightedSampler<String> sampler;
+
+    @Setup
+    public void setup() {
+        random = new SplittableRandom(42L);
+
+        elementValues = new double[ELEMENTS.length];
+        for (int i = 0; i < elementCount; i++) {
+            elementValues[DAMAGE_ORDINALS[i]] = 0.1 + random.nextDouble();
+        }
+        elementValues[ordinalOf("grineer")] = 0.3; // 一种派系元素
+        for (String faction : FACTION_ELEMENTS) {
+            totalFactionValue += elementValues[ordinalOf(faction)];
+        }
+
+        resistanceRow = new double[ELEMENTS.length];
+        for (int ordinal : RESISTANCE_ORDINALS) {
+            resistanceRow[ordinal] = random.nextDouble() - 0.5;
+        }
+
+        criticalDamage = 2.0;
+        baseDamage = 10.0f;
+        targetArmor = 300.0;
+
+        // 攻击者侧和目标侧的系数，游戏内每tick每个攻击者（目标）只计算一次
+        factionModifier = CombatMath.factionModifier(totalFactionValue, elementValues, RESISTANCE_ORDINALS, resistanceRow);
+        elementMultiplier = CombatMath.totalElementMultiplier(CombatMath.sumPositive(elementValues, DAMAGE_ORDINALS));
+        armorModifier = CombatMath.armorModifier(targetArmor);
+
+        sampler = new WeightedSampler<>(16);
+    }
+
+    /**
+     * 元素伤害计算：攻击者侧系数已缓存时的单次命中（暴击判定、护甲减免和最终伤害）
+     */
+    @Benchmark
+    public float calculateElementDamage() {
+        return CombatMath.hit(baseDamage, factionModifier, elementMultiplier,
+            criticalChance, criticalDamage, random.nextDouble(), armorModifier).getFinalDamage();
+    }
+
+    /**
+     * 元素伤害计算：本tick内的首次命中，先计算派系克制、元素总倍率和护甲减免
+     */
+    @Benchmark
+    public float calculateElementDamageUncached() {
+        double hm = CombatMath.factionModifier(totalFactionValue, elementValues, RESISTANCE_ORDINALS, resistanceRow);
+        double multiplier = CombatMath.totalElementMultiplier(CombatMath.sumPositive(elementValues, DAMAGE_ORDINALS));
+        return CombatMath.hit(baseDamage, hm, multiplier,
+            criticalChance, criticalDamage, random.nextDouble(), CombatMath.armorModifier(targetArmor)).getFinalDamage();
+    }
+
+    /**
+     * 元素触发判定与不放回加权抽样
+     */
+    @Benchmark
+    public void selectTriggeredElements(Blackhole blackhole) {
+        selectTriggers(blackhole);
+    }
+
+    /**
+     * 完整的一次命中：伤害计算后进行元素触发判定
+     */
+    @Benchmark
+    public void fullHit(Blackhole blackhole) {
+        blackhole.consume(calculateElementDamage());
+        selectTriggers(blackhole);
+    }
+
+    private void selectTriggers(Blackhole blackhole) {
+        sampler.clear();
+        for (int ordinal : DAMAGE_ORDINALS) {
+            sampler.add(ELEMENTS[ordinal], elementValues[ordinal]);
+        }
+        sampler.sampleTriggered(triggerChance, random::nextDouble, blackhole::consume);
+    }
+
+    private static int ordinalOf(String element) {
+        for (int i = 0; i < ELEMENTS.length; i++) {
+            if (ELEMENTS[i].equals(element)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(element);
+    }
+
+    private static int[] ordinalsOf(String[] elements) {
+        int[] ordinals = new int[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            ordinals[i] = ordinalOf(elements[i]);
+        }
+        return ordinals;
+    }
+}
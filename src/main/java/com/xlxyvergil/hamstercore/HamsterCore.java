@@ -5,12 +5,14 @@ import com.xlxyvergil.hamstercore.config.ArmorConfig;
 import com.xlxyvergil.hamstercore.config.ClientConfig;
 import com.xlxyvergil.hamstercore.config.FactionConfig;
 import com.xlxyvergil.hamstercore.config.WeaponConfig;
+import com.xlxyvergil.hamstercore.content.capability.entity.CombatStatusCapability;
 import com.xlxyvergil.hamstercore.content.capability.entity.EntityArmorCapabilityProvider;
 import com.xlxyvergil.hamstercore.content.capability.entity.EntityFactionCapabilityProvider;
 import com.xlxyvergil.hamstercore.content.capability.entity.EntityLevelCapabilityProvider;
 import com.xlxyvergil.hamstercore.content.capability.PlayerLevelCapabilityProvider;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectRegistry;
 import com.xlxyvergil.hamstercore.events.PlayerCapabilityEvents;
+import com.xlxyvergil.hamstercore.handler.modifier.FactionModifierCalculator;
 import com.xlxyvergil.hamstercore.level.LevelSystem;
 import com.xlxyvergil.hamstercore.modification.ModificationConfig;
 import com.xlxyvergil.hamstercore.modification.ModificationEvents;
@@ -148,6 +150,7 @@ public class HamsterCore {
             // 1. 初始化兼容性检查 - 在服务器启动时检查，确保所有模组都已加载
             // 只有在模组加载后才初始化对应的获取器
         FactionConfig.load();
+        FactionModifierCalculator.reloadResistances();
         ArmorConfig.load();
         LevelSystem.init();
 
@@ -202,6 +205,7 @@ public class HamsterCore {
         event.register(EntityLevelCapabilityProvider.class);
         event.register(EntityArmorCapabilityProvider.class);
         event.register(PlayerLevelCapabilityProvider.class);
+        event.register(CombatStatusCapability.class);
     }
     
     /**
@@ -0,0 +1,302 @@
+package com.xlxyvergil.hamstercore.config;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 战斗系统配置
+ * 伤害管线、元素效果调度等服务端战斗相关的选项
+ */
+public class CombatConfig {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String CONFIG_FOLDER = "hamstercore";
+    private static final String CONFIG_FILE_NAME = "combat.json";
+
+    // 随机数配置
+    private boolean fixedRandomSeed = false; // 是否使用固定随机种子（用于压测和回归测试复现）
+    private long randomSeed = 0L; // 固定随机种子
+
+    // 伤害管线配置
+    private boolean aggregatePelletHits = false; // 是否把同一tick内同一攻击者对同一目标的弹射物命中（霰弹枪弹丸、高射速枪械）合并为一次伤害
+
+    // 元素效果配置
+    private boolean mergeGasClouds = false; // 是否将位于已有毒气云范围内的新毒气云合并到已有毒气云（会改变毒气的平衡性，默认关闭）
+    private int maxGasCloudsPerChunk = 8; // 每个区块的毒气云数量上限，0表示不限制
+
+    // 元素效果LOD配置
+    private boolean statusLodEnabled = true; // 是否按与最近玩家的距离降低元素效果记录的更新频率
+    private double statusLodNearDistance = 32.0; // 该距离内每tick更新
+    private double statusLodFarDistance = 64.0; // 该距离外按远距离间隔更新
+    private int statusLodNearInterval = 4; // 近距离和远距离之间的更新间隔（tick）
+    private int statusLodFarInterval = 20; // 远距离之外的更新间隔（tick）
+    private double statusObserveDistance = 128.0; // 该距离内没有玩家时不进行毒气云、电云和辐射的范围扫描
+
+    // 元素效果时间预算配置
+    private double statusTickBudgetMs = 10.0; // 每tick元素效果处理的时间预算（毫秒），0表示不限制
+    private int statusDeferredLimit = 256; // 预算用完后推迟执行的工作最多排队数量
+
+    private static CombatConfig instance;
+
+    public static CombatConfig getInstance() {
+        if (instance == null) {
+            instance = load();
+        }
+        return instance;
+    }
+
+    public static CombatConfig load() {
+        Path configFolderPath = FMLPaths.CONFIGDIR.get().resolve(CONFIG_FOLDER);
+        Path configPath = configFolderPath.resolve(CONFIG_FILE_NAME);
+        CombatConfig config = new CombatConfig();
+
+        if (Files.exists(configPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(configPath)) {
+                JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+                config.deserialize(json);
+            } catch (Exception e) {
+                System.err.println("Error loading combat config: " + e.getMessage());
+                e.printStackTrace();
+            }
+        } else {
+            try {
+                Files.createDirectories(configFolderPath);
+                config.createDefaultConfig(configPath);
+            } catch (IOException e) {
+                System.err.println("Failed to create combat config directory or file: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+
+        instance = config;
+        return config;
+    }
+
+    private void createDefaultConfig(Path configPath) {
+        try {
+            JsonObject json = serialize();
+
+            // 添加配置说明
+            JsonObject comments = new JsonObject();
+            comments.addProperty("fixedRandomSeed", "是否使用固定随机种子进行暴击和元素触发判定，开启后每个维度的判定序列在每次启动时都相同，用于压测和回归测试，默认关闭");
+            comments.addProperty("randomSeed", "固定随机种子，仅在fixedRandomSeed开启时生效");
+            comments.addProperty("aggregatePelletHits", "开启后，同一tick内同一攻击者对同一目标的弹射物命中（如TacZ霰弹枪的多发弹丸）在tick结束时合并为一次伤害：伤害管线只计算一次，暴击和元素触发仍按弹丸逐发判定，护盾只吸收和同步一次；伤害会延迟到tick结束时生效，默认关闭");
+            comments.addProperty("mergeGasClouds", "是否合并毒气云，开启后位于已有毒气云范围内的新毒气触发会叠加该毒气云的等级、刷新持续时间并取较高的伤害，而不是生成新的毒气云；这会改变毒气的伤害和持续时间，属于平衡性调整，默认关闭");
+            comments.addProperty("maxGasCloudsPerChunk", "每个区块的毒气云数量上限，达到上限后新的毒气触发不再生成毒气云：开启mergeGasClouds时合并到区块内最近的毒气云，否则只刷新其持续时间（伤害取较大值，不叠加等级），0表示不限制，默认8");
+            comments.addProperty("statusLodEnabled", "是否按实体与最近玩家的距离降低爆炸、腐蚀、火焰等元素效果记录的更新频率，降频的实体在下一次更新时一次补齐积累的tick，结果与逐tick更新相同，默认开启");
+            comments.addProperty("statusLodNearDistance", "与最近玩家的距离在此范围内的实体每tick更新元素效果记录，默认32");
+            comments.addProperty("statusLodFarDistance", "与最近玩家的距离超过此范围的实体按statusLodFarInterval更新，默认64");
+            comments.addProperty("statusLodNearInterval", "距离在statusLodNearDistance和statusLodFarDistance之间的实体的更新间隔（tick），默认4");
+            comments.addProperty("statusLodFarInterval", "距离超过statusLodFarDistance的实体的更新间隔（tick），默认20");
+            comments.addProperty("statusTickBudgetMs", "每tick元素效果处理的时间预算（毫秒），毒气云、电云、爆炸和DoT的总耗时超过预算后，毒气云和电云的重新施加、爆炸结算推迟到后续tick执行，DoT伤害和到期不受影响，0表示不限制，默认10");
+            comments.addProperty("statusDeferredLimit", "推迟执行的工作最多排队数量，队列满时丢弃最早的毒气云、电云重新施加工作（下一次扫描会再次施加），爆炸结算不丢弃而是直接执行，默认256");
+            comments.addProperty("statusObserveDistance", "该距离内没有任何玩家时，毒气云、电云的传播和辐射的重新索敌完全跳过（持续时间照常流逝），默认128");
+            json.add("_comments", comments);
+
+            // 写入配置文件
+            try (BufferedWriter writer = Files.newBufferedWriter(configPath)) {
+                GSON.toJson(json, writer);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private JsonObject serialize() {
+        JsonObject json = new JsonObject();
+        json.addProperty("fixedRandomSeed", fixedRandomSeed);
+        json.addProperty("randomSeed", randomSeed);
+        json.addProperty("aggregatePelletHits", aggregatePelletHits);
+        json.addProperty("mergeGasClouds", mergeGasClouds);
+        json.addProperty("maxGasCloudsPerChunk", maxGasCloudsPerChunk);
+        json.addProperty("statusLodEnabled", statusLodEnabled);
+        json.addProperty("statusLodNearDistance", statusLodNearDistance);
+        json.addProperty("statusLodFarDistance", statusLodFarDistance);
+        json.addProperty("statusLodNearInterval", statusLodNearInterval);
+        json.addProperty("statusLodFarInterval", statusLodFarInterval);
+        json.addProperty("statusObserveDistance", statusObserveDistance);
+        json.addProperty("statusTickBudgetMs", statusTickBudgetMs);
+        json.addProperty("statusDeferredLimit", statusDeferredLimit);
+        return json;
+    }
+
+    private void deserialize(JsonObject json) {
+        if (json.has("fixedRandomSeed")) {
+            fixedRandomSeed = json.get("fixedRandomSeed").getAsBoolean();
+        }
+
+        if (json.has("randomSeed")) {
+            randomSeed = json.get("randomSeed").getAsLong();
+        }
+
+        if (json.has("aggregatePelletHits")) {
+            aggregatePelletHits = json.get("aggregatePelletHits").getAsBoolean();
+        }
+
+        if (json.has("mergeGasClouds")) {
+            mergeGasClouds = json.get("mergeGasClouds").getAsBoolean();
+        }
+
+        if (json.has("maxGasCloudsPerChunk")) {
+            maxGasCloudsPerChunk = Math.max(0, json.get("maxGasCloudsPerChunk").getAsInt());
+        }
+
+        if (json.has("statusLodEnabled")) {
+            statusLodEnabled = json.get("statusLodEnabled").getAsBoolean();
+        }
+
+        if (json.has("statusLodNearDistance")) {
+            statusLodNearDistance = Math.max(0.0, json.get("statusLodNearDistance").getAsDouble());
+        }
+
+        if (json.has("statusLodFarDistance")) {
+            statusLodFarDistance = Math.max(0.0, json.get("statusLodFarDistance").getAsDouble());
+        }
+
+        if (json.has("statusLodNearInterval")) {
+            statusLodNearInterval = Math.max(1, json.get("statusLodNearInterval").getAsInt());
+        }
+
+        if (json.has("statusLodFarInterval")) {
+            statusLodFarInterval = Math.max(1, json.get("statusLodFarInterval").getAsInt());
+        }
+
+        if (json.has("statusObserveDistance")) {
+            statusObserveDistance = Math.max(0.0, json.get("statusObserveDistance").getAsDouble());
+        }
+
+        if (json.has("statusTickBudgetMs")) {
+            statusTickBudgetMs = Math.max(0.0, json.get("statusTickBudgetMs").getAsDouble());
+        }
+        if (json.has("statusDeferredLimit")) {
+            statusDeferredLimit = Math.max(1, json.get("statusDeferredLimit").getAsInt());
+        }
+    }
+
+    public void save() {
+        Path configFolderPath = FMLPaths.CONFIGDIR.get().resolve(CONFIG_FOLDER);
+        Path configPath = configFolderPath.resolve(CONFIG_FILE_NAME);
+
+        try {
+            Files.createDirectories(configFolderPath);
+
+            try (BufferedWriter writer = Files.newBufferedWriter(configPath)) {
+                GSON.toJson(serialize(), writer);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to save combat config: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Getters and setters
+    public boolean isFixedRandomSeed() {
+        return fixedRandomSeed;
+    }
+
+    public void setFixedRandomSeed(boolean fixedRandomSeed) {
+        this.fixedRandomSeed = fixedRandomSeed;
+    }
+
+    public long getRandomSeed() {
+        return randomSeed;
+    }
+
+    public void setRandomSeed(long randomSeed) {
+        this.randomSeed = randomSeed;
+    }
+
+    public boolean isAggregatePelletHits() {
+        return aggregatePelletHits;
+    }
+
+    public void setAggregatePelletHits(boolean aggregatePelletHits) {
+        this.aggregatePelletHits = aggregatePelletHits;
+    }
+
+    public boolean isMergeGasClouds() {
+        return mergeGasClouds;
+    }
+
+    public void setMergeGasClouds(boolean mergeGasClouds) {
+        this.mergeGasClouds = mergeGasClouds;
+    }
+
+    public int getMaxGasCloudsPerChunk() {
+        return maxGasCloudsPerChunk;
+    }
+
+    public void setMaxGasCloudsPerChunk(int maxGasCloudsPerChunk) {
+        this.maxGasCloudsPerChunk = maxGasCloudsPerChunk;
+    }
+
+    public boolean isStatusLodEnabled() {
+        return statusLodEnabled;
+    }
+
+    public void setStatusLodEnabled(boolean statusLodEnabled) {
+        this.statusLodEnabled = statusLodEnabled;
+    }
+
+    public double getStatusLodNearDistance() {
+        return statusLodNearDistance;
+    }
+
+    public void setStatusLodNearDistance(double statusLodNearDistance) {
+        this.statusLodNearDistance = statusLodNearDistance;
+    }
+
+    public double getStatusLodFarDistance() {
+        return statusLodFarDistance;
+    }
+
+    public void setStatusLodFarDistance(double statusLodFarDistance) {
+        this.statusLodFarDistance = statusLodFarDistance;
+    }
+
+    public int getStatusLodNearInterval() {
+        return statusLodNearInterval;
+    }
+
+    public void setStatusLodNearInterval(int statusLodNearInterval) {
+        this.statusLodNearInterval = statusLodNearInterval;
+    }
+
+    public int getStatusLodFarInterval() {
+        return statusLodFarInterval;
+    }
+
+    public void setStatusLodFarInterval(int statusLodFarInterval) {
+        this.statusLodFarInterval = statusLodFarInterval;
+    }
+
+    public double getStatusObserveDistance() {
+        return statusObserveDistance;
+    }
+
+    public void setStatusObserveDistance(double statusObserveDistance) {
+        this.statusObserveDistance = statusObserveDistance;
+    }
+
+    public double getStatusTickBudgetMs() {
+        return statusTickBudgetMs;
+    }
+
+    public void setStatusTickBudgetMs(double statusTickBudgetMs) {
+        this.statusTickBudgetMs = statusTickBudgetMs;
+    }
+
+    public int getStatusDeferredLimit() {
+        return statusDeferredLimit;
+    }
+
+    public void setStatusDeferredLimit(int statusDeferredLimit) {
+        this.statusDeferredLimit = statusDeferredLimit;
+    }
+}
@@ -0,0 +1,189 @@
+package com.xlxyvergil.hamstercore.config;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.xlxyvergil.hamstercore.element.ElementType;
+import com.xlxyvergil.hamstercore.faction.Faction;
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 派系克制配置
+ * 每个派系对各元素的克制系数（正值为克制加成，负值为弱点），整合包可修改以重新平衡派系
+ */
+public class FactionResistanceConfig {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String CONFIG_FOLDER = "hamstercore";
+    private static final String CONFIG_FILE_NAME = "faction_resistances.json";
+
+    // 派系 -> (元素名 -> 克制系数)
+    private final Map<Faction, Map<String, Double>> resistances = new EnumMap<>(Faction.class);
+
+    private static FactionResistanceConfig instance;
+
+    public FactionResistanceConfig() {
+        // 默认克制关系
+        // Grineer: 冲击+50% 腐蚀+50%
+        putDefault(Faction.GRINEER, "impact", 0.5);
+        putDefault(Faction.GRINEER, "corrosive", 0.5);
+
+        // Infested: 切割+50% 火焰+50%
+        putDefault(Faction.INFESTED, "slash", 0.5);
+        putDefault(Faction.INFESTED, "heat", 0.5);
+
+        // Corpus: 穿刺+50% 磁力+50%
+        putDefault(Faction.CORPUS, "puncture", 0.5);
+        putDefault(Faction.CORPUS, "magnetic", 0.5);
+
+        // Orokin: 穿刺+50% 病毒+50% 辐射-50%
+        putDefault(Faction.OROKIN, "puncture", 0.5);
+        putDefault(Faction.OROKIN, "viral", 0.5);
+        putDefault(Faction.OROKIN, "radiation", -0.5); // 负值表示弱点
+
+        // Sentient: 冰冻+50% 辐射+50% 腐蚀-50%
+        putDefault(Faction.SENTIENT, "cold", 0.5);
+        putDefault(Faction.SENTIENT, "radiation", 0.5);
+        putDefault(Faction.SENTIENT, "corrosive", -0.5); // 负值表示弱点
+
+        // Murmur: 电击+50% 辐射+50% 病毒-50%
+        putDefault(Faction.MURMUR, "electricity", 0.5);
+        putDefault(Faction.MURMUR, "radiation", 0.5);
+        putDefault(Faction.MURMUR, "viral", -0.5); // 负值表示弱点
+    }
+
+    private void putDefault(Faction faction, String element, double value) {
+        resistances.computeIfAbsent(faction, k -> new LinkedHashMap<>()).put(element, value);
+    }
+
+    public static FactionResistanceConfig getInstance() {
+        if (instance == null) {
+            instance = load();
+        }
+        return instance;
+    }
+
+    public static FactionResistanceConfig load() {
+        Path configFolderPath = FMLPaths.CONFIGDIR.get().resolve(CONFIG_FOLDER);
+        Path configPath = configFolderPath.resolve(CONFIG_FILE_NAME);
+        FactionResistanceConfig config = new FactionResistanceConfig();
+
+        if (Files.exists(configPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(configPath)) {
+                JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+                config.deserialize(json);
+            } catch (Exception e) {
+                System.err.println("Error loading faction resistance config: " + e.getMessage());
+                e.printStackTrace();
+            }
+        } else {
+            try {
+                Files.createDirectories(configFolderPath);
+                config.createDefaultConfig(configPath);
+            } catch (IOException e) {
+                System.err.println("Failed to create faction resistance config directory or file: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+
+        instance = config;
+        return config;
+    }
+
+    private void createDefaultConfig(Path configPath) {
+        try {
+            JsonObject json = serialize();
+
+            // 添加配置说明
+            JsonObject comments = new JsonObject();
+            comments.addProperty("factions", "每个派系对各元素的克制系数，键为元素名（如impact、corrosive），正值为克制加成，负值为弱点");
+            comments.addProperty("elements", "参与克制判定的元素：派系元素、复合元素和物理元素，攻击者该元素属性大于0时计入");
+            json.add("_comments", comments);
+
+            // 写入配置文件
+            try (BufferedWriter writer = Files.newBufferedWriter(configPath)) {
+                GSON.toJson(json, writer);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private JsonObject serialize() {
+        JsonObject json = new JsonObject();
+        for (Faction faction : Faction.values()) {
+            JsonObject factionJson = new JsonObject();
+            Map<String, Double> values = resistances.get(faction);
+            if (values != null) {
+                for (Map.Entry<String, Double> entry : values.entrySet()) {
+                    factionJson.addProperty(entry.getKey(), entry.getValue());
+                }
+            }
+            json.add(faction.name(), factionJson);
+        }
+        return json;
+    }
+
+    private void deserialize(JsonObject json) {
+        for (Faction faction : Faction.values()) {
+            if (!json.has(faction.name())) {
+                continue; // 未配置的派系保留默认值
+            }
+
+            Map<String, Double> values = new LinkedHashMap<>();
+            JsonObject factionJson = json.getAsJsonObject(faction.name());
+            for (Map.Entry<String, JsonElement> entry : factionJson.entrySet()) {
+                values.put(entry.getKey().toLowerCase(), entry.getValue().getAsDouble());
+            }
+            resistances.put(faction, values);
+        }
+    }
+
+    public void save() {
+        Path configFolderPath = FMLPaths.CONFIGDIR.get().resolve(CONFIG_FOLDER);
+        Path configPath = configFolderPath.resolve(CONFIG_FILE_NAME);
+
+        try {
+            Files.createDirectories(configFolderPath);
+
+            try (BufferedWriter writer = Files.newBufferedWriter(configPath)) {
+                GSON.toJson(serialize(), writer);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to save faction resistance config: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 将克制关系编译为 [派系序号][元素序号] 的矩阵
+     * 未知元素名会被忽略
+     * @return 克制系数矩阵
+     */
+    public double[][] compileMatrix() {
+        double[][] matrix = new double[Faction.values().length][ElementType.count()];
+        for (Map.Entry<Faction, Map<String, Double>> factionEntry : resistances.entrySet()) {
+            double[] row = matrix[factionEntry.getKey().ordinal()];
+            for (Map.Entry<String, Double> entry : factionEntry.getValue().entrySet()) {
+                ElementType type = ElementType.byName(entry.getKey());
+                if (type != null && type.ordinal() < row.length) {
+                    row[type.ordinal()] = entry.getValue();
+                }
+            }
+        }
+        return matrix;
+    }
+
+    // Getters
+    public Map<String, Double> getResistances(Faction faction) {
+        return resistances.getOrDefault(faction, new LinkedHashMap<>());
+    }
+}
@@ -0,0 +1,246 @@
+package com.xlxyvergil.hamstercore.content.capability.entity;
+
+import com.xlxyvergil.hamstercore.HamsterCore;
+import com.xlxyvergil.hamstercore.element.ElementType;
+import com.xlxyvergil.hamstercore.element.effect.BlastManager;
+import com.xlxyvergil.hamstercore.element.effect.CorrosiveManager;
+import com.xlxyvergil.hamstercore.element.effect.DoTManager;
+import com.xlxyvergil.hamstercore.element.effect.ElementEffect;
+import com.xlxyvergil.hamstercore.element.effect.HeatManager;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.effect.MobEffectInstance;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.common.capabilities.CapabilityToken;
+import net.minecraftforge.common.util.INBTSerializable;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 实体战斗状态能力
+ * 保存实体身上正在生效的元素状态（DoT、爆炸、腐蚀、火焰护甲削减、元素效果实例），
+ * 取代各个管理器中以LivingEntity为键的静态Map，状态随实体一起释放
+ * 同时按ElementEffect序号保存各元素效果的伤害值，取代PersistentData中按字符串键保存的伤害数据
+ * DoT、爆炸等运行时状态不写入NBT，实体卸载、切换维度或被移除后自然丢弃；
+ * 只有仍然存在的效果伤害值会写入NBT，保证读档后剩余的效果仍能造成伤害
+ * 只应在服务端主线程上使用
+ */
+public class CombatStatusCapability implements INBTSerializable<CompoundTag> {
+    public static final ResourceLocation ID = new ResourceLocation(HamsterCore.MODID, "combat_status");
+    public static final Capability<CombatStatusCapability> CAPABILITY = CapabilityManager.get(new CapabilityToken<>() {});
+
+    // DoT效果条目（由DoTManager的时间轮调度）
+    private final List<DoTManager.DoTEntry> dots = new ArrayList<>(0);
+    // 爆炸效果条目
+    private final List<BlastManager.BlastEntry> blasts = new ArrayList<>(0);
+    // 腐蚀效果（叠加在同一个条目上，最多一个）
+    private CorrosiveManager.CorrosiveEntry corrosive;
+    // 火焰护甲削减效果（覆盖机制，最多一个）
+    private HeatManager.HeatEffectData heat;
+    // 元素效果实例，按ElementType序号索引，首次使用时创建
+    private MobEffectInstance[] elementEffects;
+    // 元素效果实例数量
+    private int elementEffectCount;
+    // 元素效果伤害值，按ElementEffect序号索引，NaN表示没有数据，首次使用时创建
+    private float[] effectDamage;
+    // 当前护甲属性上状态护甲削减修饰符的数值（由StatusArmorShred维护）
+    private double armorShredAmount;
+    // 已经tick过但尚未计入元素效果记录的tick数（降频更新时由ElementEffectEventManager累积和补齐）
+    private int pendingTicks;
+
+    /**
+     * 获取实体的战斗状态
+     * @param entity 实体
+     * @return 战斗状态，实体没有附加该能力时返回null
+     */
+    public static CombatStatusCapability get(LivingEntity entity) {
+        return entity.getCapability(CAPABILITY).orElse(null);
+    }
+
+    /**
+     * 是否没有任何需要逐tick更新或清理的状态
+     */
+    public boolean isEmpty() {
+        return dots.isEmpty() && blasts.isEmpty() && corrosive == null && heat == null && elementEffectCount == 0;
+    }
+
+    public List<DoTManager.DoTEntry> getDoTs() {
+        return dots;
+    }
+
+    public List<BlastManager.BlastEntry> getBlasts() {
+        return blasts;
+    }
+
+    public CorrosiveManager.CorrosiveEntry getCorrosive() {
+        return corrosive;
+    }
+
+    public void setCorrosive(CorrosiveManager.CorrosiveEntry corrosive) {
+        this.corrosive = corrosive;
+    }
+
+    public HeatManager.HeatEffectData getHeat() {
+        return heat;
+    }
+
+    public void setHeat(HeatManager.HeatEffectData heat) {
+        this.heat = heat;
+    }
+
+    public double getArmorShredAmount() {
+        return armorShredAmount;
+    }
+
+    public void setArmorShredAmount(double armorShredAmount) {
+        this.armorShredAmount = armorShredAmount;
+    }
+
+    public int getPendingTicks() {
+        return pendingTicks;
+    }
+
+    public void setPendingTicks(int pendingTicks) {
+        this.pendingTicks = pendingTicks;
+    }
+
+    public MobEffectInstance getElementEffect(ElementType elementType) {
+        if (elementEffects == null) {
+            return null;
+        }
+        return elementEffects[elementType.ordinal()];
+    }
+
+    /**
+     * 设置元素效果实例
+     * @param elementType 元素类型
+     * @param instance 效果实例，为null时移除
+     * @return 之前的效果实例
+     */
+    public MobEffectInstance setElementEffect(ElementType elementType, MobEffectInstance instance) {
+        if (elementEffects == null) {
+            if (instance == null) {
+                return null;
+            }
+            elementEffects = new MobEffectInstance[ElementType.count()];
+        }
+        int index = elementType.ordinal();
+        MobEffectInstance previous = elementEffects[index];
+        elementEffects[index] = instance;
+        if (previous == null && instance != null) {
+            elementEffectCount++;
+        } else if (previous != null && instance == null) {
+            elementEffectCount--;
+        }
+        return previous;
+    }
+
+    /**
+     * 移除所有元素效果实例
+     * @return 被移除的效果实例
+     */
+    public List<MobEffectInstance> clearElementEffects() {
+        List<MobEffectInstance> removed = new ArrayList<>(elementEffectCount);
+        if (elementEffects != null) {
+            for (int i = 0; i < elementEffects.length; i++) {
+                if (elementEffects[i] != null) {
+                    removed.add(elementEffects[i]);
+                    elementEffects[i] = null;
+                }
+            }
+        }
+        elementEffectCount = 0;
+        return removed;
+    }
+
+    /**
+     * 获取效果的伤害值
+     * @param effect 效果
+     * @return 伤害值，如果不存在则返回0
+     */
+    public float getEffectDamage(ElementEffect effect) {
+        int index = effect.ordinal();
+        if (effectDamage == null || index >= effectDamage.length || Float.isNaN(effectDamage[index])) {
+            return 0.0F;
+        }
+        return effectDamage[index];
+    }
+
+    /**
+     * 设置效果的伤害值
+     * @param effect 效果
+     * @param damage 伤害值
+     */
+    public void setEffectDamage(ElementEffect effect, float damage) {
+        int index = effect.ordinal();
+        if (effectDamage == null || index >= effectDamage.length) {
+            int oldLength = effectDamage == null ? 0 : effectDamage.length;
+            float[] grown = effectDamage == null
+                ? new float[Math.max(ElementEffect.count(), index + 1)]
+                : Arrays.copyOf(effectDamage, Math.max(ElementEffect.count(), index + 1));
+            Arrays.fill(grown, oldLength, grown.length, Float.NaN);
+            effectDamage = grown;
+        }
+        effectDamage[index] = damage;
+    }
+
+    /**
+     * 是否有效果的伤害值
+     */
+    public boolean hasEffectDamage(ElementEffect effect) {
+        int index = effect.ordinal();
+        return effectDamage != null && index < effectDamage.length && !Float.isNaN(effectDamage[index]);
+    }
+
+    /**
+     * 清除效果的伤害值
+     */
+    public void clearEffectDamage(ElementEffect effect) {
+        int index = effect.ordinal();
+        if (effectDamage != null && index < effectDamage.length) {
+            effectDamage[index] = Float.NaN;
+        }
+    }
+
+    @Override
+    public CompoundTag serializeNBT() {
+        CompoundTag tag = new CompoundTag();
+        if (effectDamage != null) {
+            // 只写入仍有数据的效果伤害值，键为效果的注册名
+            CompoundTag damageTag = new CompoundTag();
+            for (int i = 0; i < effectDamage.length; i++) {
+                if (Float.isNaN(effectDamage[i])) {
+                    continue;
+                }
+                ElementEffect effect = ElementEffect.byOrdinal(i);
+                ResourceLocation effectId = effect != null ? ForgeRegistries.MOB_EFFECTS.getKey(effect) : null;
+                if (effectId != null) {
+                    damageTag.putFloat(effectId.toString(), effectDamage[i]);
+                }
+            }
+            if (!damageTag.isEmpty()) {
+                tag.put("effectDamage", damageTag);
+            }
+        }
+        return tag;
+    }
+
+    @Override
+    public void deserializeNBT(CompoundTag tag) {
+        if (!tag.contains("effectDamage")) {
+            return;
+        }
+        CompoundTag damageTag = tag.getCompound("effectDamage");
+        for (String key : damageTag.getAllKeys()) {
+            ResourceLocation effectId = ResourceLocation.tryParse(key);
+            if (effectId != null && ForgeRegistries.MOB_EFFECTS.getValue(effectId) instanceof ElementEffect effect) {
+                setEffectDamage(effect, damageTag.getFloat(key));
+            }
+        }
+    }
+}
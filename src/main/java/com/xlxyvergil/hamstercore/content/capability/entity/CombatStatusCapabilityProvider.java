@@ -0,0 +1,40 @@
+package com.xlxyvergil.hamstercore.content.capability.entity;
+
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.common.util.INBTSerializable;
+import net.minecraftforge.common.util.LazyOptional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 战斗状态能力提供者
+ * 只有仍然存在的效果伤害值会写入实体存档，其余战斗状态只在运行时存在
+ */
+public class CombatStatusCapabilityProvider implements ICapabilityProvider, INBTSerializable<CompoundTag> {
+    public static final Capability<CombatStatusCapability> CAPABILITY = CombatStatusCapability.CAPABILITY;
+
+    private final LazyOptional<CombatStatusCapability> lazyCapability = LazyOptional.of(CombatStatusCapability::new);
+
+    @Nonnull
+    @Override
+    public <T> LazyOptional<T> getCapability(@Nonnull Capability<T> cap, @Nullable Direction side) {
+        if (cap == CAPABILITY) {
+            return lazyCapability.cast();
+        }
+        return LazyOptional.empty();
+    }
+
+    @Override
+    public CompoundTag serializeNBT() {
+        return lazyCapability.map(CombatStatusCapability::serializeNBT).orElse(new CompoundTag());
+    }
+
+    @Override
+    public void deserializeNBT(CompoundTag nbt) {
+        lazyCapability.ifPresent(cap -> cap.deserializeNBT(nbt));
+    }
+}
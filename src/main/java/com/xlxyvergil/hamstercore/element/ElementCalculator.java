@@ -1,8 +1,8 @@
 package com.xlxyvergil.hamstercore.element;
 
+import com.xlxyvergil.hamstercore.combat.AttributeModifierMath;
 import net.minecraft.world.item.ItemStack;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,80 +51,28 @@ public class ElementCalculator {
 
         List<InitialModifierEntry> initialModifiers = weaponData.getInitialModifiers();
 
-        // 按elementType分组，然后根据operation类型进行计算（模拟Forge属性修饰符计算）
-        Map<String, List<InitialModifierEntry>> groupedModifiers = initialModifiers.stream()
-            .collect(Collectors.groupingBy(InitialModifierEntry::getElementType));
-
-        for (Map.Entry<String, List<InitialModifierEntry>> entry : groupedModifiers.entrySet()) {
-            String elementType = entry.getKey();
-            List<InitialModifierEntry> modifiers = entry.getValue();
-            
-            // 获取属性的默认值，默认为1.0
-            double defaultValue = 1.0;
-            try {
-                // 尝试获取属性对象
-                net.minecraft.resources.ResourceLocation rl = new net.minecraft.resources.ResourceLocation(elementType);
-                net.minecraft.world.entity.ai.attributes.Attribute attribute = net.minecraftforge.registries.ForgeRegistries.ATTRIBUTES.getValue(rl);
-                if (attribute != null) {
-                    defaultValue = attribute.getDefaultValue();
-                }
-            } catch (Exception e) {
-                // 如果获取属性失败，使用默认值1.0
-            }
-            
-            // 对同类型修饰符进行合并计算（模拟Forge属性修饰符计算）
-            double calculatedValue = calculateValueForName(modifiers, defaultValue);
-            elementValues.put(elementType, calculatedValue);
-        }
-
-        return elementValues;
+        // 按elementType分组，然后根据operation类型进行计算（模拟Forge属性修饰符计算，公式见AttributeModifierMath）
+        return AttributeModifierMath.calculateGrouped(initialModifiers, ElementCalculator::getAttributeDefaultValue);
     }
 
     /**
-     * 对同名修饰符进行合并计算（完全采用Apotheosis的公式）
-     * @param modifiers 同名的修饰符列表
-     * @param defaultValue 属性的默认值
-     * @return 合并计算后的值
+     * 获取属性的默认值，属性不存在时默认为1.0
+     * @param elementType 属性名
+     * @return 默认值
      */
-    private double calculateValueForName(List<InitialModifierEntry> modifiers, double defaultValue) {
-        // 分离基础值（ADDITION）和其他操作
-        double additionValue = 0.0;
-        List<InitialModifierEntry> multiplyBaseEntries = new ArrayList<>();
-        List<InitialModifierEntry> multiplyTotalEntries = new ArrayList<>();
-
-        for (InitialModifierEntry entry : modifiers) {
-            String operation = entry.getOperation();
-            switch (operation.toUpperCase()) {
-                case "ADDITION":
-                    additionValue += entry.getAmount();
-                    break;
-                case "MULTIPLY_BASE":
-                    multiplyBaseEntries.add(entry);
-                    break;
-                case "MULTIPLY_TOTAL":
-                    multiplyTotalEntries.add(entry);
-                    break;
-                default:
-                    additionValue += entry.getAmount(); // 默认为ADDITION
-                    break;
+    private static double getAttributeDefaultValue(String elementType) {
+        double defaultValue = 1.0;
+        try {
+            // 尝试获取属性对象
+            net.minecraft.resources.ResourceLocation rl = new net.minecraft.resources.ResourceLocation(elementType);
+            net.minecraft.world.entity.ai.attributes.Attribute attribute = net.minecraftforge.registries.ForgeRegistries.ATTRIBUTES.getValue(rl);
+            if (attribute != null) {
+                defaultValue = attribute.getDefaultValue();
             }
+        } catch (Exception e) {
+            // 如果获取属性失败，使用默认值1.0
         }
-
-        // 按照 Apotheosis 的公式计算
-        double amt = defaultValue + additionValue;
-
-        // 处理 MULTIPLY_BASE：每个都乘原始的 baseValue，然后累加
-        // 公式：amt += amount * defaultValue
-        for (InitialModifierEntry entry : multiplyBaseEntries) {
-            amt += entry.getAmount() * defaultValue;
-        }
-
-        // 处理 MULTIPLY_TOTAL：连乘（每个乘 1 + amount）
-        // 公式：amt *= 1 + amount（负数会自动减少）
-        for (InitialModifierEntry entry : multiplyTotalEntries) {
-            amt *= 1 + entry.getAmount();
-        }
-        return amt;
+        return defaultValue;
     }
 
     /**
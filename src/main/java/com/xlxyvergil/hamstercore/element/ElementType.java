@@ -6,6 +6,7 @@ import net.minecraft.network.chat.MutableComponent;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -15,6 +16,8 @@ import java.util.stream.Collectors;
  */
 public class ElementType {
     private static final Map<String, ElementType> REGISTRY = new ConcurrentHashMap<>();
+    // 按注册顺序分配的序号，用于以数组代替Map进行高频查找
+    private static final AtomicInteger NEXT_ORDINAL = new AtomicInteger();
     
     // 物理元素
     public static final ElementType IMPACT = registerBuiltIn("impact", "冲击", ChatFormatting.GRAY, TypeCategory.PHYSICAL);
@@ -50,12 +53,14 @@ public class ElementType {
     private final String displayName;
     private final ChatFormatting color;
     private final TypeCategory category;
+    private final int ordinal;
     
     private ElementType(String name, String displayName, ChatFormatting color, TypeCategory category) {
         this.name = name;
         this.displayName = displayName;
         this.color = color;
         this.category = category;
+        this.ordinal = NEXT_ORDINAL.getAndIncrement();
     }
     
     private static ElementType registerBuiltIn(String name, String displayName, ChatFormatting color, TypeCategory category) {
@@ -256,4 +261,19 @@ public class ElementType {
     public String name() {
         return this.name;
     }
+
+    /**
+     * 获取元素类型的注册序号（从0开始，按注册顺序递增）
+     * 可用作数组下标代替以名称为键的Map查找
+     */
+    public int ordinal() {
+        return this.ordinal;
+    }
+
+    /**
+     * 获取当前已注册的元素类型数量，即按序号索引的数组所需长度
+     */
+    public static int count() {
+        return NEXT_ORDINAL.get();
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.xlxyvergil.hamstercore.element;
 
+import com.xlxyvergil.hamstercore.combat.AttributeModifierMath;
 import net.minecraft.nbt.CompoundTag;
 
 import java.util.Objects;
@@ -9,7 +10,7 @@ import java.util.UUID;
  * InitialModifier层条目类
  * 表示InitialModifier层的单个属性修饰符条目
  */
-public class InitialModifierEntry {
+public class InitialModifierEntry implements AttributeModifierMath.Modifier {
     private final String name;
     private final String elementType;
     private final double amount;
@@ -1,31 +1,82 @@
 package com.xlxyvergil.hamstercore.element.effect;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.xlxyvergil.hamstercore.content.capability.entity.CombatStatusCapability;
 import com.xlxyvergil.hamstercore.element.effect.effects.BlastEffect;
 import com.xlxyvergil.hamstercore.handler.ElementTriggerHandler;
 
 import net.minecraft.core.particles.ParticleTypes;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.level.ServerLevel;
 
 import net.minecraft.world.damagesource.DamageSource;
-import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
-import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.phys.AABB;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
 
 /**
  * 爆炸效果管理器
  * 管理延迟爆炸伤害效果，支持叠加和范围伤害
+ * 实体身上的爆炸条目保存在实体的CombatStatusCapability中
+ *
+ * 爆炸结算合并进行：
+ * - 同一实体在同一tick到期的所有爆炸条目合并为一次爆炸，伤害和等级相加
+ * - 每个维度在tick结束时统一结算本tick的所有爆炸，通过空间索引的一次遍历找到所有爆炸范围内的实体，
+ *   每个实体受到的所有爆炸伤害相加后只调用一次hurt
  */
+@Mod.EventBusSubscriber(modid = "hamstercore")
 public class BlastManager {
     
-    // 存储实体身上的爆炸效果
-    private static final Map<LivingEntity, List<BlastEntry>> entityBlasts = new ConcurrentHashMap<>();
+    // 维度 -> 本tick等待结算的爆炸
+    private static final Map<ResourceKey<Level>, List<Detonation>> pendingDetonations = new ConcurrentHashMap<>();
+    
+    /**
+     * 一次（合并后的）爆炸
+     */
+    private static class Detonation implements StatusSpatialIndex.AreaSource {
+        private final LivingEntity center;
+        private final double x, y, z;
+        private final double radius;
+        private final float damage;
+        
+        private Detonation(LivingEntity center, float damage, double range) {
+            this.center = center;
+            this.x = center.getX();
+            this.y = center.getY();
+            this.z = center.getZ();
+            // 半径计入中心实体的半宽
+            this.radius = range + center.getBbWidth() / 2.0;
+            this.damage = damage;
+        }
+        
+        @Override
+        public double getX() {
+            return x;
+        }
+        
+        @Override
+        public double getY() {
+            return y;
+        }
+        
+        @Override
+        public double getZ() {
+            return z;
+        }
+        
+        @Override
+        public double getRadius() {
+            return radius;
+        }
+    }
     
     /**
      * 爆炸效果条目类
@@ -41,7 +92,6 @@ public class BlastManager {
         
         public BlastEntry(float damage, int amplifier, DamageSource damageSource) {
             this.damage = damage;
-            this.amplifier = amplifier;
             this.damageSource = damageSource;
             this.delayTicks = 30; // 1.5秒延迟
             this.maxDuration = 120; // 6秒持续时间
@@ -69,10 +119,12 @@ public class BlastManager {
         }
         
         public void tick() {
-            if (delayTicks > 0) {
-                delayTicks--;
-            }
-            ticksLived++;
+            tick(1);
+        }
+        
+        public void tick(int ticks) {
+            delayTicks = Math.max(0, delayTicks - ticks);
+            ticksLived += ticks;
         }
         
         public int getTicksLived() {
@@ -88,17 +140,23 @@ public class BlastManager {
      * @param damageSource 伤害源
      */
     public static void addBlast(LivingEntity entity, float damage, int amplifier, DamageSource damageSource) {
-        BlastEntry entry = new BlastEntry(damage, amplifier, damageSource);
-        entityBlasts.computeIfAbsent(entity, k -> new ArrayList<>()).add(entry);
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status != null) {
+            // 降频更新的实体先补齐之前积累的tick，再添加新条目
+            ElementEffectEventManager.catchUp(entity, status);
+            status.getBlasts().add(new BlastEntry(damage, amplifier, damageSource));
+        }
     }
     
     /**
      * 更新实体身上的所有爆炸效果
      * @param entity 实体
+     * @param status 实体的战斗状态
+     * @param elapsedTicks 距上次更新经过的tick数（降频更新时大于1，期间到期的条目合并为一次爆炸）
      */
-    public static void updateBlasts(LivingEntity entity) {
-        List<BlastEntry> blasts = entityBlasts.get(entity);
-        if (blasts != null) {
+    public static void updateBlasts(LivingEntity entity, CombatStatusCapability status, int elapsedTicks) {
+        List<BlastEntry> blasts = status.getBlasts();
+        if (!blasts.isEmpty()) {
             // 创建一个副本以避免并发修改
             List<BlastEntry> blastsCopy = new ArrayList<>(blasts);
             List<BlastEntry> readyToExplode = new ArrayList<>();
@@ -109,7 +167,7 @@ public class BlastManager {
             boolean maxStackReached = blasts.size() >= BlastEffect.MAX_LEVEL;
             
             for (BlastEntry entry : blastsCopy) {
-                entry.tick();
+                entry.tick(elapsedTicks);
                 totalAmplifier += entry.getAmplifier();
                 
                 // 检查是否应该爆炸
@@ -125,72 +183,113 @@ public class BlastManager {
             blasts.removeAll(toRemove);
             
             // 如果达到最大叠加层数或在1.5秒内累积了多层数，立即结算所有伤害
+            double range;
             if (maxStackReached || (readyToExplode.size() > 1 && totalAmplifier >= BlastEffect.MAX_LEVEL)) {
-                // 立即结算所有待爆炸的效果
+                // 立即结算所有待爆炸的效果，使用5米范围进行结算
                 readyToExplode.addAll(blasts);
                 blasts.clear();
-                
-                // 使用5米范围进行结算
-                for (BlastEntry entry : readyToExplode) {
-                    explode(entity, entry.getDamage(), entry.getAmplifier(), entry.getDamageSource(), 5.0);
-                }
+                range = 5.0;
             } else {
                 // 正常爆炸
-                for (BlastEntry entry : readyToExplode) {
-                    explode(entity, entry.getDamage(), entry.getAmplifier(), entry.getDamageSource(), 2.0);
-                }
+                range = 2.0;
             }
             
-            // 如果该实体没有任何爆炸效果了，清理map
-            if (blasts.isEmpty()) {
-                entityBlasts.remove(entity);
+            if (readyToExplode.isEmpty()) {
+                return;
             }
+            
+            // 本tick到期的所有条目合并为一次爆炸，伤害相加
+            float damage = 0.0F;
+            for (BlastEntry entry : readyToExplode) {
+                damage += entry.getDamage();
+            }
+            explode(entity, damage, range);
         }
     }
     
     /**
-     * 执行爆炸
+     * 登记一次爆炸，在所属维度本tick结束时与其他爆炸一起结算
      * @param center 爆炸中心实体
      * @param damage 爆炸伤害
-     * @param amplifier 等级
-     * @param damageSource 伤害源
      * @param range 爆炸范围（米）
      */
-    private static void explode(LivingEntity center, float damage, int amplifier, DamageSource damageSource, double range) {
-        Level level = center.level();
-        AABB boundingBox = center.getBoundingBox().inflate(range);
+    private static void explode(LivingEntity center, float damage, double range) {
+        if (!(center.level() instanceof ServerLevel serverLevel)) {
+            return;
+        }
+        pendingDetonations.computeIfAbsent(serverLevel.dimension(), key -> new ArrayList<>())
+            .add(new Detonation(center, damage, range));
+    }
+    
+    /**
+     * 每个维度tick结束时结算本tick的所有爆炸
+     */
+    @SubscribeEvent
+    public static void onLevelTick(TickEvent.LevelTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || !(event.level instanceof ServerLevel serverLevel)) {
+            return;
+        }
+        List<Detonation> detonations = pendingDetonations.remove(serverLevel.dimension());
+        if (detonations != null && !detonations.isEmpty()) {
+            // 爆炸结算是非关键工作，本tick时间预算用完时推迟到后续tick
+            StatusBudget.run(serverLevel, StatusBudget.Subsystem.BLAST, () -> resolveDetonations(serverLevel, detonations));
+        }
+    }
+    
+    /**
+     * 维度卸载时丢弃未结算的爆炸
+     */
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            pendingDetonations.remove(serverLevel.dimension());
+        }
+    }
+    
+    /**
+     * 结算一批爆炸
+     * 通过空间索引一次遍历找到每个爆炸范围内的实体（按距离平方判断，索引中不包含玩家），
+     * 每个实体受到的爆炸伤害相加后只调用一次hurt，中心实体同样受到自己爆炸的伤害
+     * @param level 所在维度
+     * @param detonations 本tick的所有爆炸
+     */
+    private static void resolveDetonations(ServerLevel level, List<Detonation> detonations) {
+        // 实体 -> 本tick受到的爆炸伤害总和（实体按身份比较，保持登记顺序）
+        Map<LivingEntity, Float> totalDamage = new LinkedHashMap<>();
         
-        // 找到范围内的所有实体
-        List<Entity> entities = level.getEntities(center, boundingBox, 
-            entity -> entity instanceof LivingEntity && entity != center);
+        // 中心实体受到自己爆炸的伤害
+        for (Detonation detonation : detonations) {
+            totalDamage.merge(detonation.center, detonation.damage, Float::sum);
+        }
         
-        // 使用魔法伤害源防止爆炸伤害触发新的元素效果
-        DamageSource magicDamageSource = center.damageSources().magic();
+        // 范围内的其他实体受到爆炸伤害
+        StatusSpatialIndex.get(level).sweep(detonations, (detonation, entity) -> {
+            if (entity != detonation.center) {
+                totalDamage.merge(entity, detonation.damage, Float::sum);
+            }
+        });
         
         // 设置正在处理范围伤害的标志，防止连锁反应
         ElementTriggerHandler.setProcessingDotDamage(true);
         try {
-            // 对范围内的所有实体造成伤害（排除玩家）
-            for (Entity entity : entities) {
-                if (entity instanceof LivingEntity livingEntity && !(entity instanceof Player)) {
-                    livingEntity.hurt(magicDamageSource, damage);
+            for (Map.Entry<LivingEntity, Float> entry : totalDamage.entrySet()) {
+                LivingEntity entity = entry.getKey();
+                if (entity.isRemoved()) {
+                    continue;
                 }
+                // 使用魔法伤害源防止爆炸伤害触发新的元素效果
+                entity.hurt(entity.damageSources().magic(), entry.getValue());
             }
-            
-            // 中心实体也受到伤害
-            center.hurt(magicDamageSource, damage);
         } finally {
             // 确保在伤害处理完成后重置标志
             ElementTriggerHandler.setProcessingDotDamage(false);
         }
         
-        // 播放爆炸效果
-        if (level instanceof ServerLevel serverLevel) {
-            // 添加爆炸粒子效果
-            serverLevel.sendParticles(ParticleTypes.EXPLOSION, 
-                center.getX(), center.getY(), center.getZ(), 
+        // 播放爆炸效果，每个爆炸中心一次
+        for (Detonation detonation : detonations) {
+            level.sendParticles(ParticleTypes.EXPLOSION, 
+                detonation.x, detonation.y, detonation.z, 
                 10, 0.5, 0.5, 0.5, 0.1);
-            
         }
     }
     
@@ -199,7 +298,10 @@ public class BlastManager {
      * @param entity 实体
      */
     public static void clearBlasts(LivingEntity entity) {
-        entityBlasts.remove(entity);
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status != null) {
+            status.getBlasts().clear();
+        }
     }
     
     /**
@@ -208,7 +310,7 @@ public class BlastManager {
      * @return 爆炸效果的数量
      */
     public static int getBlastCount(LivingEntity entity) {
-        List<BlastEntry> blasts = entityBlasts.get(entity);
-        return blasts != null ? blasts.size() : 0;
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        return status != null ? status.getBlasts().size() : 0;
     }
 }
\ No newline at end of file
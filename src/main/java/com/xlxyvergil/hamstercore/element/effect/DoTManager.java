@@ -1,9 +1,18 @@
 package com.xlxyvergil.hamstercore.element.effect;
 
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import com.xlxyvergil.hamstercore.combat.TimingWheel;
+import com.xlxyvergil.hamstercore.content.capability.entity.CombatStatusCapability;
 import com.xlxyvergil.hamstercore.element.ElementType;
-import com.xlxyvergil.hamstercore.handler.ElementTriggerHandler;
+import com.xlxyvergil.hamstercore.handler.StatusDamage;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -11,70 +20,76 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * 持续伤害管理系统
  * 管理所有周期性伤害效果，支持叠加和独立计时
+ * 每个维度一个分层时间轮，每个DoT条目只在下一次伤害或结束的tick被调度，
+ * 每tick的开销与到期的条目数量成正比，与实体数量和条目总数无关
+ * 实体身上的DoT条目保存在实体的CombatStatusCapability中
  */
+@Mod.EventBusSubscriber(modid = "hamstercore")
 public class DoTManager {
-    
-    // 存储实体身上的DoT效果
-    private static final Map<LivingEntity, List<DoTEntry>> entityDoTs = new ConcurrentHashMap<>();
-    
+
+    // 伤害间隔：每20 ticks（1秒）应用一次伤害
+    private static final int DAMAGE_INTERVAL = 20;
+
+    // 维度 -> DoT时间轮
+    private static final Map<ResourceKey<Level>, TimingWheel<DoTEntry>> schedulers = new ConcurrentHashMap<>();
+
     /**
      * DoT效果条目类
      * 表示一个DoT效果条目
      */
     public static class DoTEntry {
+        private final LivingEntity entity;
         private final ElementType elementType;
         private final float damagePerTick;
-        private int ticksRemaining;
         private final int amplifier;
-        private int tickCounter; // 计数器，用于控制伤害频率
         private final DamageSource damageSource; // 原始伤害源
-        
-        public DoTEntry(ElementType elementType, float damagePerTick, int ticksRemaining, int amplifier, DamageSource damageSource) {
+        private final long expireTick; // 结束的游戏刻
+        private long nextDamageTick; // 下一次伤害的游戏刻
+        private TimingWheel.Timer<DoTEntry> timer; // 当前调度的定时任务
+
+        public DoTEntry(LivingEntity entity, ElementType elementType, float damagePerTick, int ticksRemaining, int amplifier, DamageSource damageSource) {
+            this.entity = entity;
             this.elementType = elementType;
             this.damagePerTick = damagePerTick;
-            this.ticksRemaining = ticksRemaining;
             this.amplifier = amplifier;
-            this.tickCounter = 0;
             this.damageSource = damageSource;
+            long gameTime = entity.level().getGameTime();
+            this.expireTick = gameTime + Math.max(1, ticksRemaining);
+            this.nextDamageTick = gameTime + DAMAGE_INTERVAL;
         }
-        
+
+        public LivingEntity getEntity() {
+            return entity;
+        }
+
         public ElementType getElementType() {
             return elementType;
         }
-        
+
         public float getDamagePerTick() {
             return damagePerTick;
         }
-        
+
         public int getTicksRemaining() {
-            return ticksRemaining;
-        }
-        
-        public void decrementTicks() {
-            this.ticksRemaining--;
+            return (int) Math.max(0, expireTick - entity.level().getGameTime());
         }
-        
+
         public int getAmplifier() {
             return amplifier;
         }
-        
-        public int getTickCounter() {
-            return tickCounter;
-        }
-        
-        public void incrementTickCounter() {
-            this.tickCounter++;
-        }
-        
-        public void resetTickCounter() {
-            this.tickCounter = 0;
-        }
-        
+
         public DamageSource getDamageSource() {
             return damageSource;
         }
+
+        /**
+         * 下一次需要处理的游戏刻：下一次伤害和结束中较早的一个
+         */
+        private long nextEventTick() {
+            return Math.min(nextDamageTick, expireTick);
+        }
     }
-    
+
     /**
      * 为实体添加DoT效果
      * @param entity 实体
@@ -85,49 +100,87 @@ public class DoTManager {
      * @param damageSource 原始伤害源
      */
     public static void addDoT(LivingEntity entity, ElementType elementType, float damagePerTick, int duration, int amplifier, DamageSource damageSource) {
-        DoTEntry entry = new DoTEntry(elementType, damagePerTick, duration, amplifier, damageSource);
-        entityDoTs.computeIfAbsent(entity, k -> new ArrayList<>()).add(entry);
+        if (!(entity.level() instanceof ServerLevel serverLevel)) {
+            return;
+        }
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status == null) {
+            return;
+        }
+        DoTEntry entry = new DoTEntry(entity, elementType, damagePerTick, duration, amplifier, damageSource);
+        status.getDoTs().add(entry);
+        entry.timer = getScheduler(serverLevel).schedule(entry, entry.nextEventTick());
     }
-    
+
     /**
-     * 更新实体身上的所有DoT效果
-     * @param entity 实体
+     * 获取维度的DoT时间轮
      */
-    public static void updateDoTs(LivingEntity entity) {
-        List<DoTEntry> dots = entityDoTs.get(entity);
-        if (dots != null) {
-            // 创建一个副本以避免并发修改
-            List<DoTEntry> dotsCopy = new ArrayList<>(dots);
-            List<DoTEntry> toRemove = new ArrayList<>();
-            
-            for (DoTEntry entry : dotsCopy) {
-                entry.decrementTicks();
-                entry.incrementTickCounter();
-                
-                // 每20 ticks（1秒）应用一次伤害
-                if (entry.getTickCounter() >= 20) {
-                    // 应用伤害
-                    applyDotDamage(entity, entry);
-                    // 重置计数器
-                    entry.resetTickCounter();
-                }
-                
-                // 如果效果结束，移除它
-                if (entry.getTicksRemaining() <= 0) {
-                    toRemove.add(entry);
-                }
-            }
-            
-            // 从原始列表中移除需要移除的条目
-            dots.removeAll(toRemove);
-            
-            // 如果该实体没有任何DoT效果了，清理map
-            if (dots.isEmpty()) {
-                entityDoTs.remove(entity);
-            }
+    private static TimingWheel<DoTEntry> getScheduler(ServerLevel level) {
+        return schedulers.computeIfAbsent(level.dimension(), key -> new TimingWheel<>(level.getGameTime()));
+    }
+
+    /**
+     * 每个维度tick结束时推进时间轮，处理到期的伤害和结束
+     */
+    @SubscribeEvent
+    public static void onLevelTick(TickEvent.LevelTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || !(event.level instanceof ServerLevel serverLevel)) {
+            return;
+        }
+        TimingWheel<DoTEntry> scheduler = schedulers.get(serverLevel.dimension());
+        if (scheduler == null) {
+            return;
+        }
+        // DoT伤害和到期是关键工作，总是立即执行，只计入时间预算
+        StatusBudget.measure(StatusBudget.Subsystem.DOT,
+            () -> scheduler.advanceTo(serverLevel.getGameTime(), timer -> processEntry(scheduler, timer.getValue())));
+    }
+
+    /**
+     * 维度卸载时丢弃对应的时间轮，实体身上的DoT记录随实体一起释放
+     */
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            schedulers.remove(serverLevel.dimension());
         }
     }
-    
+
+    /**
+     * 处理一个到期的DoT条目：到达伤害时刻时造成伤害，到达结束时刻时移除，否则调度下一次
+     */
+    private static void processEntry(TimingWheel<DoTEntry> scheduler, DoTEntry entry) {
+        LivingEntity entity = entry.getEntity();
+
+        // 实体已经死亡或被移除时，清理它身上的所有DoT效果
+        if (entity.isRemoved() || !entity.isAlive()) {
+            clearDoTs(entity);
+            return;
+        }
+
+        long now = scheduler.getCurrentTick();
+        if (now >= entry.nextDamageTick) {
+            // 应用伤害
+            applyDotDamage(entity, entry);
+            entry.nextDamageTick += DAMAGE_INTERVAL;
+        }
+
+        // 如果效果结束，移除它
+        if (now >= entry.expireTick) {
+            removeEntry(entity, entry);
+            return;
+        }
+
+        entry.timer = scheduler.schedule(entry, entry.nextEventTick());
+    }
+
+    private static void removeEntry(LivingEntity entity, DoTEntry entry) {
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status != null) {
+            status.getDoTs().remove(entry);
+        }
+    }
+
     /**
      * 应用DoT伤害
      * @param entity 实体
@@ -136,27 +189,37 @@ public class DoTManager {
     private static void applyDotDamage(LivingEntity entity, DoTEntry entry) {
         // 直接使用每tick伤害值，不需要额外计算
         float damage = entry.getDamagePerTick();
-        
-        // 设置正在处理DoT伤害的标志，防止DoT伤害触发新的元素效果
-        ElementTriggerHandler.setProcessingDotDamage(true);
-        try {
-            // 使用原始伤害源进行DoT伤害
-            // 这样DoT伤害会继承原始伤害的所有属性（如攻击者、伤害类型等）
-            entity.hurt(entry.getDamageSource(), damage);
-        } finally {
-            // 确保在伤害处理完成后重置标志
-            ElementTriggerHandler.setProcessingDotDamage(false);
-        }
+
+        // 伤害已经计算好，通过状态伤害通道直接作用于护盾和生命值，攻击者沿用原始伤害源的攻击者
+        // 同一tick内该实体所有到期条目的伤害在tick结束时合并为一次伤害，各元素的伤害分别累计
+        StatusDamage.queue(entity, entry.getElementType(), damage, entry.getDamageSource().getEntity());
     }
-    
+
     /**
      * 移除实体身上的所有DoT效果
      * @param entity 实体
      */
     public static void clearDoTs(LivingEntity entity) {
-        entityDoTs.remove(entity);
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status != null) {
+            clearDoTs(status);
+        }
     }
-    
+
+    /**
+     * 移除战斗状态中的所有DoT效果
+     * @param status 实体的战斗状态
+     */
+    public static void clearDoTs(CombatStatusCapability status) {
+        List<DoTEntry> dots = status.getDoTs();
+        for (DoTEntry entry : dots) {
+            if (entry.timer != null) {
+                entry.timer.cancel();
+            }
+        }
+        dots.clear();
+    }
+
     /**
      * 获取实体身上的DoT效果数量
      * @param entity 实体
@@ -164,12 +227,16 @@ public class DoTManager {
      * @return 该类型DoT效果的数量
      */
     public static int getDoTCount(LivingEntity entity, ElementType elementType) {
-        List<DoTEntry> dots = entityDoTs.get(entity);
-        if (dots != null) {
-            return (int) dots.stream()
-                    .filter(entry -> entry.getElementType() == elementType)
-                    .count();
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status == null) {
+            return 0;
+        }
+        int count = 0;
+        for (DoTEntry entry : status.getDoTs()) {
+            if (entry.getElementType() == elementType) {
+                count++;
+            }
         }
-        return 0;
+        return count;
     }
-}
\ No newline at end of file
+}
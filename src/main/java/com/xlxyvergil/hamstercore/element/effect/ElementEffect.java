@@ -4,14 +4,53 @@ import net.minecraft.world.effect.MobEffect;
 import net.minecraft.world.effect.MobEffectCategory;
 import net.minecraft.world.entity.LivingEntity;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 元素效果基类
  * 继承自MobEffect，定义元素效果的通用行为
  */
 public class ElementEffect extends MobEffect {
 
+    // 按创建顺序排列的所有元素效果，下标即效果序号
+    private static final List<ElementEffect> EFFECTS = new ArrayList<>();
+
+    // 效果序号，用于按数组下标存取实体上的效果数据
+    private final int ordinal;
+
     protected ElementEffect(MobEffectCategory category, int color) {
         super(category, color);
+        synchronized (EFFECTS) {
+            this.ordinal = EFFECTS.size();
+            EFFECTS.add(this);
+        }
+    }
+
+    /**
+     * 获取效果序号（按效果创建顺序从0开始）
+     */
+    public int ordinal() {
+        return ordinal;
+    }
+
+    /**
+     * 获取已创建的元素效果数量
+     */
+    public static int count() {
+        return EFFECTS.size();
+    }
+
+    /**
+     * 根据序号获取元素效果
+     * @param ordinal 效果序号
+     * @return 元素效果，序号无效时返回null
+     */
+    public static ElementEffect byOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= EFFECTS.size()) {
+            return null;
+        }
+        return EFFECTS.get(ordinal);
     }
 
     // 元素效果的通用行为可以在这里定义
@@ -1,20 +1,30 @@
 package com.xlxyvergil.hamstercore.element.effect;
 
+import com.xlxyvergil.hamstercore.content.capability.entity.CombatStatusCapability;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.effect.MobEffectInstance;
 import net.minecraft.world.entity.LivingEntity;
 
+import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.living.MobEffectEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.registries.ForgeRegistries;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 元素效果数据辅助类
- * 使用实体的PersistentData存储额外的效果数据（如伤害值、伤害源等）
+ * 效果的伤害值按ElementEffect序号保存在实体的CombatStatusCapability中，存取时不再拼接字符串键和读写PersistentData
+ * 效果被移除或到期时清除对应的伤害值，因此存档中只会保留仍在生效的效果的伤害值
  */
+@Mod.EventBusSubscriber(modid = "hamstercore")
 public class ElementEffectDataHelper {
 
-    // 数据键前缀
-    private static final String KEY_PREFIX = "hamstercore.effect.";
+    // 旧版本PersistentData中的数据键前缀，仅用于迁移旧存档
+    private static final String LEGACY_KEY_PREFIX = "hamstercore.effect.";
 
     /**
      * 设置效果的伤害数据
@@ -23,9 +33,10 @@ public class ElementEffectDataHelper {
      * @param finalDamage 最终伤害值
      */
     public static void setEffectDamage(LivingEntity entity, ElementEffect effect, float finalDamage) {
-        String key = getDataKey(effect);
-        CompoundTag data = entity.getPersistentData();
-        data.putFloat(key + ".damage", finalDamage);
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status != null) {
+            status.setEffectDamage(effect, finalDamage);
+        }
     }
 
     /**
@@ -35,9 +46,8 @@ public class ElementEffectDataHelper {
      * @return 伤害值，如果不存在则返回0
      */
     public static float getEffectDamage(LivingEntity entity, ElementEffect effect) {
-        String key = getDataKey(effect);
-        CompoundTag data = entity.getPersistentData();
-        return data.getFloat(key + ".damage");
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        return status != null ? status.getEffectDamage(effect) : 0.0F;
     }
 
     /**
@@ -46,11 +56,10 @@ public class ElementEffectDataHelper {
      * @param effect 效果
      */
     public static void clearEffectData(LivingEntity entity, ElementEffect effect) {
-        String key = getDataKey(effect);
-        CompoundTag data = entity.getPersistentData();
-        data.remove(key + ".damage");
-        data.remove(key + ".damage_source_type");
-        data.remove(key + ".damage_source_entity");
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status != null) {
+            status.clearEffectDamage(effect);
+        }
     }
 
     /**
@@ -60,22 +69,10 @@ public class ElementEffectDataHelper {
      * @return 是否有数据
      */
     public static boolean hasEffectData(LivingEntity entity, ElementEffect effect) {
-        String key = getDataKey(effect);
-        return entity.getPersistentData().contains(key + ".damage");
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        return status != null && status.hasEffectDamage(effect);
     }
 
-    /**
-     * 获取数据键
-     * @param effect 效果
-     * @return 数据键
-     */
-    private static String getDataKey(ElementEffect effect) {
-        if (effect == null) return KEY_PREFIX + "unknown";
-        ResourceLocation effectId = ForgeRegistries.MOB_EFFECTS.getKey(effect);
-        if (effectId == null) return KEY_PREFIX + "unknown";
-        return KEY_PREFIX + effectId.toString().replace(':', '.');
-    }
-    
     /**
      * 当效果移除时自动清理数据
      * @param entity 实体
@@ -86,4 +83,66 @@ public class ElementEffectDataHelper {
             clearEffectData(entity, effect);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 效果被移除时清理伤害数据
+     */
+    @SubscribeEvent
+    public static void onMobEffectRemove(MobEffectEvent.Remove event) {
+        if (event.getEffect() instanceof ElementEffect effect) {
+            clearEffectData(event.getEntity(), effect);
+        }
+    }
+
+    /**
+     * 效果到期时清理伤害数据
+     */
+    @SubscribeEvent
+    public static void onMobEffectExpired(MobEffectEvent.Expired event) {
+        if (event.getEffectInstance() != null) {
+            onEffectRemoved(event.getEntity(), event.getEffectInstance());
+        }
+    }
+
+    /**
+     * 实体加入世界时，将旧版本写在PersistentData中的伤害数据迁移到战斗状态中，并从PersistentData中删除
+     */
+    @SubscribeEvent
+    public static void onEntityJoinLevel(EntityJoinLevelEvent event) {
+        if (event.getLevel().isClientSide() || !(event.getEntity() instanceof LivingEntity entity)) {
+            return;
+        }
+        CompoundTag data = entity.getPersistentData();
+        if (data.isEmpty()) {
+            return;
+        }
+
+        List<String> legacyKeys = null;
+        for (String key : data.getAllKeys()) {
+            if (key.startsWith(LEGACY_KEY_PREFIX)) {
+                if (legacyKeys == null) {
+                    legacyKeys = new ArrayList<>();
+                }
+                legacyKeys.add(key);
+            }
+        }
+        if (legacyKeys == null) {
+            return;
+        }
+
+        for (String key : legacyKeys) {
+            // 旧键格式：hamstercore.effect.<命名空间>.<路径>.damage
+            if (key.endsWith(".damage")) {
+                String effectPath = key.substring(LEGACY_KEY_PREFIX.length(), key.length() - ".damage".length());
+                int separator = effectPath.indexOf('.');
+                if (separator > 0) {
+                    ResourceLocation effectId = ResourceLocation.tryBuild(effectPath.substring(0, separator), effectPath.substring(separator + 1));
+                    if (effectId != null && ForgeRegistries.MOB_EFFECTS.getValue(effectId) instanceof ElementEffect effect && entity.hasEffect(effect)) {
+                        setEffectDamage(entity, effect, data.getFloat(key));
+                    }
+                }
+            }
+            data.remove(key);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.xlxyvergil.hamstercore.element.effect;
 
+import com.xlxyvergil.hamstercore.content.capability.entity.CombatStatusCapability;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraftforge.event.entity.living.LivingEvent;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
@@ -30,29 +31,71 @@ public class ElementEffectEventManager {
     
     /**
      * 监听实体更新事件
-     * 每tick更新持续性效果状态
+     * 更新持续性效果状态，远离玩家的实体按StatusLod给出的间隔降频更新，
+     * 更新时一次补齐间隔内积累的tick数；只累计实体实际tick过的次数，与逐tick更新的结果一致
      */
     @SubscribeEvent
     public static void onLivingUpdate(LivingEvent.LivingTickEvent event) {
         LivingEntity entity = event.getEntity();
         
+        // 所有元素状态都保存在实体的战斗状态能力中，只需查询一次，没有状态的实体直接跳过
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status == null) {
+            return;
+        }
+        if (status.isEmpty()) {
+            status.setPendingTicks(0);
+            return;
+        }
+        
+        int pendingTicks = status.getPendingTicks() + 1;
+        status.setPendingTicks(pendingTicks);
+        if (pendingTicks < StatusLod.getUpdateInterval(entity)) {
+            return;
+        }
+        
+        update(entity, status);
+    }
+    
+    /**
+     * 补齐降频更新的实体积累的tick，在修改实体的元素状态之前调用，
+     * 保证新增或叠加的状态不会被计入它出现之前的tick
+     * @param entity 实体
+     * @param status 实体的战斗状态
+     */
+    public static void catchUp(LivingEntity entity, CombatStatusCapability status) {
+        if (status.getPendingTicks() > 0) {
+            update(entity, status);
+        }
+    }
+    
+    /**
+     * 将实体积累的tick一次计入元素效果记录
+     * @param entity 实体
+     * @param status 实体的战斗状态
+     */
+    private static void update(LivingEntity entity, CombatStatusCapability status) {
+        int elapsedTicks = status.getPendingTicks();
+        status.setPendingTicks(0);
+        if (elapsedTicks <= 0 || status.isEmpty()) {
+            return;
+        }
+        
         // 更新实体身上的元素效果
-        ElementEffectManager.updateEffects(entity);
+        ElementEffectManager.updateEffects(entity, status, elapsedTicks);
         
-        // 更新实体身上的DoT效果
-        DoTManager.updateDoTs(entity);
+        // DoT效果由DoTManager在每个维度tick结束时按时间轮调度，不再逐实体更新
         
         // 更新实体身上的爆炸效果
-        BlastManager.updateBlasts(entity);
+        BlastManager.updateBlasts(entity, status, elapsedTicks);
         
         // 更新实体身上的腐蚀效果
-        CorrosiveManager.updateCorrosives(entity);
+        CorrosiveManager.updateCorrosives(entity, status, elapsedTicks);
         
         // 更新实体身上的火焰效果（护甲削减部分）
-        HeatManager.updateHeatEffects(entity);
+        HeatManager.updateHeatEffects(entity, status, elapsedTicks);
         
-        // 更新所有毒气云（全局更新，不依赖于特定实体）
-        GasManager.updateAllGasClouds();
+        // 毒气云由GasManager在每个维度tick结束时统一更新，不再逐实体更新
     }
     
     /**
@@ -2,21 +2,17 @@ package com.xlxyvergil.hamstercore.element.effect;
 
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.effect.MobEffectInstance;
+import com.xlxyvergil.hamstercore.content.capability.entity.CombatStatusCapability;
 import com.xlxyvergil.hamstercore.element.ElementType;
 import com.xlxyvergil.hamstercore.element.effect.effects.*;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * 元素效果管理器
  * 管理元素效果的施加、更新和移除，与项目现有的ElementType系统集成
+ * 实体身上的元素效果实例按ElementType序号保存在实体的CombatStatusCapability中
  */
 public class ElementEffectManager {
 
-    // 存储实体身上的元素效果
-    private static final Map<LivingEntity, Map<ElementType, MobEffectInstance>> entityEffects = new HashMap<>();
-
     /**
      * 为实体添加元素效果，根据规则处理等级叠加（带伤害参数）
      * @param entity 实体
@@ -44,8 +40,10 @@ public class ElementEffectManager {
      * @param effectInstance 效果实例
      */
     public static void addEffect(LivingEntity entity, ElementType elementType, MobEffectInstance effectInstance) {
-        entityEffects.computeIfAbsent(entity, k -> new HashMap<>())
-                    .put(elementType, effectInstance);
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status != null) {
+            status.setElementEffect(elementType, effectInstance);
+        }
         // 应用效果到实体
         entity.addEffect(effectInstance);
     }
@@ -57,11 +55,8 @@ public class ElementEffectManager {
      * @return 效果实例，如果不存在则返回null
      */
     public static MobEffectInstance getEffect(LivingEntity entity, ElementType elementType) {
-        Map<ElementType, MobEffectInstance> effects = entityEffects.get(entity);
-        if (effects != null) {
-            return effects.get(elementType);
-        }
-        return null;
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        return status != null ? status.getElementEffect(elementType) : null;
     }
 
     /**
@@ -70,30 +65,24 @@ public class ElementEffectManager {
      * @param elementType 元素类型
      */
     public static void removeEffect(LivingEntity entity, ElementType elementType) {
-        Map<ElementType, MobEffectInstance> effects = entityEffects.get(entity);
-        if (effects != null) {
-            MobEffectInstance instance = effects.remove(elementType);
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status != null) {
+            MobEffectInstance instance = status.setElementEffect(elementType, null);
             if (instance != null) {
                 // 从实体移除效果
                 entity.removeEffect(instance.getEffect());
             }
-
-            // 如果该实体没有任何效果了，清理map
-            if (effects.isEmpty()) {
-                entityEffects.remove(entity);
-            }
         }
     }
 
     /**
      * 更新实体身上的所有元素效果
      * @param entity 实体
+     * @param status 实体的战斗状态
+     * @param elapsedTicks 距上次更新经过的tick数（降频更新时大于1）
      */
-    public static void updateEffects(LivingEntity entity) {
-        Map<ElementType, MobEffectInstance> effects = entityEffects.get(entity);
-        if (effects != null) {
-            // 更新逻辑可以在这里实现
-        }
+    public static void updateEffects(LivingEntity entity, CombatStatusCapability status, int elapsedTicks) {
+        // 更新逻辑可以在这里实现
     }
 
     /**
@@ -101,14 +90,12 @@ public class ElementEffectManager {
      * @param entity 实体
      */
     public static void clearEffects(LivingEntity entity) {
-        Map<ElementType, MobEffectInstance> effects = entityEffects.get(entity);
-        if (effects != null) {
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status != null) {
             // 移除所有效果
-            for (MobEffectInstance instance : effects.values()) {
+            for (MobEffectInstance instance : status.clearElementEffects()) {
                 entity.removeEffect(instance.getEffect());
             }
-            effects.clear();
-            entityEffects.remove(entity);
         }
     }
 }
\ No newline at end of file
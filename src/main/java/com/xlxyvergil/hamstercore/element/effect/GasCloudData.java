@@ -0,0 +1,170 @@
+package com.xlxyvergil.hamstercore.element.effect;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 毒气云存档数据
+ * 每个维度一份，毒气云按中心所在区块存放，随维度一起保存，重启后继续存在
+ * 区块卸载时该区块的毒气云转为暂停状态（不更新、不查询，剩余时间保持不变），区块重新加载时恢复
+ * 读档时所有毒气云都先处于暂停状态，由区块加载事件逐个区块恢复
+ * 只应在服务端主线程上使用
+ */
+public class GasCloudData extends SavedData {
+
+    private static final String DATA_NAME = "hamstercore_gas_clouds";
+
+    // 区块坐标 -> 区块内正在运行的毒气云
+    private final Map<Long, Map<UUID, GasManager.GasCloud>> activeChunks = new LinkedHashMap<>();
+    // 区块坐标 -> 区块已卸载而暂停的毒气云
+    private final Map<Long, Map<UUID, GasManager.GasCloud>> suspendedChunks = new HashMap<>();
+
+    /**
+     * 获取维度的毒气云数据，首次访问时从存档读取
+     * @param level 所在维度
+     * @return 毒气云数据
+     */
+    public static GasCloudData get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(GasCloudData::load, GasCloudData::new, DATA_NAME);
+    }
+
+    /**
+     * 添加一个正在运行的毒气云
+     * @param cloud 毒气云
+     */
+    public void add(GasManager.GasCloud cloud) {
+        activeChunks.computeIfAbsent(cloud.getChunkKey(), key -> new LinkedHashMap<>()).put(cloud.getCloudId(), cloud);
+        setDirty();
+    }
+
+    /**
+     * 获取区块内正在运行的毒气云
+     * @param chunkKey 区块坐标（ChunkPos.asLong）
+     * @return 毒气云，区块内没有时返回null
+     */
+    public Map<UUID, GasManager.GasCloud> getActive(long chunkKey) {
+        return activeChunks.get(chunkKey);
+    }
+
+    /**
+     * 获取所有有正在运行的毒气云的区块，遍历时可以移除其中的毒气云和空区块
+     */
+    public Collection<Map<UUID, GasManager.GasCloud>> getActiveChunks() {
+        return activeChunks.values();
+    }
+
+    public boolean hasActive() {
+        return !activeChunks.isEmpty();
+    }
+
+    /**
+     * 区块卸载时暂停区块内的毒气云
+     * @param chunkKey 区块坐标
+     */
+    public void suspendChunk(long chunkKey) {
+        Map<UUID, GasManager.GasCloud> clouds = activeChunks.remove(chunkKey);
+        if (clouds != null) {
+            suspendedChunks.put(chunkKey, clouds);
+            setDirty();
+        }
+    }
+
+    /**
+     * 区块加载时恢复区块内暂停的毒气云
+     * @param chunkKey 区块坐标
+     */
+    public void resumeChunk(long chunkKey) {
+        Map<UUID, GasManager.GasCloud> clouds = suspendedChunks.remove(chunkKey);
+        if (clouds != null) {
+            Map<UUID, GasManager.GasCloud> active = activeChunks.get(chunkKey);
+            if (active != null) {
+                active.putAll(clouds);
+            } else {
+                activeChunks.put(chunkKey, clouds);
+            }
+            setDirty();
+        }
+    }
+
+    public boolean hasSuspended() {
+        return !suspendedChunks.isEmpty();
+    }
+
+    /**
+     * 获取所有毒气云（包括暂停的）
+     */
+    public List<GasManager.GasCloud> getAllClouds() {
+        List<GasManager.GasCloud> clouds = new ArrayList<>();
+        for (Map<UUID, GasManager.GasCloud> chunk : activeChunks.values()) {
+            clouds.addAll(chunk.values());
+        }
+        for (Map<UUID, GasManager.GasCloud> chunk : suspendedChunks.values()) {
+            clouds.addAll(chunk.values());
+        }
+        return clouds;
+    }
+
+    /**
+     * 获取毒气云数量
+     * @param includeSuspended 是否包括暂停的毒气云
+     */
+    public int getCloudCount(boolean includeSuspended) {
+        int count = 0;
+        for (Map<UUID, GasManager.GasCloud> chunk : activeChunks.values()) {
+            count += chunk.size();
+        }
+        if (includeSuspended) {
+            for (Map<UUID, GasManager.GasCloud> chunk : suspendedChunks.values()) {
+                count += chunk.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 移除所有毒气云
+     */
+    public void clear() {
+        if (!activeChunks.isEmpty() || !suspendedChunks.isEmpty()) {
+            activeChunks.clear();
+            suspendedChunks.clear();
+            setDirty();
+        }
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        ListTag clouds = new ListTag();
+        for (GasManager.GasCloud cloud : getAllClouds()) {
+            clouds.add(cloud.save());
+        }
+        tag.put("clouds", clouds);
+        return tag;
+    }
+
+    /**
+     * 从存档读取，所有毒气云先处于暂停状态
+     */
+    public static GasCloudData load(CompoundTag tag) {
+        GasCloudData data = new GasCloudData();
+        ListTag clouds = tag.getList("clouds", Tag.TAG_COMPOUND);
+        for (int i = 0; i < clouds.size(); i++) {
+            GasManager.GasCloud cloud = GasManager.GasCloud.load(clouds.getCompound(i));
+            if (!cloud.isExpired()) {
+                data.suspendedChunks.computeIfAbsent(cloud.getChunkKey(), key -> new LinkedHashMap<>()).put(cloud.getCloudId(), cloud);
+            }
+        }
+        return data;
+    }
+}
@@ -1,201 +1,437 @@
 package com.xlxyvergil.hamstercore.element.effect;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
+import com.xlxyvergil.hamstercore.config.CombatConfig;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectRegistry;
+import com.xlxyvergil.hamstercore.element.effect.effects.GasCloudEffect;
+import com.xlxyvergil.hamstercore.element.effect.effects.GasEffect;
 
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.damagesource.DamageSource;
-import net.minecraft.world.effect.MobEffectInstance;
+import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
-import net.minecraft.world.entity.player.Player;
-import net.minecraft.world.level.Level;
-import net.minecraft.world.phys.AABB;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.ChunkEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
 
 
 /**
  * 毒气效果管理器
  * 管理毒气云AoE效果，支持叠加和范围伤害
+ * 毒气云保存在所属维度的GasCloudData中，按中心所在区块存放，随存档保存，
+ * 在所属维度的LevelTickEvent中每个游戏刻只更新一次，范围查询按毒气DoT的伤害间隔进行，而不是每tick都查询
+ * 区块卸载时区块内的毒气云暂停，重新加载时恢复
+ * 每个区块的毒气云数量有上限，达到上限后新的触发只刷新区块内最近的毒气云，不再生成新的毒气云
+ * 开启合并模式时，位于已有毒气云范围内的新触发会叠加到该毒气云上
  */
+@Mod.EventBusSubscriber(modid = "hamstercore")
 public class GasManager {
     
-    // 存储所有的毒气云实例 - 使用线程安全的集合避免并发修改异常
-    private static final Map<UUID, GasCloud> gasClouds = new ConcurrentHashMap<>();
+    // 毒气云持续时间：6秒 = 120 ticks
+    private static final int CLOUD_DURATION = 120;
     
     /**
      * 毒气云类
      * 表示一个毒气云实例
      */
-    public static class GasCloud {
+    public static class GasCloud implements StatusSpatialIndex.AreaSource {
         private final UUID cloudId;
-        private final LivingEntity sourceEntity; // 原始目标实体（可能已死亡）
+        private final UUID sourceId; // 原始目标实体的UUID（实体可能已死亡或不在已加载的区块中），需要时再查找实体
         private final double centerX, centerY, centerZ;
-        private final int amplifier;
-        private final DamageSource damageSource;
-        private final float baseDamage; // 基础伤害值
+        private final long chunkKey; // 中心所在区块
+        private int amplifier;
+        private float baseDamage; // 基础伤害值
         private final double baseRadius; // 基础半径（3米）
-        private final double additionalRadius; // 额外半径（每层0.3米，最大3米）
-        private final double totalRadius; // 总半径
+        private double additionalRadius; // 额外半径（每层0.3米，最大3米）
+        private double totalRadius; // 总半径
         private int ticksRemaining; // 剩余时间（6秒 = 120 ticks）
         private int tickCounter; // 计数器
         
-        public GasCloud(LivingEntity target, int amplifier, DamageSource damageSource, float baseDamage) {
-            this.cloudId = UUID.randomUUID();
-            this.sourceEntity = target;
-            this.centerX = target.getX();
-            this.centerY = target.getY();
-            this.centerZ = target.getZ();
+        public GasCloud(LivingEntity target, int amplifier, float baseDamage) {
+            this(UUID.randomUUID(), target.getUUID(), target.getX(), target.getY(), target.getZ(), amplifier, baseDamage, CLOUD_DURATION, 0);
+        }
+        
+        private GasCloud(UUID cloudId, UUID sourceId, double centerX, double centerY, double centerZ, int amplifier, float baseDamage, int ticksRemaining, int tickCounter) {
+            this.cloudId = cloudId;
+            this.sourceId = sourceId;
+            this.centerX = centerX;
+            this.centerY = centerY;
+            this.centerZ = centerZ;
+            this.chunkKey = ChunkPos.asLong(SectionPos.blockToSectionCoord(centerX), SectionPos.blockToSectionCoord(centerZ));
             this.amplifier = amplifier;
-            this.damageSource = damageSource;
             this.baseDamage = baseDamage;
             this.baseRadius = 3.0; // 基础3米
             // 计算额外半径：每层0.3米，最大3米
             this.additionalRadius = Math.min(amplifier * 0.3, 3.0);
             this.totalRadius = baseRadius + additionalRadius; // 最大6米
-            this.ticksRemaining = 120; // 6秒
-            this.tickCounter = 0;
+            this.ticksRemaining = ticksRemaining; // 新毒气云为6秒
+            this.tickCounter = tickCounter;
+        }
+        
+        /**
+         * 写入存档
+         */
+        CompoundTag save() {
+            CompoundTag tag = new CompoundTag();
+            tag.putUUID("id", cloudId);
+            if (sourceId != null) {
+                tag.putUUID("source", sourceId);
+            }
+            tag.putDouble("x", centerX);
+            tag.putDouble("y", centerY);
+            tag.putDouble("z", centerZ);
+            tag.putInt("amplifier", amplifier);
+            tag.putFloat("baseDamage", baseDamage);
+            tag.putInt("ticksRemaining", ticksRemaining);
+            tag.putInt("tickCounter", tickCounter);
+            return tag;
+        }
+        
+        /**
+         * 从存档读取
+         */
+        static GasCloud load(CompoundTag tag) {
+            return new GasCloud(
+                tag.hasUUID("id") ? tag.getUUID("id") : UUID.randomUUID(),
+                tag.hasUUID("source") ? tag.getUUID("source") : null,
+                tag.getDouble("x"), tag.getDouble("y"), tag.getDouble("z"),
+                tag.getInt("amplifier"), tag.getFloat("baseDamage"),
+                tag.getInt("ticksRemaining"), tag.getInt("tickCounter"));
+        }
+        
+        /**
+         * 将新的毒气触发合并到这个毒气云：等级叠加一层（不超过最大等级），伤害取较大值，持续时间刷新
+         * 效果赋予的节奏保持不变，避免高频触发时每tick都进行范围查询
+         * @param newAmplifier 新触发的效果等级
+         * @param newBaseDamage 新触发的基础伤害值
+         */
+        private void merge(int newAmplifier, float newBaseDamage) {
+            this.amplifier = Math.min(Math.max(this.amplifier, newAmplifier) + 1, GasCloudEffect.MAX_LEVEL - 1);
+            this.baseDamage = Math.max(this.baseDamage, newBaseDamage);
+            this.additionalRadius = Math.min(amplifier * 0.3, 3.0);
+            this.totalRadius = baseRadius + additionalRadius;
+            this.ticksRemaining = CLOUD_DURATION;
+        }
+        
+        /**
+         * 区块的毒气云数量达到上限且未开启合并时，用新的毒气触发刷新这个毒气云：
+         * 持续时间刷新，伤害取较大值，等级和半径不变
+         * @param newBaseDamage 新触发的基础伤害值
+         */
+        private void refresh(float newBaseDamage) {
+            this.baseDamage = Math.max(this.baseDamage, newBaseDamage);
+            this.ticksRemaining = CLOUD_DURATION;
+        }
+        
+        public int getAmplifier() {
+            return amplifier;
         }
         
         public UUID getCloudId() {
             return cloudId;
         }
         
+        public UUID getSourceId() {
+            return sourceId;
+        }
+        
+        /**
+         * 查找原始目标实体
+         * @param level 所在维度
+         * @return 原始目标实体，已死亡或不在已加载的区块中时返回null
+         */
+        public LivingEntity getSourceEntity(ServerLevel level) {
+            if (sourceId == null) {
+                return null;
+            }
+            Entity entity = level.getEntity(sourceId);
+            return entity instanceof LivingEntity livingEntity ? livingEntity : null;
+        }
+        
+        public long getChunkKey() {
+            return chunkKey;
+        }
+        
         public int getTicksRemaining() {
             return ticksRemaining;
         }
         
+        /**
+         * 本tick是否需要赋予毒气效果
+         * 生成时立即赋予一次，之后每个毒气DoT伤害间隔赋予一次，持续6秒
+         * 毒气效果持续120 ticks，按伤害间隔刷新不会让范围内的实体中途失去效果
+         */
+        public boolean isApplyTick() {
+            return tickCounter % GasEffect.DAMAGE_INTERVAL == 0;
+        }
+        
         public void tick() {
             ticksRemaining--;
             tickCounter++;
-            
-            // 每tick都赋予毒气效果，持续6秒
-            applyGasEffect();
         }
         
         public boolean isExpired() {
             return ticksRemaining <= 0;
         }
         
+        private double distanceToSqr(double x, double y, double z) {
+            double dx = x - centerX;
+            double dy = y - centerY;
+            double dz = z - centerZ;
+            return dx * dx + dy * dy + dz * dz;
+        }
+        
+        @Override
+        public double getX() {
+            return centerX;
+        }
+        
+        @Override
+        public double getY() {
+            return centerY;
+        }
+        
+        @Override
+        public double getZ() {
+            return centerZ;
+        }
+        
+        @Override
+        public double getRadius() {
+            return totalRadius;
+        }
+        
         /**
-         * 为范围内的所有实体赋予毒气状态效果
+         * 为范围内的实体赋予毒气状态效果（范围判断由空间索引完成，索引中不包含玩家）
+         * @param livingEntity 范围内的实体
          */
-        private void applyGasEffect() {
-            Level level = sourceEntity.level();
-            if (level == null || !(level instanceof ServerLevel)) return;
-            
-            ServerLevel serverLevel = (ServerLevel) level;
-            
-            // 计算作用范围
-            AABB boundingBox = new AABB(
-                centerX - totalRadius,
-                centerY - totalRadius,
-                centerZ - totalRadius,
-                centerX + totalRadius,
-                centerY + totalRadius,
-                centerZ + totalRadius
-            );
-            
-            // 找到范围内的所有实体，创建副本避免并发修改异常
-            List<LivingEntity> entities = new ArrayList<>(serverLevel.getEntitiesOfClass(LivingEntity.class, boundingBox));
-            
-            // 为范围内的所有实体赋予毒气状态效果（排除玩家）
-            for (LivingEntity livingEntity : entities) {
-                // 排除玩家实体
-                if (livingEntity instanceof Player) {
-                    continue;
-                }
-                
-                double distance = Math.sqrt(
-                    Math.pow(livingEntity.getX() - centerX, 2) +
-                    Math.pow(livingEntity.getY() - centerY, 2) +
-                    Math.pow(livingEntity.getZ() - centerZ, 2)
-                );
-                
-                // 检查是否在范围内
-                if (distance <= totalRadius) {
-                    // 计算毒气DoT伤害：基础伤害 * 10% * (1 + 等级/10)
-                    float gasDamage = baseDamage * 0.10F * (1.0F + amplifier * 0.1F);
+        private void applyGasEffect(LivingEntity livingEntity) {
+            // 计算毒气DoT伤害：基础伤害 * 10% * (1 + 等级/10)
+            float gasDamage = baseDamage * 0.10F * (1.0F + amplifier * 0.1F);
 
-                    // 给实体添加GasEffect状态效果，持续120 ticks（6秒）
-                    // 等级为amplifier
-                    MobEffectInstance effectInstance = new MobEffectInstance(
-                            (ElementEffect) ElementEffectRegistry.Effects.GAS.get(), 120, amplifier);
-                    livingEntity.addEffect(effectInstance);
-                    // 存储伤害数据
-                    ElementEffectDataHelper.setEffectDamage(livingEntity, (ElementEffect) ElementEffectRegistry.Effects.GAS.get(), gasDamage);
-                }
-            }
+            // 给实体添加GasEffect状态效果，持续120 ticks（6秒），等级为amplifier，同时存储伤害数据
+            // 重叠的毒气云在同一tick内对同一实体的施加会被合并，已有更强效果时不会重复调用addEffect
+            StatusEffectApplier.apply(livingEntity, (ElementEffect) ElementEffectRegistry.Effects.GAS.get(), CLOUD_DURATION, amplifier, gasDamage);
         }
-        
-
     }
     
     /**
      * 为实体创建毒气云
      * @param target 目标实体
      * @param amplifier 效果等级
-     * @param damageSource 伤害源
+     * @param damageSource 伤害源（毒气云不保存伤害源，只记录目标实体的UUID）
      * @param baseDamage 基础伤害值
      */
     public static void addGasCloud(LivingEntity target, int amplifier, DamageSource damageSource, float baseDamage) {
-        GasCloud cloud = new GasCloud(target, amplifier, damageSource, baseDamage);
-        gasClouds.put(cloud.getCloudId(), cloud);
+        if (!(target.level() instanceof ServerLevel serverLevel)) {
+            return;
+        }
+        GasCloudData data = GasCloudData.get(serverLevel);
         
+        CombatConfig config = CombatConfig.getInstance();
+        if (config.isMergeGasClouds()) {
+            // 新触发位于已有毒气云范围内时，合并到该毒气云而不是生成新的
+            GasCloud existing = findCloudContaining(data, target.getX(), target.getY(), target.getZ());
+            if (existing != null) {
+                existing.merge(amplifier, baseDamage);
+                data.setDirty();
+                return;
+            }
+        }
+        
+        // 所在区块的毒气云已达上限时不再生成新的毒气云，无论是否开启合并，保证毒气云数量有上限
+        GasCloud nearest = findCloudForFullChunk(data, target.getX(), target.getY(), target.getZ(), config.getMaxGasCloudsPerChunk());
+        if (nearest != null) {
+            if (config.isMergeGasClouds()) {
+                nearest.merge(amplifier, baseDamage);
+            } else {
+                // 未开启合并时只刷新最近的毒气云，不叠加等级，保持原有平衡
+                nearest.refresh(baseDamage);
+            }
+            data.setDirty();
+            return;
+        }
+        
+        data.add(new GasCloud(target, amplifier, baseDamage));
+    }
+    
+    /**
+     * 查找范围包含指定位置的毒气云，有多个时返回中心最近的
+     * 毒气云最大半径6米，小于区块边长，只需要检查所在区块和相邻区块
+     */
+    private static GasCloud findCloudContaining(GasCloudData data, double x, double y, double z) {
+        int chunkX = SectionPos.blockToSectionCoord(x);
+        int chunkZ = SectionPos.blockToSectionCoord(z);
+        GasCloud nearest = null;
+        double nearestDistanceSqr = Double.MAX_VALUE;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                Map<UUID, GasCloud> clouds = data.getActive(ChunkPos.asLong(chunkX + dx, chunkZ + dz));
+                if (clouds == null) {
+                    continue;
+                }
+                for (GasCloud cloud : clouds.values()) {
+                    double distanceSqr = cloud.distanceToSqr(x, y, z);
+                    if (distanceSqr <= cloud.totalRadius * cloud.totalRadius && distanceSqr < nearestDistanceSqr) {
+                        nearest = cloud;
+                        nearestDistanceSqr = distanceSqr;
+                    }
+                }
+            }
+        }
+        return nearest;
     }
     
     /**
-     * 更新所有毒气云
+     * 指定位置所在区块的毒气云数量达到上限时，返回区块内中心最近的毒气云，否则返回null
      */
-    public static void updateAllGasClouds() {
-        // 创建一个副本以避免并发修改异常
-        List<UUID> expiredClouds = new ArrayList<>();
-        
-        // 遍历所有毒气云 - ConcurrentHashMap确保安全迭代
-        for (Map.Entry<UUID, GasCloud> entry : gasClouds.entrySet()) {
-            GasCloud cloud = entry.getValue();
-            cloud.tick();
-            
-            // 记录过期的毒气云
-            if (cloud.isExpired()) {
-                expiredClouds.add(entry.getKey());
+    private static GasCloud findCloudForFullChunk(GasCloudData data, double x, double y, double z, int maxCloudsPerChunk) {
+        if (maxCloudsPerChunk <= 0) {
+            return null; // 不限制数量
+        }
+        Map<UUID, GasCloud> clouds = data.getActive(ChunkPos.asLong(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z)));
+        if (clouds == null || clouds.size() < maxCloudsPerChunk) {
+            return null;
+        }
+        GasCloud nearest = null;
+        double nearestDistanceSqr = Double.MAX_VALUE;
+        for (GasCloud cloud : clouds.values()) {
+            double distanceSqr = cloud.distanceToSqr(x, y, z);
+            if (distanceSqr < nearestDistanceSqr) {
+                nearest = cloud;
+                nearestDistanceSqr = distanceSqr;
             }
         }
+        return nearest;
+    }
+    
+    /**
+     * 每个维度tick结束时更新该维度的所有毒气云，每个毒气云每个游戏刻只更新一次
+     */
+    @SubscribeEvent
+    public static void onLevelTick(TickEvent.LevelTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || !(event.level instanceof ServerLevel serverLevel)) {
+            return;
+        }
+        updateGasClouds(serverLevel);
+    }
+    
+    /**
+     * 区块加载时恢复区块内暂停的毒气云
+     */
+    @SubscribeEvent
+    public static void onChunkLoad(ChunkEvent.Load event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel && event.getChunk() instanceof LevelChunk chunk) {
+            GasCloudData data = GasCloudData.get(serverLevel);
+            if (data.hasSuspended()) {
+                data.resumeChunk(chunk.getPos().toLong());
+            }
+        }
+    }
+    
+    /**
+     * 区块卸载时暂停区块内的毒气云，不再更新和查询
+     */
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel && event.getChunk() instanceof LevelChunk chunk) {
+            GasCloudData data = GasCloudData.get(serverLevel);
+            if (data.hasActive()) {
+                data.suspendChunk(chunk.getPos().toLong());
+            }
+        }
+    }
+    
+    /**
+     * 更新维度内所有正在运行的毒气云
+     * @param serverLevel 所在维度
+     */
+    public static void updateGasClouds(ServerLevel serverLevel) {
+        GasCloudData data = GasCloudData.get(serverLevel);
+        if (!data.hasActive()) {
+            return;
+        }
+        
+        // 收集本tick需要赋予效果的毒气云，重叠的毒气云通过空间索引在一次遍历中结算
+        List<GasCloud> applyingClouds = new ArrayList<>();
+        for (Map<UUID, GasCloud> clouds : data.getActiveChunks()) {
+            for (GasCloud cloud : clouds.values()) {
+                // 没有玩家能观察到的毒气云不进行范围扫描，持续时间照常流逝
+                if (cloud.isApplyTick() && StatusLod.isObserved(serverLevel, cloud.centerX, cloud.centerY, cloud.centerZ)) {
+                    applyingClouds.add(cloud);
+                }
+            }
+        }
+        // 重新施加效果是非关键工作，本tick时间预算用完时推迟到后续tick，推迟期间已经消散的毒气云不再施加
+        if (!applyingClouds.isEmpty()) {
+            StatusBudget.run(serverLevel, StatusBudget.Subsystem.GAS_CLOUD, () -> {
+                applyingClouds.removeIf(GasCloud::isExpired);
+                StatusSpatialIndex.get(serverLevel).sweep(applyingClouds, GasCloud::applyGasEffect);
+            });
+        }
         
-        // 移除所有过期的毒气云 - ConcurrentHashMap确保安全删除
-        for (UUID cloudId : expiredClouds) {
-            gasClouds.remove(cloudId);
+        // 遍历所有正在运行的毒气云，移除过期的毒气云和空区块
+        Iterator<Map<UUID, GasCloud>> chunkIterator = data.getActiveChunks().iterator();
+        while (chunkIterator.hasNext()) {
+            Map<UUID, GasCloud> clouds = chunkIterator.next();
+            Iterator<GasCloud> iterator = clouds.values().iterator();
+            while (iterator.hasNext()) {
+                GasCloud cloud = iterator.next();
+                cloud.tick();
+                
+                // 移除过期的毒气云
+                if (cloud.isExpired()) {
+                    iterator.remove();
+                }
+            }
+            if (clouds.isEmpty()) {
+                chunkIterator.remove();
+            }
         }
+        // 剩余时间每tick变化，标记需要保存
+        data.setDirty();
     }
     
     /**
-     * 清理所有毒气云
+     * 清理维度内的所有毒气云（包括暂停的）
+     * @param serverLevel 所在维度
      */
-    public static void clearAllGasClouds() {
-        gasClouds.clear();
+    public static void clearAllGasClouds(ServerLevel serverLevel) {
+        GasCloudData.get(serverLevel).clear();
     }
     
     /**
-     * 获取活跃的毒气云数量
+     * 获取维度内活跃的毒气云数量（不包括暂停的）
+     * @param serverLevel 所在维度
      */
-    public static int getActiveGasCloudCount() {
-        return gasClouds.size();
+    public static int getActiveGasCloudCount(ServerLevel serverLevel) {
+        return GasCloudData.get(serverLevel).getCloudCount(false);
     }
     
     /**
-     * 获取指定实体相关的毒气云
+     * 获取指定实体相关的毒气云（包括暂停的）
      */
     public static List<GasCloud> getGasCloudsForEntity(LivingEntity entity) {
         List<GasCloud> clouds = new ArrayList<>();
-        // ConcurrentHashMap确保安全迭代
-        for (GasCloud cloud : gasClouds.values()) {
-            if (cloud.sourceEntity.equals(entity)) {
+        if (!(entity.level() instanceof ServerLevel serverLevel)) {
+            return clouds;
+        }
+        UUID entityId = entity.getUUID();
+        for (GasCloud cloud : GasCloudData.get(serverLevel).getAllClouds()) {
+            if (entityId.equals(cloud.getSourceId())) {
                 clouds.add(cloud);
             }
         }
         return clouds;
     }
-}
\ No newline at end of file
+}
@@ -1,62 +1,66 @@
 package com.xlxyvergil.hamstercore.element.effect;
 
-import com.xlxyvergil.hamstercore.attribute.EntityAttributeRegistry;
-import com.xlxyvergil.hamstercore.content.capability.EntityCapabilityAttacher;
-import com.xlxyvergil.hamstercore.content.capability.entity.EntityArmorCapabilityProvider;
-import com.xlxyvergil.hamstercore.content.capability.entity.EntityShieldCapabilityProvider;
-import com.xlxyvergil.hamstercore.util.AttributeHelper;
+import com.xlxyvergil.hamstercore.content.capability.entity.CombatStatusCapability;
 import net.minecraft.world.entity.LivingEntity;
-import net.minecraft.world.entity.ai.attributes.AttributeModifier;
 
-import java.util.*;
+import java.util.UUID;
 
 /**
  * 火焰效果管理器
  * 管理火焰效果的护甲削减部分，使用覆盖机制
+ * 实体身上的火焰效果保存在实体的CombatStatusCapability中
+ * 护甲削减与腐蚀效果合并为一个修饰符，由StatusArmorShred在tick结束时统一更新
  */
 public class HeatManager {
-    
-    // 存储实体身上的火焰效果及其护甲修饰符UUID
-    private static final Map<LivingEntity, HeatEffectData> entityHeats = Collections.synchronizedMap(new HashMap<>());
-    
+
     /**
      * 火焰效果数据类
      */
     public static class HeatEffectData {
-        private final UUID modifierUUID;
         private int ticksRemaining;
-        
-        public HeatEffectData(UUID modifierUUID, int duration) {
-            this.modifierUUID = modifierUUID;
+
+        public HeatEffectData(int duration) {
             this.ticksRemaining = duration;
         }
-        
+
         public void decrementTicks() {
-            this.ticksRemaining--;
+            decrementTicks(1);
         }
-        
+
+        public void decrementTicks(int ticks) {
+            this.ticksRemaining -= ticks;
+        }
+
         public boolean isExpired() {
             return ticksRemaining <= 0;
         }
-        
+
         public UUID getModifierUUID() {
-            return modifierUUID;
+            return StatusArmorShred.MODIFIER_UUID;
         }
-        
+
         public int getTicksRemaining() {
             return ticksRemaining;
         }
     }
-    
+
     /**
-     * 为实体添加火焰护甲削减效果
+     * 为实体添加火焰护甲削减效果（减少50%护甲）
      * @param entity 实体
      * @param duration 持续时间（tick）
-     * @return 护甲修饰符UUID
+     * @return 护甲修饰符UUID，实体没有战斗状态时返回null
      */
     public static UUID addHeatArmorReduction(LivingEntity entity, int duration) {
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status == null) {
+            return null;
+        }
+
+        // 降频更新的实体先补齐之前积累的tick，再修改状态
+        ElementEffectEventManager.catchUp(entity, status);
+
         // 检查是否已有火焰效果，如果有则更新其持续时间而不是创建新的
-        HeatEffectData existingData = entityHeats.get(entity);
+        HeatEffectData existingData = status.getHeat();
         if (existingData != null) {
             // 更新现有效果的持续时间，确保不缩短已有的持续时间
             if (duration > existingData.ticksRemaining) {
@@ -64,65 +68,45 @@ public class HeatManager {
             }
             return existingData.getModifierUUID();
         }
-        
-        // 生成新的UUID
-        UUID modifierUUID = UUID.randomUUID();
-        
-        // 创建护甲减少修饰符：减少50%护甲
-        AttributeModifier armorModifier = new AttributeModifier(
-            modifierUUID,
-            "Heat Armor Reduction",
-            -0.5, // 50%减少
-            AttributeModifier.Operation.MULTIPLY_TOTAL
-        );
-        
-        // 添加修饰符到实体的护甲属性上
-        if (entity.getAttribute(EntityAttributeRegistry.ARMOR.get()) != null) {
-            entity.getAttribute(EntityAttributeRegistry.ARMOR.get()).addPermanentModifier(armorModifier);
-        }
-        
-        // 存储效果数据
-        entityHeats.put(entity, new HeatEffectData(modifierUUID, duration));
-        
-        // 安全地刷新Capability数据，保持当前护盾值和血量不变
-        refreshCapabilityData(entity);
-        
-        return modifierUUID;
+
+        // 存储效果数据，在本tick结束时更新护甲削减修饰符
+        HeatEffectData data = new HeatEffectData(duration);
+        status.setHeat(data);
+        StatusArmorShred.markDirty(entity);
+
+        return data.getModifierUUID();
     }
-    
+
     /**
      * 更新实体身上的火焰效果
      * @param entity 实体
+     * @param status 实体的战斗状态
+     * @param elapsedTicks 距上次更新经过的tick数（降频更新时大于1）
      */
-    public static void updateHeatEffects(LivingEntity entity) {
-        HeatEffectData data = entityHeats.get(entity);
+    public static void updateHeatEffects(LivingEntity entity, CombatStatusCapability status, int elapsedTicks) {
+        HeatEffectData data = status.getHeat();
         if (data != null) {
-            data.decrementTicks();
-            
+            data.decrementTicks(elapsedTicks);
+
             // 如果效果结束，清理它
             if (data.isExpired()) {
                 removeHeatArmorReduction(entity);
             }
         }
     }
-    
+
     /**
      * 移除实体身上的火焰护甲削减效果
      * @param entity 实体
      */
     public static void removeHeatArmorReduction(LivingEntity entity) {
-        HeatEffectData data = entityHeats.remove(entity);
-        if (data != null) {
-            // 移除属性修饰符
-            if (entity.getAttribute(EntityAttributeRegistry.ARMOR.get()) != null) {
-                entity.getAttribute(EntityAttributeRegistry.ARMOR.get()).removeModifier(data.getModifierUUID());
-            }
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status != null && status.getHeat() != null) {
+            status.setHeat(null);
+            StatusArmorShred.markDirty(entity);
         }
-        
-        // 安全地刷新Capability数据，保持当前护盾值和血量不变
-        refreshCapabilityData(entity);
     }
-    
+
     /**
      * 清理实体身上的所有火焰效果
      * @param entity 实体
@@ -130,55 +114,25 @@ public class HeatManager {
     public static void clearHeatEffects(LivingEntity entity) {
         removeHeatArmorReduction(entity);
     }
-    
+
     /**
      * 检查实体是否有火焰护甲削减效果
      * @param entity 实体
      * @return 是否有效果
      */
     public static boolean hasHeatEffect(LivingEntity entity) {
-        return entityHeats.containsKey(entity);
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        return status != null && status.getHeat() != null;
     }
-    
+
     /**
      * 获取火焰效果剩余时间
      * @param entity 实体
      * @return 剩余tick数，如果没有效果则返回0
      */
     public static int getHeatEffectTicksRemaining(LivingEntity entity) {
-        HeatEffectData data = entityHeats.get(entity);
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        HeatEffectData data = status != null ? status.getHeat() : null;
         return data != null ? data.getTicksRemaining() : 0;
     }
-    
-    /**
-     * 安全地更新实体的Capability数据，保持当前护盾值和血量不变
-     * @param entity 实体
-     */
-    public static void refreshCapabilityData(LivingEntity entity) {
-        // 仅更新Attribute相关的Capability，保持当前值不变
-        entity.getCapability(EntityArmorCapabilityProvider.CAPABILITY).ifPresent(armorCap -> {
-            armorCap.setArmor(AttributeHelper.getArmor(entity));
-        });
-        
-        // 先获取当前护盾值
-        float currentShieldValue = entity.getCapability(EntityShieldCapabilityProvider.CAPABILITY)
-            .map(shieldCap -> shieldCap.getCurrentShield())
-            .orElse(0.0f);
-        
-        // 然后更新护盾相关参数，同时保持当前护盾值
-        entity.getCapability(EntityShieldCapabilityProvider.CAPABILITY).ifPresent(shieldCap -> {
-            // 只更新不涉及当前护盾值的参数
-            shieldCap.setMaxShield((float) AttributeHelper.getShield(entity));
-            shieldCap.setRegenRate((float) AttributeHelper.getRegenRate(entity));
-            shieldCap.setRegenDelay((int) AttributeHelper.getRegenDelay(entity));
-            shieldCap.setRegenDelayDepleted((int) AttributeHelper.getDepletedRegenDelay(entity));
-            shieldCap.setImmunityTime((int) AttributeHelper.getImmunityTime(entity));
-            
-            // 恢复之前的当前护盾值，防止实体回血
-            shieldCap.setCurrentShield(currentShieldValue);
-        });
-        
-        // 同步更新到客户端
-        EntityCapabilityAttacher.syncEntityCapabilitiesToClients(entity);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+package com.xlxyvergil.hamstercore.element.effect;
+
+import com.xlxyvergil.hamstercore.attribute.EntityAttributeRegistry;
+import com.xlxyvergil.hamstercore.content.capability.entity.CombatStatusCapability;
+import com.xlxyvergil.hamstercore.content.capability.entity.EntityArmorCapabilityProvider;
+import com.xlxyvergil.hamstercore.network.EntityArmorSyncToClient;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.ai.attributes.AttributeInstance;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 状态护甲削减
+ * 火焰和腐蚀的护甲削减合并为实体护甲属性上的一个修饰符（固定UUID，MULTIPLY_TOTAL），
+ * 数值为 (1 - 腐蚀削减比例) * (1 - 火焰削减比例) - 1
+ *
+ * 状态变化时只标记实体，在服务端tick结束时每个实体最多更新一次修饰符，
+ * 修饰符数值没有变化时不触碰属性；只有实际护甲值变化时才更新护甲Capability并发送同步包
+ * 修饰符为临时修饰符，不写入存档（状态本身也不写入存档）
+ * 只应在服务端主线程上使用
+ */
+@Mod.EventBusSubscriber(modid = "hamstercore")
+public class StatusArmorShred {
+
+    // 状态护甲削减修饰符UUID
+    public static final UUID MODIFIER_UUID = UUID.fromString("5d7f3c2e-8a41-4b6e-9c1d-2f0e7a9b4c63");
+
+    private static final String MODIFIER_NAME = "Status Armor Shred";
+
+    // 火焰护甲削减比例：50%
+    private static final double HEAT_REDUCTION = 0.5;
+
+    // 旧版本按效果实例添加的永久修饰符名称，实体加入世界时清理
+    private static final String LEGACY_HEAT_MODIFIER_NAME = "Heat Armor Reduction";
+    private static final String LEGACY_CORROSIVE_MODIFIER_NAME = "Corrosive Armor Reduction";
+
+    // 本tick需要更新护甲削减的实体
+    private static final Set<LivingEntity> DIRTY = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * 标记实体的护甲削减状态已变化，在本tick结束时更新修饰符
+     * @param entity 实体
+     */
+    public static void markDirty(LivingEntity entity) {
+        if (!entity.level().isClientSide()) {
+            DIRTY.add(entity);
+        }
+    }
+
+    /**
+     * 计算战斗状态对应的修饰符数值
+     * @param status 实体的战斗状态
+     * @return MULTIPLY_TOTAL修饰符数值，没有削减时为0
+     */
+    public static double calculateAmount(CombatStatusCapability status) {
+        double multiplier = 1.0;
+        CorrosiveManager.CorrosiveEntry corrosive = status.getCorrosive();
+        if (corrosive != null) {
+            multiplier *= 1.0 - corrosive.getReductionPercentage();
+        }
+        if (status.getHeat() != null) {
+            multiplier *= 1.0 - HEAT_REDUCTION;
+        }
+        return multiplier - 1.0;
+    }
+
+    /**
+     * 服务端tick结束时更新所有被标记实体的护甲削减
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || DIRTY.isEmpty()) {
+            return;
+        }
+
+        List<LivingEntity> entities = new ArrayList<>(DIRTY);
+        DIRTY.clear();
+
+        for (LivingEntity entity : entities) {
+            if (entity.isRemoved()) {
+                continue;
+            }
+            update(entity);
+        }
+    }
+
+    /**
+     * 服务器关闭时丢弃未处理的标记
+     */
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        DIRTY.clear();
+    }
+
+    /**
+     * 实体加入世界时移除旧版本留在存档中的火焰/腐蚀永久修饰符
+     */
+    @SubscribeEvent
+    public static void onEntityJoinLevel(EntityJoinLevelEvent event) {
+        if (event.getLevel().isClientSide() || !(event.getEntity() instanceof LivingEntity entity)) {
+            return;
+        }
+        AttributeInstance armor = entity.getAttribute(EntityAttributeRegistry.ARMOR.get());
+        if (armor == null || armor.getModifiers().isEmpty()) {
+            return;
+        }
+        List<UUID> legacyModifiers = null;
+        for (AttributeModifier modifier : armor.getModifiers()) {
+            String name = modifier.getName();
+            if (LEGACY_HEAT_MODIFIER_NAME.equals(name) || LEGACY_CORROSIVE_MODIFIER_NAME.equals(name)) {
+                if (legacyModifiers == null) {
+                    legacyModifiers = new ArrayList<>();
+                }
+                legacyModifiers.add(modifier.getId());
+            }
+        }
+        if (legacyModifiers != null) {
+            for (UUID id : legacyModifiers) {
+                armor.removeModifier(id);
+            }
+        }
+    }
+
+    /**
+     * 根据实体当前的战斗状态更新护甲削减修饰符
+     * @param entity 实体
+     */
+    public static void update(LivingEntity entity) {
+        CombatStatusCapability status = CombatStatusCapability.get(entity);
+        if (status == null) {
+            return;
+        }
+        double amount = calculateAmount(status);
+        if (amount == status.getArmorShredAmount()) {
+            return;
+        }
+
+        AttributeInstance armor = entity.getAttribute(EntityAttributeRegistry.ARMOR.get());
+        if (armor == null) {
+            return;
+        }
+        armor.removeModifier(MODIFIER_UUID);
+        if (amount != 0.0) {
+            armor.addTransientModifier(new AttributeModifier(MODIFIER_UUID, MODIFIER_NAME, amount, AttributeModifier.Operation.MULTIPLY_TOTAL));
+        }
+        status.setArmorShredAmount(amount);
+
+        // 只有实际护甲值变化时才更新护甲Capability并同步到客户端
+        double armorValue = armor.getValue();
+        entity.getCapability(EntityArmorCapabilityProvider.CAPABILITY).ifPresent(armorCap -> {
+            if (armorCap.getArmor() != armorValue) {
+                armorCap.setArmor(armorValue);
+                EntityArmorSyncToClient.sync(entity);
+            }
+        });
+    }
+}
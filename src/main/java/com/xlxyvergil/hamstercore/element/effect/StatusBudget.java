@@ -0,0 +1,204 @@
+package com.xlxyvergil.hamstercore.element.effect;
+
+import com.xlxyvergil.hamstercore.config.CombatConfig;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * 元素效果的每tick时间预算
+ * 一次大范围的触发（例如刷怪场中的一记横扫）可能让毒气云、电云、爆炸和DoT在同一tick内做大量工作，
+ * 这里按子系统统计每tick的耗时（纳秒），总耗时超过预算后，非关键工作（范围效果的重新施加、爆炸结算）
+ * 推迟到后续tick执行，宁可让触发略微延迟，也不让单个tick的耗时失控
+ *
+ * - 关键工作（DoT伤害和到期）通过measure执行，总是立即执行，只计入耗时
+ * - 非关键工作通过run执行，预算用完时进入延迟队列，在下一tick开始时按先后顺序执行，
+ *   每tick至少执行一个延迟任务，保证队列总能前进
+ * - 延迟队列有上限（statusDeferredLimit）。延迟任务是闭包，无法按维度和子系统合并，因此选择限长：
+ *   队列满时丢弃最早的可丢弃任务（毒气云、电云的重新施加，下一次扫描会再次施加）；
+ *   队列中没有可丢弃任务时，新任务直接执行，不丢弃爆炸结算
+ * 只应在服务端主线程上使用
+ */
+@Mod.EventBusSubscriber(modid = "hamstercore")
+public class StatusBudget {
+
+    /**
+     * 计入预算的子系统
+     */
+    public enum Subsystem {
+        DOT(false),
+        GAS_CLOUD(true),
+        ELECTRIC_CLOUD(true),
+        BLAST(false);
+
+        // 延迟队列满时是否可以丢弃
+        private final boolean droppable;
+
+        Subsystem(boolean droppable) {
+            this.droppable = droppable;
+        }
+    }
+
+    // 本tick各子系统的耗时（纳秒）
+    private static final long[] spentNanos = new long[Subsystem.values().length];
+    // 本tick的总耗时（纳秒）
+    private static long totalSpentNanos;
+
+    // 延迟执行的非关键工作
+    private static final ArrayDeque<DeferredTask> deferred = new ArrayDeque<>();
+    // 因队列已满而丢弃的任务总数
+    private static long droppedCount;
+
+    /**
+     * 延迟执行的任务，记录所属维度以便维度卸载时丢弃
+     */
+    private static class DeferredTask {
+        private final ServerLevel level;
+        private final Subsystem subsystem;
+        private final Runnable task;
+
+        private DeferredTask(ServerLevel level, Subsystem subsystem, Runnable task) {
+            this.level = level;
+            this.subsystem = subsystem;
+            this.task = task;
+        }
+    }
+
+    /**
+     * 执行关键工作，总是立即执行并计入耗时
+     * @param subsystem 子系统
+     * @param task 工作
+     */
+    public static void measure(Subsystem subsystem, Runnable task) {
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            charge(subsystem, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 执行非关键工作，本tick预算已经用完时推迟到后续tick
+     * @param level 工作所属维度
+     * @param subsystem 子系统
+     * @param task 工作，推迟执行时需要自行检查相关实体和状态是否仍然有效
+     */
+    public static void run(ServerLevel level, Subsystem subsystem, Runnable task) {
+        // 已有排队的工作时新工作排在后面，保持先后顺序
+        if (!deferred.isEmpty() || !hasBudget()) {
+            if (deferred.size() < CombatConfig.getInstance().getStatusDeferredLimit() || dropOldest()) {
+                deferred.addLast(new DeferredTask(level, subsystem, task));
+                return;
+            }
+            // 队列已满且全部是不可丢弃的工作，新任务直接执行，避免队列无限增长
+        }
+        measure(subsystem, task);
+    }
+
+    /**
+     * 丢弃队列中最早的可丢弃任务
+     * @return 是否丢弃了任务
+     */
+    private static boolean dropOldest() {
+        Iterator<DeferredTask> iterator = deferred.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().subsystem.droppable) {
+                iterator.remove();
+                droppedCount++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 本tick是否还有剩余预算
+     */
+    public static boolean hasBudget() {
+        long budget = getBudgetNanos();
+        return budget <= 0 || totalSpentNanos < budget;
+    }
+
+    /**
+     * 获取子系统本tick的耗时
+     * @param subsystem 子系统
+     * @return 耗时（纳秒）
+     */
+    public static long getSpentNanos(Subsystem subsystem) {
+        return spentNanos[subsystem.ordinal()];
+    }
+
+    /**
+     * 获取延迟队列中等待执行的任务数量
+     */
+    public static int getDeferredCount() {
+        return deferred.size();
+    }
+
+    /**
+     * 获取因延迟队列已满而丢弃的任务总数
+     */
+    public static long getDroppedCount() {
+        return droppedCount;
+    }
+
+    private static long getBudgetNanos() {
+        return (long) (CombatConfig.getInstance().getStatusTickBudgetMs() * 1_000_000L);
+    }
+
+    private static void charge(Subsystem subsystem, long nanos) {
+        spentNanos[subsystem.ordinal()] += nanos;
+        totalSpentNanos += nanos;
+    }
+
+    /**
+     * 每tick开始时重置耗时统计，并在预算内执行之前推迟的工作
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.START) {
+            return;
+        }
+        Arrays.fill(spentNanos, 0L);
+        totalSpentNanos = 0L;
+
+        // 每tick至少执行一个延迟任务，之后在预算内继续执行
+        boolean first = true;
+        while (!deferred.isEmpty() && (first || hasBudget())) {
+            DeferredTask task = deferred.pollFirst();
+            measure(task.subsystem, task.task);
+            first = false;
+        }
+    }
+
+    /**
+     * 维度卸载时丢弃该维度的延迟工作
+     */
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            Iterator<DeferredTask> iterator = deferred.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().level == serverLevel) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 服务器关闭时丢弃所有延迟工作
+     */
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        deferred.clear();
+    }
+}
@@ -0,0 +1,183 @@
+package com.xlxyvergil.hamstercore.element.effect;
+
+import net.minecraft.world.effect.MobEffectInstance;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 状态效果施加器
+ * 范围效果（毒气云、电云）每次传播都会对范围内的每个实体调用addEffect，
+ * 即使实体已经有等级和持续时间都不低于本次施加的同一效果；每次addEffect都会触发MobEffectEvent、
+ * 刷新属性修饰符并发送ClientboundUpdateMobEffectPacket
+ *
+ * 这里先把施加请求按实体和效果合并，在服务端tick结束时统一处理：
+ * 只有会让实体身上的效果发生变化时才调用addEffect，否则只更新效果的伤害数据
+ *
+ * - apply：与直接调用addEffect相同。同一tick内的多次请求保留等级最高的一次（等级相同时取持续时间较长的），
+ *   结算时原样交给addEffect，由原版规则处理与已有效果的合并（较强较短的效果覆盖时，较弱较长的效果作为隐藏效果保留）。
+ *   同一tick内被较强请求覆盖的较弱请求不会成为隐藏效果
+ * - applyExtending：毒气云、电云原有的延长规则，等级和持续时间分别取已有效果和所有请求中的较大值，
+ *   较强的效果会被延长到较长的持续时间
+ * 只应在服务端主线程上使用
+ */
+@Mod.EventBusSubscriber(modid = "hamstercore")
+public class StatusEffectApplier {
+
+    // 实体 -> 本tick待施加的效果
+    private static final Map<LivingEntity, PendingEffects> PENDING = new IdentityHashMap<>();
+
+    /**
+     * 一个实体本tick待施加的效果，按ElementEffect序号索引
+     */
+    private static class PendingEffects {
+        private final ElementEffect[] effects;
+        private final int[] durations;
+        private final int[] amplifiers;
+        private final float[] damages;
+        private final boolean[] extending;
+
+        private PendingEffects() {
+            int count = ElementEffect.count();
+            this.effects = new ElementEffect[count];
+            this.durations = new int[count];
+            this.amplifiers = new int[count];
+            this.damages = new float[count];
+            this.extending = new boolean[count];
+            Arrays.fill(damages, Float.NaN);
+        }
+
+        private void add(ElementEffect effect, int duration, int amplifier, float damage, boolean extend) {
+            int index = effect.ordinal();
+            if (effects[index] == null) {
+                effects[index] = effect;
+                durations[index] = duration;
+                amplifiers[index] = amplifier;
+                extending[index] = extend;
+            } else if (extend || extending[index]) {
+                // 延长规则：等级和持续时间分别取较大值
+                durations[index] = Math.max(durations[index], duration);
+                amplifiers[index] = Math.max(amplifiers[index], amplifier);
+                extending[index] = true;
+            } else if (amplifier > amplifiers[index] || (amplifier == amplifiers[index] && duration > durations[index])) {
+                // 原版规则：保留等级最高的请求
+                durations[index] = duration;
+                amplifiers[index] = amplifier;
+            }
+            if (!Float.isNaN(damage)) {
+                damages[index] = damage;
+            }
+        }
+    }
+
+    /**
+     * 请求为实体施加效果，在本tick结束时合并处理，结算时与直接调用addEffect相同
+     * @param entity 实体
+     * @param effect 效果
+     * @param duration 持续时间（tick）
+     * @param amplifier 效果等级
+     * @param damage 效果伤害值，传入Float.NaN表示不更新伤害数据
+     */
+    public static void apply(LivingEntity entity, ElementEffect effect, int duration, int amplifier, float damage) {
+        queue(entity, effect, duration, amplifier, damage, false);
+    }
+
+    /**
+     * 请求为实体施加或延长效果，在本tick结束时合并处理
+     * 等级和持续时间分别取已有效果和本次施加的较大值，不会缩短已有效果（毒气云、电云使用）
+     * @param entity 实体
+     * @param effect 效果
+     * @param duration 持续时间（tick）
+     * @param amplifier 效果等级
+     * @param damage 效果伤害值，传入Float.NaN表示不更新伤害数据
+     */
+    public static void applyExtending(LivingEntity entity, ElementEffect effect, int duration, int amplifier, float damage) {
+        queue(entity, effect, duration, amplifier, damage, true);
+    }
+
+    private static void queue(LivingEntity entity, ElementEffect effect, int duration, int amplifier, float damage, boolean extend) {
+        if (entity.level().isClientSide()) {
+            return;
+        }
+        PendingEffects pending = PENDING.get(entity);
+        if (pending == null) {
+            pending = new PendingEffects();
+            PENDING.put(entity, pending);
+        }
+        pending.add(effect, duration, amplifier, damage, extend);
+    }
+
+    /**
+     * 判断施加效果是否会让实体身上的效果发生变化
+     * @param existing 实体身上已有的效果，可能为null
+     * @param duration 持续时间
+     * @param amplifier 效果等级
+     * @return 已有效果的等级和持续时间都不低于本次施加时返回false
+     */
+    public static boolean wouldChange(MobEffectInstance existing, int duration, int amplifier) {
+        if (existing == null) {
+            return true;
+        }
+        return amplifier > existing.getAmplifier() || duration > existing.getDuration();
+    }
+
+    /**
+     * 服务端tick结束时处理所有待施加的效果
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || PENDING.isEmpty()) {
+            return;
+        }
+
+        // 施加效果会触发其他模组的事件，先取出待处理列表，处理过程中新增的请求留到下一tick
+        List<Map.Entry<LivingEntity, PendingEffects>> entries = new ArrayList<>(PENDING.entrySet());
+        PENDING.clear();
+
+        for (Map.Entry<LivingEntity, PendingEffects> entry : entries) {
+            LivingEntity entity = entry.getKey();
+            if (entity.isRemoved() || !entity.isAlive()) {
+                continue;
+            }
+            PendingEffects pending = entry.getValue();
+            for (int i = 0; i < pending.effects.length; i++) {
+                ElementEffect effect = pending.effects[i];
+                if (effect == null) {
+                    continue;
+                }
+                flush(entity, effect, pending.durations[i], pending.amplifiers[i], pending.damages[i], pending.extending[i]);
+            }
+        }
+    }
+
+    /**
+     * 服务器关闭时丢弃未处理的请求
+     */
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        PENDING.clear();
+    }
+
+    private static void flush(LivingEntity entity, ElementEffect effect, int duration, int amplifier, float damage, boolean extend) {
+        MobEffectInstance existing = entity.getEffect(effect);
+        if (wouldChange(existing, duration, amplifier)) {
+            if (extend && existing != null) {
+                // 保持最高等级和最长持续时间
+                duration = Math.max(existing.getDuration(), duration);
+                amplifier = Math.max(existing.getAmplifier(), amplifier);
+            }
+            entity.addEffect(new MobEffectInstance(effect, duration, amplifier));
+        }
+        if (!Float.isNaN(damage)) {
+            ElementEffectDataHelper.setEffectDamage(entity, effect, damage);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.xlxyvergil.hamstercore.element.effect;
+
+import com.xlxyvergil.hamstercore.config.CombatConfig;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+
+import java.util.List;
+
+/**
+ * 元素效果LOD（细节层次）策略
+ * 农场和刷怪笼区块中的生物往往处于加载但没有玩家观察的状态，仍然逐tick运行完整的元素效果逻辑
+ *
+ * - 元素效果记录（爆炸、腐蚀、火焰护甲削减等）按实体与最近玩家的距离降频更新，
+ *   降频的实体在下一次更新时一次补齐积累的tick（见ElementEffectEventManager）
+ * - 毒气云、电云的传播和辐射的重新索敌在观察距离内没有玩家时完全跳过，持续时间照常流逝
+ * DoT伤害和到期由DoTManager的时间轮调度，不受LOD影响
+ */
+public class StatusLod {
+
+    /**
+     * 获取实体元素效果记录的更新间隔
+     * @param entity 实体
+     * @return 更新间隔（tick），1表示每tick更新
+     */
+    public static int getUpdateInterval(LivingEntity entity) {
+        CombatConfig config = CombatConfig.getInstance();
+        if (!config.isStatusLodEnabled() || entity.level().isClientSide() || entity instanceof Player) {
+            return 1;
+        }
+
+        double distanceSqr = nearestPlayerDistanceSqr(entity.level(), entity.getX(), entity.getY(), entity.getZ());
+        double nearDistance = config.getStatusLodNearDistance();
+        if (distanceSqr <= nearDistance * nearDistance) {
+            return 1;
+        }
+        double farDistance = config.getStatusLodFarDistance();
+        if (distanceSqr <= farDistance * farDistance) {
+            return config.getStatusLodNearInterval();
+        }
+        return config.getStatusLodFarInterval();
+    }
+
+    /**
+     * 检查指定位置是否在某个玩家的观察距离内
+     * @param level 所在维度
+     * @param x X坐标
+     * @param y Y坐标
+     * @param z Z坐标
+     * @return 观察距离内有玩家时返回true
+     */
+    public static boolean isObserved(Level level, double x, double y, double z) {
+        double observeDistance = CombatConfig.getInstance().getStatusObserveDistance();
+        return nearestPlayerDistanceSqr(level, x, y, z) <= observeDistance * observeDistance;
+    }
+
+    /**
+     * 检查实体是否在某个玩家的观察距离内
+     * @param entity 实体
+     * @return 观察距离内有玩家时返回true
+     */
+    public static boolean isObserved(LivingEntity entity) {
+        return isObserved(entity.level(), entity.getX(), entity.getY(), entity.getZ());
+    }
+
+    /**
+     * 计算指定位置到维度内最近玩家的距离平方
+     * 维度内的玩家数量很少，直接遍历玩家列表
+     * @return 距离平方，维度内没有玩家时返回Double.MAX_VALUE
+     */
+    private static double nearestPlayerDistanceSqr(Level level, double x, double y, double z) {
+        List<? extends Player> players = level.players();
+        double nearest = Double.MAX_VALUE;
+        for (int i = 0; i < players.size(); i++) {
+            double distanceSqr = players.get(i).distanceToSqr(x, y, z);
+            if (distanceSqr < nearest) {
+                nearest = distanceSqr;
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,359 @@
+package com.xlxyvergil.hamstercore.element.effect;
+
+import com.xlxyvergil.hamstercore.content.capability.entity.EntityFactionCapabilityProvider;
+import com.xlxyvergil.hamstercore.faction.Faction;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
+import net.minecraftforge.event.entity.living.LivingEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 元素状态空间索引
+ * 每个维度一个按水平坐标划分的均匀网格，记录可以受到元素状态影响的生物（所有非玩家生物），
+ * 毒气云、电云和爆炸等范围效果通过它查找目标，不再各自进行getEntitiesOfClass包围盒查询
+ * 生物加入维度时登记，每次生物tick时更新所在格子，离开维度时移除，索引随tick增量更新
+ * 查询使用距离平方判断，多个范围效果可以在一次遍历中同时结算
+ * 另外按派系分桶维护一份相同划分的网格，辐射效果寻找友军时只遍历附近格子中同派系的生物
+ * 只应在服务端主线程上使用
+ */
+@Mod.EventBusSubscriber(modid = "hamstercore")
+public class StatusSpatialIndex {
+
+    // 格子边长为8格（2^3），大于常见的范围效果半径，一次查询通常只涉及4到9个格子
+    private static final int CELL_SHIFT = 3;
+
+    // 生物在两次登记之间可能移动的距离，查询时额外覆盖的范围
+    private static final double POSITION_MARGIN = 2.0;
+
+    // 维度 -> 空间索引
+    private static final Map<ResourceKey<Level>, StatusSpatialIndex> INDEXES = new ConcurrentHashMap<>();
+
+    /**
+     * 范围效果来源，例如毒气云
+     */
+    public interface AreaSource {
+        double getX();
+
+        double getY();
+
+        double getZ();
+
+        double getRadius();
+    }
+
+    // 格子坐标 -> 格子内的生物
+    private final Map<Long, List<LivingEntity>> cells = new HashMap<>();
+    // 生物 -> 所在格子坐标
+    private final Map<LivingEntity, Long> entityCells = new IdentityHashMap<>();
+    // 派系桶（0为没有派系，其余为Faction序号+1） -> 格子坐标 -> 格子内该派系的生物
+    @SuppressWarnings("unchecked")
+    private final Map<Long, List<LivingEntity>>[] factionCells = new Map[Faction.values().length + 1];
+    // 生物 -> 所在派系桶，每次更新时按派系能力的当前值检查
+    private final Map<LivingEntity, Integer> entityFactionBuckets = new IdentityHashMap<>();
+
+    /**
+     * 获取维度的空间索引
+     * @param level 所在维度
+     * @return 空间索引
+     */
+    public static StatusSpatialIndex get(ServerLevel level) {
+        return INDEXES.computeIfAbsent(level.dimension(), key -> new StatusSpatialIndex());
+    }
+
+    /**
+     * 判断生物是否会被登记到索引中（元素状态的范围效果都不作用于玩家）
+     */
+    public static boolean isIndexed(LivingEntity entity) {
+        return !(entity instanceof Player);
+    }
+
+    @SubscribeEvent
+    public static void onEntityJoinLevel(EntityJoinLevelEvent event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel && event.getEntity() instanceof LivingEntity living && isIndexed(living)) {
+            get(serverLevel).update(living);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onEntityLeaveLevel(EntityLeaveLevelEvent event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel && event.getEntity() instanceof LivingEntity living) {
+            StatusSpatialIndex index = INDEXES.get(serverLevel.dimension());
+            if (index != null) {
+                index.remove(living);
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLivingTick(LivingEvent.LivingTickEvent event) {
+        LivingEntity entity = event.getEntity();
+        if (entity.level() instanceof ServerLevel serverLevel && isIndexed(entity)) {
+            get(serverLevel).update(entity);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel) {
+            INDEXES.remove(serverLevel.dimension());
+        }
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static int toCell(double coordinate) {
+        return Mth.floor(coordinate) >> CELL_SHIFT;
+    }
+
+    private static int factionBucket(Faction faction) {
+        return faction == null ? 0 : faction.ordinal() + 1;
+    }
+
+    /**
+     * 获取生物的派系
+     * @param entity 生物
+     * @return 派系，没有派系能力时返回null
+     */
+    public static Faction getFaction(LivingEntity entity) {
+        return entity.getCapability(EntityFactionCapabilityProvider.CAPABILITY)
+            .map(factionCap -> factionCap.getFaction())
+            .orElse(null);
+    }
+
+    private Map<Long, List<LivingEntity>> getFactionCells(int bucket) {
+        Map<Long, List<LivingEntity>> map = factionCells[bucket];
+        if (map == null) {
+            map = new HashMap<>();
+            factionCells[bucket] = map;
+        }
+        return map;
+    }
+
+    /**
+     * 根据生物当前位置和派系更新所在格子
+     * 派系可能在生物加入维度之后才被设置或改变（例如EntityConversionHandler复制派系），
+     * 因此每次更新都按派系能力的当前值检查派系桶，变化时移到新的派系桶
+     */
+    private void update(LivingEntity entity) {
+        long key = cellKey(toCell(entity.getX()), toCell(entity.getZ()));
+        Long oldKey = entityCells.put(entity, key);
+        int bucket = factionBucket(getFaction(entity));
+        Integer oldBucket = entityFactionBuckets.put(entity, bucket);
+        if (oldKey != null) {
+            if (oldKey == key && oldBucket != null && oldBucket == bucket) {
+                return;
+            }
+            if (oldKey != key) {
+                removeFromCell(cells, oldKey, entity);
+            }
+            if (oldBucket != null) {
+                removeFromCell(getFactionCells(oldBucket), oldKey, entity);
+            }
+        }
+        if (oldKey == null || oldKey != key) {
+            cells.computeIfAbsent(key, k -> new ArrayList<>()).add(entity);
+        }
+        getFactionCells(bucket).computeIfAbsent(key, k -> new ArrayList<>()).add(entity);
+    }
+
+    private void remove(LivingEntity entity) {
+        Long oldKey = entityCells.remove(entity);
+        Integer bucket = entityFactionBuckets.remove(entity);
+        if (oldKey != null) {
+            removeFromCell(cells, oldKey, entity);
+            if (bucket != null) {
+                removeFromCell(getFactionCells(bucket), oldKey, entity);
+            }
+        }
+    }
+
+    private static void removeFromCell(Map<Long, List<LivingEntity>> cells, long key, LivingEntity entity) {
+        List<LivingEntity> cell = cells.get(key);
+        if (cell == null) {
+            return;
+        }
+        // 交换删除，格子内顺序无关
+        int index = cell.indexOf(entity);
+        if (index >= 0) {
+            int last = cell.size() - 1;
+            cell.set(index, cell.get(last));
+            cell.remove(last);
+        }
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+    }
+
+    /**
+     * 寻找离指定生物最近的同派系生物（不包括它自己，索引中不包含玩家）
+     * 只遍历附近格子中与它同一派系桶的生物，不需要逐个查询派系
+     * @param entity 中心生物
+     * @param radius 搜索半径
+     * @return 半径内最近的同派系生物，如果没有则返回null
+     */
+    public LivingEntity findNearestSameFaction(LivingEntity entity, double radius) {
+        // 中心生物的派系按当前值查询，与RadiationEffect.areSameFaction一致
+        Map<Long, List<LivingEntity>> bucketCells = factionCells[factionBucket(getFaction(entity))];
+        if (bucketCells == null || bucketCells.isEmpty()) {
+            return null;
+        }
+
+        double x = entity.getX();
+        double y = entity.getY();
+        double z = entity.getZ();
+        double reach = radius + POSITION_MARGIN;
+        int minCellX = toCell(x - reach);
+        int maxCellX = toCell(x + reach);
+        int minCellZ = toCell(z - reach);
+        int maxCellZ = toCell(z + reach);
+
+        LivingEntity nearest = null;
+        double nearestDistance = radius * radius;
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                List<LivingEntity> cell = bucketCells.get(cellKey(cellX, cellZ));
+                if (cell == null) {
+                    continue;
+                }
+                // 只读取，不会修改格子，无需快照
+                for (int i = 0, size = cell.size(); i < size; i++) {
+                    LivingEntity candidate = cell.get(i);
+                    if (candidate == entity || candidate.isRemoved()) {
+                        continue;
+                    }
+                    double distance = candidate.distanceToSqr(entity);
+                    if (distance < nearestDistance) {
+                        nearestDistance = distance;
+                        nearest = candidate;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * 获取格子内生物的快照，范围效果处理过程中生物可能死亡或离开维度
+     */
+    private LivingEntity[] snapshot(long key) {
+        List<LivingEntity> cell = cells.get(key);
+        if (cell == null || cell.isEmpty()) {
+            return null;
+        }
+        return cell.toArray(new LivingEntity[0]);
+    }
+
+    /**
+     * 遍历以指定点为球心、指定半径内的所有已登记生物（按生物坐标与球心的距离平方判断）
+     * @param x 球心X
+     * @param y 球心Y
+     * @param z 球心Z
+     * @param radius 半径
+     * @param consumer 对每个范围内生物执行的操作
+     */
+    public void forEachInRange(double x, double y, double z, double radius, Consumer<LivingEntity> consumer) {
+        double radiusSqr = radius * radius;
+        double reach = radius + POSITION_MARGIN;
+        int minCellX = toCell(x - reach);
+        int maxCellX = toCell(x + reach);
+        int minCellZ = toCell(z - reach);
+        int maxCellZ = toCell(z + reach);
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                LivingEntity[] entities = snapshot(cellKey(cellX, cellZ));
+                if (entities == null) {
+                    continue;
+                }
+                for (LivingEntity entity : entities) {
+                    if (entity.isRemoved()) {
+                        continue;
+                    }
+                    double dx = entity.getX() - x;
+                    double dy = entity.getY() - y;
+                    double dz = entity.getZ() - z;
+                    if (dx * dx + dy * dy + dz * dz <= radiusSqr) {
+                        consumer.accept(entity);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 一次遍历结算多个范围效果
+     * 先把每个范围效果登记到它覆盖的格子，再逐个格子遍历其中的生物，
+     * 每个生物只与覆盖它所在格子的范围效果做距离平方判断，重叠的范围效果不会重复查询同一片区域
+     * @param sources 范围效果来源
+     * @param action 对每对（范围效果，范围内生物）执行的操作
+     */
+    public <T extends AreaSource> void sweep(List<T> sources, BiConsumer<T, LivingEntity> action) {
+        if (sources.isEmpty()) {
+            return;
+        }
+
+        // 格子坐标 -> 覆盖该格子的范围效果
+        Map<Long, List<T>> coveringSources = new HashMap<>();
+        for (T source : sources) {
+            double reach = source.getRadius() + POSITION_MARGIN;
+            int minCellX = toCell(source.getX() - reach);
+            int maxCellX = toCell(source.getX() + reach);
+            int minCellZ = toCell(source.getZ() - reach);
+            int maxCellZ = toCell(source.getZ() + reach);
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    long key = cellKey(cellX, cellZ);
+                    if (cells.containsKey(key)) {
+                        coveringSources.computeIfAbsent(key, k -> new ArrayList<>()).add(source);
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<Long, List<T>> entry : coveringSources.entrySet()) {
+            LivingEntity[] entities = snapshot(entry.getKey());
+            if (entities == null) {
+                continue;
+            }
+            List<T> cellSources = entry.getValue();
+            for (LivingEntity entity : entities) {
+                if (entity.isRemoved()) {
+                    continue;
+                }
+                double ex = entity.getX();
+                double ey = entity.getY();
+                double ez = entity.getZ();
+                for (T source : cellSources) {
+                    double dx = ex - source.getX();
+                    double dy = ey - source.getY();
+                    double dz = ez - source.getZ();
+                    double radius = source.getRadius();
+                    if (dx * dx + dy * dy + dz * dz <= radius * radius) {
+                        action.accept(source, entity);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取索引中登记的生物数量
+     */
+    public int size() {
+        return entityCells.size();
+    }
+}
@@ -1,14 +1,16 @@
 package com.xlxyvergil.hamstercore.element.effect.effects;
 
 import com.xlxyvergil.hamstercore.element.effect.ElementEffect;
+import com.xlxyvergil.hamstercore.element.effect.StatusBudget;
+import com.xlxyvergil.hamstercore.element.effect.StatusEffectApplier;
+import com.xlxyvergil.hamstercore.element.effect.StatusLod;
+import com.xlxyvergil.hamstercore.element.effect.StatusSpatialIndex;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectRegistry.Effects;
 import com.xlxyvergil.hamstercore.handler.ElementTriggerHandler;
 import net.minecraft.world.effect.MobEffectCategory;
-import net.minecraft.world.effect.MobEffectInstance;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.phys.AABB;
 import net.minecraft.server.level.ServerLevel;
 import java.util.ArrayList;
 import java.util.List;
@@ -50,57 +52,46 @@ public class ElectricCloudEffect extends ElementEffect {
         
         ServerLevel serverLevel = (ServerLevel) entity.level();
         
-        // 计算影响范围
-        AABB boundingBox = new AABB(
-            entity.getX() - AOE_RANGE, entity.getY() - AOE_RANGE, entity.getZ() - AOE_RANGE,
-            entity.getX() + AOE_RANGE, entity.getY() + AOE_RANGE, entity.getZ() + AOE_RANGE);
-        
-        // 找到范围内的所有实体，创建副本避免并发修改异常
-        List<LivingEntity> entities = new ArrayList<>(serverLevel.getEntitiesOfClass(LivingEntity.class, boundingBox));
+        // 没有玩家能观察到的电云不进行传播
+        if (!StatusLod.isObserved(entity)) {
+            return;
+        }
         
         // 从当前云效果获取原始伤害值
         float baseDamage = this.getEffectDamage(entity);
         if (baseDamage <= 0.0F) {
             baseDamage = 1.0F;
         }
-        net.minecraft.world.damagesource.DamageSource damageSource = entity.damageSources().generic();
+        float damage = baseDamage;
+        
+        // 传播是非关键工作，本tick时间预算用完时推迟到后续tick
+        StatusBudget.run(serverLevel, StatusBudget.Subsystem.ELECTRIC_CLOUD, () -> spread(serverLevel, entity, amplifier, damage));
+    }
+    
+    /**
+     * 为电云范围内的实体赋予电击状态效果
+     * @param serverLevel 所在维度
+     * @param entity 电云中心实体
+     * @param amplifier 效果等级
+     * @param baseDamage 原始伤害值
+     */
+    private static void spread(ServerLevel serverLevel, LivingEntity entity, int amplifier, float baseDamage) {
+        // 推迟执行时中心实体可能已经死亡或离开维度
+        if (entity.isRemoved() || !entity.isAlive()) {
+            return;
+        }
+        
+        // 通过空间索引找到影响范围内的所有实体（按距离平方判断，索引中不包含玩家）
+        List<LivingEntity> entities = new ArrayList<>();
+        StatusSpatialIndex.get(serverLevel).forEachInRange(entity.getX(), entity.getY(), entity.getZ(), AOE_RANGE, entities::add);
+        
+        // 通过StatusEffectApplier施加效果：同一tick内对同一实体的多次施加会被合并，
+        // 等级和持续时间取较大值，已有等级和持续时间都不低于本次施加的实体不会重复调用addEffect
+        ElementEffect electricityEffect = (ElementEffect) Effects.ELECTRICITY.get();
         
         // 首先为中心实体（目标实体）添加电击状态效果
         if (!(entity instanceof Player)) { // 排除玩家
-            if (entity.hasEffect(Effects.ELECTRICITY.get())) {
-                // 如果目标实体已有电击效果，延长持续时间而不是添加新效果
-                MobEffectInstance existingEffect = entity.getEffect(Effects.ELECTRICITY.get());
-                int currentDuration = existingEffect.getDuration();
-                int newDuration = Math.max(currentDuration, CLOUD_DURATION); // 取较大值，确保不会缩短已有的效果
-                
-                // 重新应用效果，保持最高等级和最长持续时间
-                int newAmplifier = Math.max(existingEffect.getAmplifier(), amplifier);
-                // 使用标准MobEffectInstance，并存储额外数据
-                entity.addEffect(new MobEffectInstance(
-                    (ElementEffect) Effects.ELECTRICITY.get(),
-                    newDuration,
-                    newAmplifier
-                ));
-                // 存储伤害数据
-                com.xlxyvergil.hamstercore.element.effect.ElementEffectDataHelper.setEffectDamage(
-                    entity,
-                    (ElementEffect) Effects.ELECTRICITY.get(),
-                    baseDamage
-                );
-            } else {
-                // 如果目标实体没有电击效果，则添加新效果
-                entity.addEffect(new MobEffectInstance(
-                    (ElementEffect) Effects.ELECTRICITY.get(), // ElectricityEffect
-                    CLOUD_DURATION, // 持续时间
-                    amplifier // 保持原始等级
-                ));
-                // 存储伤害数据
-                com.xlxyvergil.hamstercore.element.effect.ElementEffectDataHelper.setEffectDamage(
-                    entity,
-                    (ElementEffect) Effects.ELECTRICITY.get(),
-                    baseDamage
-                );
-            }
+            StatusEffectApplier.applyExtending(entity, electricityEffect, CLOUD_DURATION, amplifier, baseDamage);
         }
         
         // 为范围内的其他实体赋予电击状态效果（排除玩家）
@@ -109,41 +100,7 @@ public class ElectricCloudEffect extends ElementEffect {
             if (livingEntity instanceof Player || livingEntity == entity) {
                 continue;
             }
-            
-            // 检查目标是否已经有相同效果，如果有则延长持续时间而不是叠加
-            if (livingEntity.hasEffect(Effects.ELECTRICITY.get())) {
-                // 如果已有电击效果，延长持续时间而不是添加新效果
-                MobEffectInstance existingEffect = livingEntity.getEffect(Effects.ELECTRICITY.get());
-                int currentDuration = existingEffect.getDuration();
-                int newDuration = Math.max(currentDuration, CLOUD_DURATION); // 取较大值，确保不会缩短已有的效果
-                
-                // 重新应用效果，保持最高等级和最长持续时间
-                int newAmplifier = Math.max(existingEffect.getAmplifier(), amplifier);
-                livingEntity.addEffect(new MobEffectInstance(
-                    (ElementEffect) Effects.ELECTRICITY.get(),
-                    newDuration,
-                    newAmplifier
-                ));
-                // 存储伤害数据
-                com.xlxyvergil.hamstercore.element.effect.ElementEffectDataHelper.setEffectDamage(
-                    livingEntity,
-                    (ElementEffect) Effects.ELECTRICITY.get(),
-                    baseDamage
-                );
-            } else {
-                // 如果没有相同效果，则添加新效果
-                livingEntity.addEffect(new MobEffectInstance(
-                    (ElementEffect) Effects.ELECTRICITY.get(), // ElectricityEffect
-                    CLOUD_DURATION, // 持续时间
-                    amplifier // 保持原始等级
-                ));
-                // 存储伤害数据
-                com.xlxyvergil.hamstercore.element.effect.ElementEffectDataHelper.setEffectDamage(
-                    livingEntity,
-                    (ElementEffect) Effects.ELECTRICITY.get(),
-                    baseDamage
-                );
-            }
+            StatusEffectApplier.applyExtending(livingEntity, electricityEffect, CLOUD_DURATION, amplifier, baseDamage);
         }
     }
 }
\ No newline at end of file
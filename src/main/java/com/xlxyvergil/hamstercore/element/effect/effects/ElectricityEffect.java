@@ -1,11 +1,11 @@
 package com.xlxyvergil.hamstercore.element.effect.effects;
 
+import com.xlxyvergil.hamstercore.element.ElementType;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffect;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectRegistry;
-import com.xlxyvergil.hamstercore.handler.ElementTriggerHandler;
+import com.xlxyvergil.hamstercore.handler.StatusDamage;
 import net.minecraft.core.particles.ParticleTypes;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.effect.MobEffectCategory;
 import net.minecraft.world.effect.MobEffects;
 import net.minecraft.world.entity.LivingEntity;
@@ -51,22 +51,13 @@ public class ElectricityEffect extends ElementEffect {
         if (baseDamage <= 0.0F) {
             baseDamage = 1.0F;
         }
-        DamageSource originalDamageSource = entity.damageSources().generic();
 
         // 计算DoT伤害：基础伤害 * 20% * (1 + 等级/10)
         float dotDamage = baseDamage * 0.20F * (1.0F + amplifier * 0.1F);
 
-        // 设置正在处理DoT伤害的标志，防止DoT伤害触发新的元素效果
-        // 同时ElementDamageManager会检查这个标志，跳过暴击计算，避免双重暴击
-        ElementTriggerHandler.setProcessingDotDamage(true);
-        try {
-            // 使用原始伤害源，但通过标志防止触发新元素效果
-            // ElementDamageManager会检查ProcessingDotDamage标志，跳过暴击计算
-            entity.hurt(originalDamageSource, dotDamage);
-        } finally {
-            // 确保在伤害处理完成后重置标志
-            ElementTriggerHandler.setProcessingDotDamage(false);
-        }
+        // 伤害已经计算好，通过状态伤害通道直接作用于护盾和生命值，不再经过完整的伤害管线
+        // 同一tick内该实体的所有跳伤在tick结束时合并为一次伤害
+        StatusDamage.queue(entity, ElementType.ELECTRICITY, dotDamage, null);
 
         // 应用眩晕效果（移动减速）和发光效果
         applyStun(entity);
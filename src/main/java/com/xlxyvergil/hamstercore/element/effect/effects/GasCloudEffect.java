@@ -2,15 +2,15 @@ package com.xlxyvergil.hamstercore.element.effect.effects;
 
 import com.xlxyvergil.hamstercore.element.effect.GasManager;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffect;
+import com.xlxyvergil.hamstercore.element.effect.StatusEffectApplier;
+import com.xlxyvergil.hamstercore.element.effect.StatusSpatialIndex;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectRegistry.Effects;
 import com.xlxyvergil.hamstercore.handler.ElementTriggerHandler;
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.effect.MobEffectCategory;
-import net.minecraft.world.effect.MobEffectInstance;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.phys.AABB;
 import net.minecraft.server.level.ServerLevel;
 import java.util.ArrayList;
 import java.util.List;
@@ -52,13 +52,9 @@ public class GasCloudEffect extends ElementEffect {
         
         ServerLevel serverLevel = (ServerLevel) entity.level();
         
-        // 计算影响范围
-        AABB boundingBox = new AABB(
-            entity.getX() - AOE_RANGE, entity.getY() - AOE_RANGE, entity.getZ() - AOE_RANGE,
-            entity.getX() + AOE_RANGE, entity.getY() + AOE_RANGE, entity.getZ() + AOE_RANGE);
-        
-        // 找到范围内的所有实体，创建副本避免并发修改异常
-        List<LivingEntity> entities = new ArrayList<>(serverLevel.getEntitiesOfClass(LivingEntity.class, boundingBox));
+        // 通过空间索引找到影响范围内的所有实体（按距离平方判断，索引中不包含玩家）
+        List<LivingEntity> entities = new ArrayList<>();
+        StatusSpatialIndex.get(serverLevel).forEachInRange(entity.getX(), entity.getY(), entity.getZ(), AOE_RANGE, entities::add);
         
         // 从当前云效果获取原始伤害值
         float baseDamage = this.getEffectDamage(entity);
@@ -67,41 +63,13 @@ public class GasCloudEffect extends ElementEffect {
         }
         DamageSource damageSource = entity.damageSources().generic();
         
+        // 通过StatusEffectApplier施加效果：同一tick内对同一实体的多次施加会被合并，
+        // 等级和持续时间取较大值，已有等级和持续时间都不低于本次施加的实体不会重复调用addEffect
+        ElementEffect gasEffect = (ElementEffect) Effects.GAS.get();
+        
         // 首先为中心实体（目标实体）添加毒气状态效果
         if (!(entity instanceof Player)) { // 排除玩家
-            if (entity.hasEffect(Effects.GAS.get())) {
-                // 如果目标实体已有毒气效果，延长持续时间而不是添加新效果
-                MobEffectInstance existingEffect = entity.getEffect(Effects.GAS.get());
-                int currentDuration = existingEffect.getDuration();
-                int newDuration = Math.max(currentDuration, CLOUD_DURATION); // 取较大值，确保不会缩短已有的效果
-                
-                // 重新应用效果，保持最高等级和最长持续时间
-                int newAmplifier = Math.max(existingEffect.getAmplifier(), amplifier);
-                entity.addEffect(new MobEffectInstance(
-                    (ElementEffect) Effects.GAS.get(),
-                    newDuration,
-                    newAmplifier
-                ));
-                // 存储伤害数据
-                com.xlxyvergil.hamstercore.element.effect.ElementEffectDataHelper.setEffectDamage(
-                    entity,
-                    (ElementEffect) Effects.GAS.get(),
-                    baseDamage
-                );
-            } else {
-                // 如果目标实体没有毒气效果，则添加新效果
-                entity.addEffect(new MobEffectInstance(
-                    (ElementEffect) Effects.GAS.get(), // GasEffect
-                    CLOUD_DURATION, // 持续时间
-                    amplifier // 保持原始等级
-                ));
-                // 存储伤害数据
-                com.xlxyvergil.hamstercore.element.effect.ElementEffectDataHelper.setEffectDamage(
-                    entity,
-                    (ElementEffect) Effects.GAS.get(),
-                    baseDamage
-                );
-            }
+            StatusEffectApplier.applyExtending(entity, gasEffect, CLOUD_DURATION, amplifier, baseDamage);
         }
         
         // 为范围内的其他实体赋予毒气状态效果（排除玩家）
@@ -110,41 +78,7 @@ public class GasCloudEffect extends ElementEffect {
             if (livingEntity instanceof Player || livingEntity == entity) {
                 continue;
             }
-            
-            // 检查目标是否已经有相同效果，如果有则延长持续时间而不是叠加
-            if (livingEntity.hasEffect(Effects.GAS.get())) {
-                // 如果已有毒气效果，延长持续时间而不是添加新效果
-                MobEffectInstance existingEffect = livingEntity.getEffect(Effects.GAS.get());
-                int currentDuration = existingEffect.getDuration();
-                int newDuration = Math.max(currentDuration, CLOUD_DURATION); // 取较大值，确保不会缩短已有的效果
-                
-                // 重新应用效果，保持最高等级和最长持续时间
-                int newAmplifier = Math.max(existingEffect.getAmplifier(), amplifier);
-                livingEntity.addEffect(new MobEffectInstance(
-                    (ElementEffect) Effects.GAS.get(),
-                    newDuration,
-                    newAmplifier
-                ));
-                // 存储伤害数据
-                com.xlxyvergil.hamstercore.element.effect.ElementEffectDataHelper.setEffectDamage(
-                    livingEntity,
-                    (ElementEffect) Effects.GAS.get(),
-                    baseDamage
-                );
-            } else {
-                // 如果没有相同效果，则添加新效果
-                livingEntity.addEffect(new MobEffectInstance(
-                    (ElementEffect) Effects.GAS.get(), // GasEffect
-                    CLOUD_DURATION, // 持续时间
-                    amplifier // 保持原始等级
-                ));
-                // 存储伤害数据
-                com.xlxyvergil.hamstercore.element.effect.ElementEffectDataHelper.setEffectDamage(
-                    livingEntity,
-                    (ElementEffect) Effects.GAS.get(),
-                    baseDamage
-                );
-            }
+            StatusEffectApplier.applyExtending(livingEntity, gasEffect, CLOUD_DURATION, amplifier, baseDamage);
         }
     }
 }
\ No newline at end of file
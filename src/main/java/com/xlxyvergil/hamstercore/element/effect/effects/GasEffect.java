@@ -1,9 +1,9 @@
 package com.xlxyvergil.hamstercore.element.effect.effects;
 
+import com.xlxyvergil.hamstercore.element.ElementType;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffect;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectRegistry.Effects;
-import com.xlxyvergil.hamstercore.handler.ElementTriggerHandler;
-import net.minecraft.world.damagesource.DamageSource;
+import com.xlxyvergil.hamstercore.handler.StatusDamage;
 import net.minecraft.world.effect.MobEffectCategory;
 import net.minecraft.world.entity.LivingEntity;
 
@@ -19,6 +19,9 @@ public class GasEffect extends ElementEffect {
     // 毒气效果持续时间（tick）：6秒 = 120 ticks
     private static final int GAS_DURATION = 120;
     
+    // 毒气DoT伤害间隔（tick）：2秒 = 40 ticks
+    public static final int DAMAGE_INTERVAL = 40;
+    
     public GasEffect() {
         super(MobEffectCategory.HARMFUL, 0x9370DB); // 紫色
     }
@@ -26,7 +29,7 @@ public class GasEffect extends ElementEffect {
     @Override
     public boolean isDurationEffectTick(int duration, int amplifier) {
         // 每40 ticks（2秒）触发一次DoT伤害
-        return duration % 40 == 0;
+        return duration % DAMAGE_INTERVAL == 0;
     }
     
     @Override
@@ -37,20 +40,13 @@ public class GasEffect extends ElementEffect {
         if (baseDamage <= 0.0F) {
             baseDamage = 1.0F;
         }
-        DamageSource originalDamageSource = entity.damageSources().generic();
 
         // 计算DoT伤害：基础伤害 * 30% * (1 + 等级/10) - 提高伤害
         float dotDamage = baseDamage * 0.30F * (1.0F + amplifier * 0.1F);
 
-        // 设置正在处理DoT伤害的标志，防止DoT伤害触发新的元素效果
-        ElementTriggerHandler.setProcessingDotDamage(true);
-        try {
-            // 使用原始伤害源，但通过标志防止触发新元素效果
-            entity.hurt(originalDamageSource, dotDamage);
-        } finally {
-            // 确保在伤害处理完成后重置标志
-            ElementTriggerHandler.setProcessingDotDamage(false);
-        }
+        // 伤害已经计算好，通过状态伤害通道直接作用于护盾和生命值，不再经过完整的伤害管线
+        // 同一tick内该实体的所有跳伤在tick结束时合并为一次伤害
+        StatusDamage.queue(entity, ElementType.GAS, dotDamage, null);
     }
     
 
@@ -2,19 +2,17 @@ package com.xlxyvergil.hamstercore.element.effect.effects;
 
 import com.xlxyvergil.hamstercore.element.effect.ElementEffect;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectRegistry.Effects;
+import com.xlxyvergil.hamstercore.element.effect.StatusLod;
+import com.xlxyvergil.hamstercore.element.effect.StatusSpatialIndex;
 import com.xlxyvergil.hamstercore.faction.Faction;
-import com.xlxyvergil.hamstercore.content.capability.entity.EntityFactionCapabilityProvider;
 import net.minecraft.world.effect.MobEffectCategory;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.Mob;
-import net.minecraft.world.entity.player.Player;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraftforge.event.entity.living.LivingEvent.LivingTickEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
-import java.util.List;
-
 /**
  * 辐射元素效果
  * 让目标敌我不分，优先攻击附近的友军，效果持续12秒
@@ -60,12 +58,8 @@ public class RadiationEffect extends ElementEffect {
      * @return 派系名称，如果没有则返回"NEUTRAL"
      */
     public static String getEntityFaction(LivingEntity entity) {
-        return entity.getCapability(EntityFactionCapabilityProvider.CAPABILITY)
-            .map(factionCap -> {
-                Faction faction = factionCap.getFaction();
-                return faction != null ? faction.name() : "NEUTRAL";
-            })
-            .orElse("NEUTRAL");
+        Faction faction = StatusSpatialIndex.getFaction(entity);
+        return faction != null ? faction.name() : "NEUTRAL";
     }
     
     /**
@@ -75,13 +69,12 @@ public class RadiationEffect extends ElementEffect {
      * @return 是否是同派系
      */
     public static boolean areSameFaction(LivingEntity entity1, LivingEntity entity2) {
-        String faction1 = getEntityFaction(entity1);
-        String faction2 = getEntityFaction(entity2);
-        return faction1.equals(faction2);
+        return StatusSpatialIndex.getFaction(entity1) == StatusSpatialIndex.getFaction(entity2);
     }
     
     /**
      * 寻找附近的同派系友军
+     * 通过空间索引的派系分桶查找，只遍历附近格子中同派系的实体（索引中不包含玩家）
      * @param entity 实体
      * @param searchRange 搜索范围
      * @return 最近的同派系友军，如果没有则返回null
@@ -91,34 +84,7 @@ public class RadiationEffect extends ElementEffect {
             return null;
         }
         
-        String entityFaction = getEntityFaction(entity);
-        
-        // 寻找附近的同派系实体
-        List<LivingEntity> nearbyEntities = serverLevel.getEntitiesOfClass(LivingEntity.class, 
-            entity.getBoundingBox().inflate(searchRange),
-            nearby -> {
-                // 排除自己和玩家
-                if (nearby == entity || nearby instanceof Player) {
-                    return false;
-                }
-                
-                // 检查是否是同派系
-                return entityFaction.equals(getEntityFaction(nearby));
-            });
-        
-        // 返回最近的同派系实体
-        LivingEntity nearestAlly = null;
-        double nearestDistance = searchRange * searchRange;
-        
-        for (LivingEntity nearby : nearbyEntities) {
-            double distance = entity.distanceToSqr(nearby);
-            if (distance < nearestDistance) {
-                nearestDistance = distance;
-                nearestAlly = nearby;
-            }
-        }
-        
-        return nearestAlly;
+        return StatusSpatialIndex.get(serverLevel).findNearestSameFaction(entity, searchRange);
     }
     
     /**
@@ -143,6 +109,11 @@ public class RadiationEffect extends ElementEffect {
             return;
         }
         
+        // 没有玩家能观察到时不重新索敌
+        if (!StatusLod.isObserved(entity)) {
+            return;
+        }
+        
         // 寻找附近的同派系友军
         LivingEntity targetAlly = findNearestAlly(entity, 16.0);
         
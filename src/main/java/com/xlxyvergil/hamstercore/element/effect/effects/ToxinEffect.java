@@ -1,7 +1,8 @@
 package com.xlxyvergil.hamstercore.element.effect.effects;
 
+import com.xlxyvergil.hamstercore.element.ElementType;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffect;
-import com.xlxyvergil.hamstercore.handler.ElementTriggerHandler;
+import com.xlxyvergil.hamstercore.handler.StatusDamage;
 import net.minecraft.world.effect.MobEffectCategory;
 import net.minecraft.world.entity.LivingEntity;
 
@@ -36,15 +37,8 @@ public class ToxinEffect extends ElementEffect {
         // 计算DoT伤害：基础伤害 * (20% + 等级*10%)
         float dotDamage = baseDamage * (0.20F + amplifier * 0.1F);
 
-        // 设置正在处理DoT伤害的标志，防止DoT伤害触发新的元素效果
-        // 同时ElementDamageManager会检查这个标志，跳过暴击计算，避免双重暴击
-        ElementTriggerHandler.setProcessingDotDamage(true);
-        try {
-            // 使用伤害源进行伤害，让伤害系统统一处理，但跳过暴击计算
-            entity.hurt(entity.level().damageSources().mobAttack(entity.getLastAttacker()), dotDamage);
-        } finally {
-            // 确保在伤害处理完成后重置标志
-            ElementTriggerHandler.setProcessingDotDamage(false);
-        }
+        // 伤害已经计算好，通过状态伤害通道直接作用于护盾和生命值，不再经过完整的伤害管线
+        // 同一tick内该实体的所有跳伤在tick结束时合并为一次伤害
+        StatusDamage.queue(entity, ElementType.TOXIN, dotDamage, entity.getLastAttacker());
     }
 }
\ No newline at end of file
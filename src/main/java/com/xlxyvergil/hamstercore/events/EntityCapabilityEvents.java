@@ -29,6 +29,11 @@ public class EntityCapabilityEvents {
     
     @SubscribeEvent
     public static void onAttachCapabilities(AttachCapabilitiesEvent<Entity> event) {
+        if (event.getObject() instanceof LivingEntity) {
+            // 附加战斗状态能力（包括玩家），元素状态随实体一起释放
+            event.addCapability(CombatStatusCapability.ID, new CombatStatusCapabilityProvider());
+        }
+        
         if (event.getObject() instanceof LivingEntity livingEntity && !(livingEntity instanceof Player)) {
             // 附加实体等级能力
             event.addCapability(EntityLevelCapability.ID, new EntityLevelCapabilityProvider());
@@ -5,10 +5,10 @@ import java.util.Map;
 import java.util.Set;
 
 import com.xlxyvergil.hamstercore.config.DisplayConfig;
-import com.xlxyvergil.hamstercore.content.capability.entity.EntityArmorCapabilityProvider;
-import com.xlxyvergil.hamstercore.content.capability.entity.EntityFactionCapabilityProvider;
 import com.xlxyvergil.hamstercore.content.capability.entity.EntityLevelCapabilityProvider;
 import com.xlxyvergil.hamstercore.element.ElementType;
+import com.xlxyvergil.hamstercore.faction.Faction;
+import com.xlxyvergil.hamstercore.handler.CombatContext;
 import com.xlxyvergil.hamstercore.handler.ElementDamageManager;
 import com.xlxyvergil.hamstercore.handler.ElementDamageManager.ModifierResults;
 import com.xlxyvergil.hamstercore.handler.ElementTriggerHandler;
@@ -20,59 +20,50 @@ import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
-import net.minecraftforge.event.entity.living.LivingHurtEvent;
-import net.minecraftforge.eventbus.api.SubscribeEvent;
-import net.minecraftforge.fml.common.Mod;
 
-@Mod.EventBusSubscriber(modid = "hamstercore")
+/**
+ * 攻击时显示实体信息
+ * 由FactionDamageHandler在伤害管线计算完成后调用，不单独监听受伤事件
+ */
 public class EntityInfoDisplayHandler {
 
-    @SubscribeEvent
-    public static void onEntityHurt(LivingHurtEvent event) {
+    /**
+     * 玩家攻击怪物时显示实体信息，由FactionDamageHandler在伤害管线和元素触发完成后调用
+     * 护盾完全吸收的命中同样显示
+     * @param context 本次伤害的战斗上下文
+     */
+    public static void onCombatHit(CombatContext context) {
         // 检查配置是否启用了攻击时显示实体信息
         if (!DisplayConfig.getInstance().isShowEntityInfoOnDamage()) {
             return;
         }
         
         // 只有玩家攻击怪物时才显示信息
-        if (event.getSource().getEntity() instanceof Player) {
-            Player player = (Player) event.getSource().getEntity();
-            LivingEntity target = event.getEntity();
-            ItemStack weapon = player.getMainHandItem();
+        if (context.getAttacker() instanceof Player player) {
+            LivingEntity target = context.getTarget();
+            ItemStack weapon = context.getWeapon();
             
             // 获取怪物的等级、护甲和派系信息
             int level = target.getCapability(EntityLevelCapabilityProvider.CAPABILITY)
                     .map(cap -> cap.getLevel())
                     .orElse(20);
             
-            double armor = target.getCapability(EntityArmorCapabilityProvider.CAPABILITY)
-                    .map(cap -> cap.getArmor())
-                    .orElse(0.0);
-            
-            // 限制护甲值上限为2700（用于显示）
-            armor = Math.min(armor, 2700.0);
-                    
-            // 获取目标实体的派系名称（用于ElementDamageManager和显示）
-            String targetFaction = target.getCapability(EntityFactionCapabilityProvider.CAPABILITY)
-                    .map(cap -> cap.getFaction() != null ? cap.getFaction().name() : "OROKIN")
-                    .orElse("OROKIN");
-                    
-            String factionName = target.getCapability(EntityFactionCapabilityProvider.CAPABILITY)
-                    .map(cap -> cap.getFaction().getDisplayName())
-                    .orElse("Unknown");
+            // 护甲值（已限制上限为2700）和派系名称与伤害计算时一致
+            double armor = context.getTargetArmor();
+            Faction targetFaction = context.getTargetFaction();
+            String factionName = targetFaction != null ? targetFaction.getDisplayName() : "Unknown";
                     
             // 获取派系颜色
             ChatFormatting factionColor = getFactionColor(targetFaction);
             
             // 获取基础伤害（FactionDamageHandler处理前的伤害）
-            float baseDamage = event.getAmount();
+            float baseDamage = context.getBaseDamage();
             
-            // 使用ElementDamageManager计算真实的伤害数据（现在不依赖缓存数据）
-            ElementDamageManager.ElementDamageData damageData = 
-                ElementDamageManager.calculateElementDamage(player, target, baseDamage, weapon, targetFaction, armor);
+            // 直接使用本次伤害的计算结果，暴击与实际造成的一致
+            ElementDamageManager.ElementDamageData damageData = context.getDamageData();
             
-            // 获取经过完整计算后的实际伤害
-            float inflictedDamage = damageData.getFinalDamage();
+            // 获取经过完整计算（含病毒、磁力增伤）后的实际伤害
+            float inflictedDamage = context.getDealtDamage();
             
             // 构造实体信息消息
             MutableComponent message = Component.literal("")
@@ -92,6 +83,13 @@ public class EntityInfoDisplayHandler {
                 .append(Component.literal(" -> ").withStyle(ChatFormatting.GOLD))
                 .append(Component.literal(String.format("%.2f", inflictedDamage)).withStyle(ChatFormatting.GOLD));
             
+            // 伤害管线之前被护盾吸收的伤害
+            if (context.getShieldAbsorbed() > 0) {
+                message.append(Component.literal(", "))
+                    .append(Component.translatable("hamstercore.ui.shield_absorbed_prefix"))
+                    .append(Component.literal(String.format("%.2f", context.getShieldAbsorbed())).withStyle(ChatFormatting.AQUA));
+            }
+            
             // 添加武器属性信息
             if (!weapon.isEmpty()) {
                 message.append(Component.literal("\n"))
@@ -262,26 +260,29 @@ public class EntityInfoDisplayHandler {
     /**
      * 获取派系颜色
      */
-    private static ChatFormatting getFactionColor(String faction) {
+    private static ChatFormatting getFactionColor(Faction faction) {
         // 根据派系设置颜色
         ChatFormatting color = ChatFormatting.WHITE; // 默认颜色
-        switch (faction.toUpperCase()) {
-            case "GRINEER":
+        if (faction == null) {
+            return color;
+        }
+        switch (faction) {
+            case GRINEER:
                 color = ChatFormatting.RED;
                 break;
-            case "INFESTED":
+            case INFESTED:
                 color = ChatFormatting.GREEN;
                 break;
-            case "CORPUS":
+            case CORPUS:
                 color = ChatFormatting.BLUE;
                 break;
-            case "OROKIN":
+            case OROKIN:
                 color = ChatFormatting.LIGHT_PURPLE;
                 break;
-            case "SENTIENT":
+            case SENTIENT:
                 color = ChatFormatting.DARK_RED;
                 break;
-            case "MURMUR":
+            case MURMUR:
                 color = ChatFormatting.AQUA;
                 break;
         }
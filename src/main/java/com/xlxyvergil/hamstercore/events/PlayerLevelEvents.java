@@ -2,12 +2,11 @@ package com.xlxyvergil.hamstercore.events;
 
 import com.xlxyvergil.hamstercore.HamsterCore;
 import com.xlxyvergil.hamstercore.content.capability.PlayerLevelCapabilityProvider;
+import com.xlxyvergil.hamstercore.handler.CombatContext;
 import com.xlxyvergil.hamstercore.level.PlayerLevelManager;
 import com.xlxyvergil.hamstercore.level.PlayerLevelUpEvent;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraft.world.entity.player.Player;
-import net.minecraft.world.damagesource.DamageSource;
-import net.minecraftforge.event.entity.living.LivingHurtEvent;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.event.entity.player.PlayerXpEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
@@ -16,14 +15,16 @@ import net.minecraftforge.fml.common.Mod;
 @Mod.EventBusSubscriber(modid = HamsterCore.MODID)
 public class PlayerLevelEvents {
     
-    // 监听生物受到伤害的事件（用于处理玩家造成伤害获取经验）
-    @SubscribeEvent
-    public static void onLivingHurt(LivingHurtEvent event) {
-        // 检查伤害来源是否是玩家
-        DamageSource source = event.getSource();
-        if (source.getEntity() instanceof Player player && !(event.getEntity() instanceof Player)) {
+    /**
+     * 玩家造成伤害获取经验，由FactionDamageHandler在伤害管线计算完成后调用
+     * 经验按伤害管线记录的实际伤害加上护盾吸收的伤害计算，护盾完全吸收的命中同样获得经验
+     * 状态伤害不经过伤害管线，经验由StatusDamage记录
+     * @param context 本次伤害的战斗上下文
+     */
+    public static void onCombatHit(CombatContext context) {
+        if (context.getAttacker() instanceof Player player && !(context.getTarget() instanceof Player)) {
             // 计算经验：每5点伤害获得1点经验
-            float damage = event.getAmount();
+            float damage = context.getDealtDamage() + context.getShieldAbsorbed();
             int experience = (int) (damage / 5.0f);
             
             // 确保至少获得1点经验（如果伤害大于0）
@@ -6,6 +6,8 @@ import com.xlxyvergil.hamstercore.content.capability.entity.EntityShieldCapabili
 import com.xlxyvergil.hamstercore.network.EntityShieldSyncToClient;
 import com.xlxyvergil.hamstercore.network.PacketHandler;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectRegistry;
+import com.xlxyvergil.hamstercore.handler.CombatContext;
+import com.xlxyvergil.hamstercore.handler.StatusDamage;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.effect.MobEffectInstance;
 import net.minecraft.world.effect.MobEffects;
@@ -14,27 +16,60 @@ import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.network.PacketDistributor;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
 @Mod.EventBusSubscriber(modid = HamsterCore.MODID)
 public class ShieldEvents {
     
+    // 等待在服务器tick结束时同步护盾的实体（延迟同步时使用，只在服务端主线程上访问，每tick结束时清空）
+    private static final Set<LivingEntity> PENDING_SHIELD_SYNC = Collections.newSetFromMap(new IdentityHashMap<>());
+    
     @SubscribeEvent
     public static void onLivingHurt(LivingHurtEvent event) {
-        LivingEntity entity = event.getEntity();
+        // 状态伤害（DoT）在StatusDamage中已经经过护盾，不再重复处理
+        if (StatusDamage.isStatusDamage(event.getSource())) {
+            return;
+        }
         
+        float amount = event.getAmount();
+        float remaining = absorbDamage(event.getEntity(), amount, event.getSource().getEntity(), false);
+        if (remaining != amount) {
+            // 如果伤害完全被护盾吸收，将伤害设置为0而不是取消事件
+            // 这样可以确保负面状态效果仍然能够应用
+            event.setAmount(remaining);
+            // 记录吸收的伤害，供伤害信息显示和玩家经验使用
+            CombatContext.recordShieldAbsorbed(event, amount - remaining);
+        }
+    }
+    
+    /**
+     * 用护盾吸收伤害
+     * 处理护盾消耗、受伤时间、同步、磁力破盾电击和玩家护盾保险
+     * @param entity 受伤实体
+     * @param amount 伤害值
+     * @param attacker 攻击者，可能为null
+     * @param deferSync 是否在服务器tick结束时再同步护盾值（同一tick内的多次变化只同步一次）
+     * @return 护盾吸收后剩余的伤害值，没有护盾能力时原样返回
+     */
+    public static float absorbDamage(LivingEntity entity, float amount, Entity attacker, boolean deferSync) {
         // 获取实体的护盾能力
         EntityShieldCapability shieldCap = entity.getCapability(EntityShieldCapabilityProvider.CAPABILITY).orElse(null);
         
         // 检查实体是否真正拥有有效的护盾能力
         if (shieldCap == null || shieldCap.getMaxShield() < 0) {
-            return; // 没有护盾能力，直接返回
+            return amount; // 没有护盾能力，直接返回
         }
 
         // 计算可以抵消的伤害量（1点伤害需要20点护盾抵消）
-        float amount = event.getAmount();
         float shieldRequired = amount * 20.0f;
         float actualShieldConsumed = Math.min(shieldRequired, shieldCap.getCurrentShield());
         float damageAbsorbed = actualShieldConsumed / 20.0f;
@@ -47,29 +82,28 @@ public class ShieldEvents {
         shieldCap.setLastHurtTime(entity.level().getGameTime());
         
         // 减少实际受到的伤害
-        event.setAmount(amount - damageAbsorbed);
-        
-        // 如果伤害完全被护盾吸收，将伤害设置为0而不是取消事件
-        // 这样可以确保负面状态效果仍然能够应用
-        if (damageAbsorbed >= amount) {
-            event.setAmount(0);
-        }
+        float remaining = damageAbsorbed >= amount ? 0 : amount - damageAbsorbed;
         
         // 检查护盾是否被击破（从有护盾变为无护盾）
         boolean shieldBroken = oldShield > 0 && shieldCap.getCurrentShield() <= 0;
         
         // 同步护盾值到客户端（确保在服务器端）
         if (!entity.level().isClientSide()) {
-            // 立即同步所有护盾变化，包括减少的情况
-            PacketHandler.NETWORK.send(
-                PacketDistributor.TRACKING_ENTITY_AND_SELF.with(() -> entity),
-                new EntityShieldSyncToClient(entity.getId(), shieldCap.getCurrentShield(), shieldCap.getMaxShield(), shieldCap.isGatingActive())
-            );
+            if (deferSync) {
+                // 同一tick内的多次护盾变化在tick结束时只同步一次
+                PENDING_SHIELD_SYNC.add(entity);
+            } else {
+                // 立即同步所有护盾变化，包括减少的情况
+                PacketHandler.NETWORK.send(
+                    PacketDistributor.TRACKING_ENTITY_AND_SELF.with(() -> entity),
+                    new EntityShieldSyncToClient(entity.getId(), shieldCap.getCurrentShield(), shieldCap.getMaxShield(), shieldCap.isGatingActive())
+                );
+            }
         }
         
         // 处理磁力效果的破盾电击伤害
         if (shieldBroken) {
-            handleMagneticShieldBreak(entity, event);
+            handleMagneticShieldBreak(entity, attacker);
         }
         
         // 检查是否需要触发护盾保险机制（仅限玩家）
@@ -87,13 +121,16 @@ public class ShieldEvents {
                 // 设置护盾保险不可用，直到护盾恢复满
                 shieldCap.setInsuranceAvailable(false);
                 
-                // 立即同步护盾保险状态到客户端
+                // 立即同步护盾保险状态到客户端，已包含最新护盾值，不再需要tick结束时的同步
+                PENDING_SHIELD_SYNC.remove(player);
                 PacketHandler.NETWORK.send(
                     PacketDistributor.TRACKING_ENTITY_AND_SELF.with(() -> player),
                     new EntityShieldSyncToClient(player.getId(), shieldCap.getCurrentShield(), shieldCap.getMaxShield(), true)
                 );
             }
         }
+        
+        return remaining;
     }
     
     @SubscribeEvent
@@ -160,6 +197,41 @@ public class ShieldEvents {
         }
     }
     
+    /**
+     * 服务器tick结束时同步本tick内受到伤害的实体的护盾值，每个实体只发送一次
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || PENDING_SHIELD_SYNC.isEmpty()) {
+            return;
+        }
+        
+        List<LivingEntity> entities = new ArrayList<>(PENDING_SHIELD_SYNC);
+        PENDING_SHIELD_SYNC.clear();
+        
+        for (LivingEntity entity : entities) {
+            if (entity.isRemoved()) {
+                continue;
+            }
+            EntityShieldCapability shieldCap = entity.getCapability(EntityShieldCapabilityProvider.CAPABILITY).orElse(null);
+            if (shieldCap == null) {
+                continue;
+            }
+            PacketHandler.NETWORK.send(
+                PacketDistributor.TRACKING_ENTITY_AND_SELF.with(() -> entity),
+                new EntityShieldSyncToClient(entity.getId(), shieldCap.getCurrentShield(), shieldCap.getMaxShield(), shieldCap.isGatingActive())
+            );
+        }
+    }
+    
+    /**
+     * 服务器关闭时丢弃未发送的护盾同步
+     */
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        PENDING_SHIELD_SYNC.clear();
+    }
+    
     /**
      * 处理护盾恢复
      */
@@ -212,7 +284,7 @@ public class ShieldEvents {
      * 处理磁力效果的破盾电击伤害
      * 当护盾被击破时，如果目标具有磁力效果，则对攻击者造成电击伤害
      */
-    private static void handleMagneticShieldBreak(LivingEntity entity, LivingHurtEvent event) {
+    private static void handleMagneticShieldBreak(LivingEntity entity, Entity attacker) {
         // 检查目标是否具有磁力效果
         if (entity.hasEffect(ElementEffectRegistry.Effects.MAGNETIC.get())) {
             net.minecraft.world.effect.MobEffectInstance magneticEffect = entity.getEffect(ElementEffectRegistry.Effects.MAGNETIC.get());
@@ -223,8 +295,8 @@ public class ShieldEvents {
                 float electricDamage = com.xlxyvergil.hamstercore.element.effect.effects.MagneticEffect.calculateShieldBreakElectricDamage(entity, amplifier);
                 
                 // 对攻击者造成电击伤害
-                if (electricDamage > 0 && event.getSource().getEntity() != null) {
-                    event.getSource().getEntity().hurt(event.getSource().getEntity().damageSources().magic(), electricDamage);
+                if (electricDamage > 0 && attacker != null) {
+                    attacker.hurt(attacker.damageSources().magic(), electricDamage);
                 }
             }
         }
@@ -0,0 +1,187 @@
+package com.xlxyvergil.hamstercore.handler;
+
+import com.xlxyvergil.hamstercore.element.ElementType;
+import com.xlxyvergil.hamstercore.util.AttributeHelper;
+
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraftforge.event.entity.living.LivingEquipmentChangeEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 攻击者战斗属性快照
+ * 每个攻击者每tick只从属性系统读取一次元素、暴击、触发率和派系属性，
+ * 之后同一tick内的所有伤害计算（派系克制、元素总倍率、暴击、元素触发）都直接读取该快照
+ * 快照不可变，装备变化时立即失效
+ */
+@Mod.EventBusSubscriber(modid = "hamstercore")
+public class AttackerCombatProfile {
+
+    // 攻击者 -> 当前tick的属性快照（弱引用，实体卸载后自动释放）
+    private static final Map<LivingEntity, AttackerCombatProfile> PROFILES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // 参与伤害倍率的元素（基础、复合、物理，按固定顺序累加）
+    public static final ElementType[] DAMAGE_ELEMENTS = {
+        ElementType.HEAT, ElementType.COLD, ElementType.ELECTRICITY, ElementType.TOXIN,
+        ElementType.BLAST, ElementType.CORROSIVE, ElementType.GAS,
+        ElementType.MAGNETIC, ElementType.RADIATION, ElementType.VIRAL,
+        ElementType.SLASH, ElementType.PUNCTURE, ElementType.IMPACT
+    };
+
+    // 派系元素（按固定顺序）
+    public static final ElementType[] FACTION_ELEMENTS = {
+        ElementType.GRINEER, ElementType.INFESTED, ElementType.CORPUS,
+        ElementType.OROKIN, ElementType.SENTIENT, ElementType.MURMUR
+    };
+
+    private final long gameTime;
+    private final double[] elementValues; // 按ElementType序号索引的元素属性值
+    private final double criticalChance;
+    private final double criticalDamage;
+    private final double triggerChance;
+    private final double totalElementRatio; // 物理、基础、复合元素正值之和
+    private final double totalFactionValue; // 派系元素值之和
+
+    private AttackerCombatProfile(long gameTime, double[] elementValues, double criticalChance, double criticalDamage, double triggerChance) {
+        this.gameTime = gameTime;
+        this.elementValues = elementValues;
+        this.criticalChance = criticalChance;
+        this.criticalDamage = criticalDamage;
+        this.triggerChance = triggerChance;
+
+        double ratio = 0.0;
+        for (ElementType type : DAMAGE_ELEMENTS) {
+            double value = getElementValue(type);
+            if (value > 0) {
+                ratio += value;
+            }
+        }
+        this.totalElementRatio = ratio;
+
+        double factionTotal = 0.0;
+        for (ElementType type : FACTION_ELEMENTS) {
+            factionTotal += getElementValue(type);
+        }
+        this.totalFactionValue = factionTotal;
+    }
+
+    /**
+     * 获取攻击者当前tick的属性快照，同一tick内重复调用返回同一实例
+     * @param attacker 攻击者
+     * @return 属性快照
+     */
+    public static AttackerCombatProfile of(LivingEntity attacker) {
+        long gameTime = attacker.level().getGameTime();
+        AttackerCombatProfile profile = PROFILES.get(attacker);
+        if (profile == null || profile.gameTime != gameTime) {
+            profile = build(attacker, gameTime);
+            PROFILES.put(attacker, profile);
+        }
+        return profile;
+    }
+
+    /**
+     * 使攻击者的属性快照失效，下次读取时重新构建
+     * @param attacker 攻击者
+     */
+    public static void invalidate(LivingEntity attacker) {
+        PROFILES.remove(attacker);
+    }
+
+    /**
+     * 从属性系统读取一次完整快照
+     */
+    private static AttackerCombatProfile build(LivingEntity attacker, long gameTime) {
+        double[] values = new double[ElementType.count()];
+
+        // 物理元素
+        values[ElementType.IMPACT.ordinal()] = AttributeHelper.getImpact(attacker);
+        values[ElementType.PUNCTURE.ordinal()] = AttributeHelper.getPuncture(attacker);
+        values[ElementType.SLASH.ordinal()] = AttributeHelper.getSlash(attacker);
+
+        // 基础元素
+        values[ElementType.COLD.ordinal()] = AttributeHelper.getCold(attacker);
+        values[ElementType.ELECTRICITY.ordinal()] = AttributeHelper.getElectricity(attacker);
+        values[ElementType.HEAT.ordinal()] = AttributeHelper.getHeat(attacker);
+        values[ElementType.TOXIN.ordinal()] = AttributeHelper.getToxin(attacker);
+
+        // 复合元素
+        values[ElementType.BLAST.ordinal()] = AttributeHelper.getBlast(attacker);
+        values[ElementType.CORROSIVE.ordinal()] = AttributeHelper.getCorrosive(attacker);
+        values[ElementType.GAS.ordinal()] = AttributeHelper.getGas(attacker);
+        values[ElementType.MAGNETIC.ordinal()] = AttributeHelper.getMagnetic(attacker);
+        values[ElementType.RADIATION.ordinal()] = AttributeHelper.getRadiation(attacker);
+        values[ElementType.VIRAL.ordinal()] = AttributeHelper.getViral(attacker);
+
+        // 派系元素
+        values[ElementType.GRINEER.ordinal()] = AttributeHelper.getGrineer(attacker);
+        values[ElementType.INFESTED.ordinal()] = AttributeHelper.getInfested(attacker);
+        values[ElementType.CORPUS.ordinal()] = AttributeHelper.getCorpus(attacker);
+        values[ElementType.OROKIN.ordinal()] = AttributeHelper.getOrokin(attacker);
+        values[ElementType.SENTIENT.ordinal()] = AttributeHelper.getSentient(attacker);
+        values[ElementType.MURMUR.ordinal()] = AttributeHelper.getMurmur(attacker);
+
+        // 特殊属性
+        double triggerChance = AttributeHelper.getTriggerChance(attacker);
+        values[ElementType.TRIGGER_CHANCE.ordinal()] = triggerChance;
+
+        return new AttackerCombatProfile(gameTime, values,
+            AttributeHelper.getCriticalChance(attacker),
+            AttributeHelper.getCriticalDamage(attacker),
+            triggerChance);
+    }
+
+    /**
+     * 装备变化时使快照失效，保证换武器后的第一击使用新属性
+     */
+    @SubscribeEvent
+    public static void onEquipmentChange(LivingEquipmentChangeEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    /**
+     * 获取指定元素的属性值
+     * @param type 元素类型
+     * @return 属性值，快照构建后才注册的元素类型返回0
+     */
+    public double getElementValue(ElementType type) {
+        int ordinal = type.ordinal();
+        return ordinal < elementValues.length ? elementValues[ordinal] : 0.0;
+    }
+
+    /**
+     * 获取按ElementType序号索引的元素值数组（快照内部数组，调用方不要修改）
+     * @return 元素值数组
+     */
+    public double[] getElementValues() {
+        return elementValues;
+    }
+
+    public double getCriticalChance() {
+        return criticalChance;
+    }
+
+    public double getCriticalDamage() {
+        return criticalDamage;
+    }
+
+    public double getTriggerChance() {
+        return triggerChance;
+    }
+
+    public double getTotalElementRatio() {
+        return totalElementRatio;
+    }
+
+    public double getTotalFactionValue() {
+        return totalFactionValue;
+    }
+
+    public long getGameTime() {
+        return gameTime;
+    }
+}
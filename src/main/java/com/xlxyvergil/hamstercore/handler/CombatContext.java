@@ -0,0 +1,125 @@
+package com.xlxyvergil.hamstercore.handler;
+
+import com.xlxyvergil.hamstercore.faction.Faction;
+
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.event.entity.living.LivingHurtEvent;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 单次受伤事件的战斗上下文
+ * 由FactionDamageHandler在伤害管线（LivingHurtEvent，LOWEST优先级）计算完成后创建，
+ * 之后直接交给伤害信息显示和玩家经验处理，不再重复计算，保证显示的暴击和数值与实际造成的一致
+ * 护盾（NORMAL优先级）先于伤害管线处理原始伤害，吸收的部分通过recordShieldAbsorbed记录在同一事件上，
+ * 因此护盾完全吸收的命中同样会显示信息并获得经验
+ */
+public class CombatContext {
+
+    // 受伤事件 -> 战斗上下文（弱引用，事件处理结束后自动释放）
+    private static final Map<LivingHurtEvent, CombatContext> CONTEXTS = Collections.synchronizedMap(new WeakHashMap<>());
+    // 受伤事件 -> 护盾吸收的伤害，伤害管线创建上下文时取出
+    private static final Map<LivingHurtEvent, Float> SHIELD_ABSORBED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final LivingEntity attacker;
+    private final LivingEntity target;
+    private final ItemStack weapon;
+    private final Faction targetFaction;
+    private final double targetArmor;
+    private final ElementDamageManager.ElementDamageData damageData;
+    private final float dealtDamage; // 管线结果再叠加病毒、磁力增伤后的伤害
+    private final float shieldAbsorbed; // 伤害管线之前被护盾吸收的原始伤害
+
+    private CombatContext(LivingEntity attacker, LivingEntity target, ItemStack weapon, Faction targetFaction, double targetArmor,
+                          ElementDamageManager.ElementDamageData damageData, float dealtDamage, float shieldAbsorbed) {
+        this.attacker = attacker;
+        this.target = target;
+        this.weapon = weapon;
+        this.targetFaction = targetFaction;
+        this.targetArmor = targetArmor;
+        this.damageData = damageData;
+        this.dealtDamage = dealtDamage;
+        this.shieldAbsorbed = shieldAbsorbed;
+    }
+
+    /**
+     * 记录护盾在伤害管线之前吸收的伤害
+     * @param event 受伤事件
+     * @param absorbed 吸收的伤害
+     */
+    public static void recordShieldAbsorbed(LivingHurtEvent event, float absorbed) {
+        if (absorbed > 0) {
+            SHIELD_ABSORBED.merge(event, absorbed, Float::sum);
+        }
+    }
+
+    /**
+     * 为受伤事件记录本次伤害计算的结果
+     * @param event 受伤事件
+     * @param attacker 攻击者
+     * @param target 被攻击者
+     * @param weapon 武器物品
+     * @param targetFaction 目标派系
+     * @param targetArmor 目标护甲值
+     * @param damageData 伤害管线计算结果
+     * @param dealtDamage 最终写回事件的伤害
+     * @return 战斗上下文
+     */
+    public static CombatContext create(LivingHurtEvent event, LivingEntity attacker, LivingEntity target, ItemStack weapon,
+                                       Faction targetFaction, double targetArmor,
+                                       ElementDamageManager.ElementDamageData damageData, float dealtDamage) {
+        Float shieldAbsorbed = SHIELD_ABSORBED.remove(event);
+        CombatContext context = new CombatContext(attacker, target, weapon, targetFaction, targetArmor, damageData, dealtDamage,
+                shieldAbsorbed != null ? shieldAbsorbed : 0.0F);
+        CONTEXTS.put(event, context);
+        return context;
+    }
+
+    /**
+     * 获取受伤事件的战斗上下文
+     * @param event 受伤事件
+     * @return 战斗上下文，如果本次伤害没有经过伤害管线则返回null
+     */
+    public static CombatContext get(LivingHurtEvent event) {
+        return CONTEXTS.get(event);
+    }
+
+    public LivingEntity getAttacker() {
+        return attacker;
+    }
+
+    public LivingEntity getTarget() {
+        return target;
+    }
+
+    public ItemStack getWeapon() {
+        return weapon;
+    }
+
+    public Faction getTargetFaction() {
+        return targetFaction;
+    }
+
+    public double getTargetArmor() {
+        return targetArmor;
+    }
+
+    public ElementDamageManager.ElementDamageData getDamageData() {
+        return damageData;
+    }
+
+    public float getBaseDamage() {
+        return damageData.getBaseDamage();
+    }
+
+    public float getDealtDamage() {
+        return dealtDamage;
+    }
+
+    public float getShieldAbsorbed() {
+        return shieldAbsorbed;
+    }
+}
@@ -0,0 +1,71 @@
+package com.xlxyvergil.hamstercore.handler;
+
+import com.xlxyvergil.hamstercore.config.CombatConfig;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStartingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 战斗随机数服务
+ * 每个维度一条独立的随机数流，暴击判定和元素触发判定都从这里取随机数，不再每次新建Random或争用同一个静态Random
+ * 开启CombatConfig的固定种子后，每个维度的判定序列在每次启动时都相同，便于压测和回归测试对比
+ * 随机数流只应在服务端主线程上使用
+ */
+@Mod.EventBusSubscriber(modid = "hamstercore")
+public class CombatRandom {
+
+    // 维度 -> 随机数流
+    private static final Map<ResourceKey<Level>, SplittableRandom> STREAMS = new ConcurrentHashMap<>();
+
+    /**
+     * 获取维度的战斗随机数流
+     * @param level 所在世界
+     * @return 随机数流
+     */
+    public static SplittableRandom get(Level level) {
+        return STREAMS.computeIfAbsent(level.dimension(), CombatRandom::createStream);
+    }
+
+    private static SplittableRandom createStream(ResourceKey<Level> dimension) {
+        CombatConfig config = CombatConfig.getInstance();
+        if (config.isFixedRandomSeed()) {
+            // 固定种子与维度ID混合，保证不同维度的序列互不相同且可复现
+            return new SplittableRandom(config.getRandomSeed() * 31 + dimension.location().hashCode());
+        }
+        return new SplittableRandom();
+    }
+
+    /**
+     * 丢弃所有随机数流，下次使用时按当前配置重新创建
+     */
+    public static void reset() {
+        STREAMS.clear();
+    }
+
+    /**
+     * 服务器启动时重新加载配置并重置随机数流，使固定种子从头开始
+     */
+    @SubscribeEvent
+    public static void onServerStarting(ServerStartingEvent event) {
+        CombatConfig.load();
+        reset();
+    }
+
+    /**
+     * 维度卸载时释放对应的随机数流
+     */
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof Level level && !level.isClientSide()) {
+            STREAMS.remove(level.dimension());
+        }
+    }
+}
@@ -1,23 +1,37 @@
 package com.xlxyvergil.hamstercore.handler;
 
+import com.xlxyvergil.hamstercore.combat.CombatMath;
+import com.xlxyvergil.hamstercore.content.capability.entity.CombatStatusCapability;
+import com.xlxyvergil.hamstercore.content.capability.entity.EntityArmorCapabilityProvider;
+import com.xlxyvergil.hamstercore.content.capability.entity.EntityFactionCapabilityProvider;
 import com.xlxyvergil.hamstercore.element.WeaponDataManager;
-import com.xlxyvergil.hamstercore.element.WeaponData;
+import com.xlxyvergil.hamstercore.element.effect.ElementEffectEventManager;
+import com.xlxyvergil.hamstercore.faction.Faction;
 import com.xlxyvergil.hamstercore.handler.modifier.*;
-import com.xlxyvergil.hamstercore.util.AttributeHelper;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.item.ItemStack;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.WeakHashMap;
 
 
 /**
  * 元素伤害管理器
  * 负责管理武器元素数据的计算
- * 通过AttributeHelper直接从实体获取属性值
+ * 攻击者属性通过AttackerCombatProfile每tick读取一次，同一tick内的多次计算共享同一快照
+ * 元素总倍率和派系克制等攻击者侧结果也按tick缓存（ATTACKER_TERMS），横扫、爆炸等同一tick命中多个目标的攻击
+ * 虽然每个目标仍各自触发一次受伤事件，但攻击者侧只计算一次，每个目标只计算护甲和暴击
+ * 开启弹丸合并时，同一目标在同一tick内的多发弹丸由PelletHitAggregator合并，目标侧也只计算一次
+ * 伤害公式本身在战斗核心模块的CombatMath中，这里只负责从实体和事件中整理输入
  */
 public class ElementDamageManager {
     
+    // 攻击者 -> 当前tick的攻击者侧计算结果
+    private static final Map<LivingEntity, AttackerDamageTerms> ATTACKER_TERMS = Collections.synchronizedMap(new WeakHashMap<>());
     
     /**
      * 计算元素伤害
@@ -30,6 +44,20 @@ public class ElementDamageManager {
      * @return 元素伤害数据
      */
     public static ElementDamageData calculateElementDamage(LivingEntity attacker, LivingEntity target, float baseDamage, ItemStack weapon, String targetFaction, Double targetArmor) {
+        return calculateElementDamage(attacker, target, baseDamage, weapon, FactionModifierCalculator.parseFaction(targetFaction), targetArmor != null ? targetArmor.doubleValue() : 0.0);
+    }
+    
+    /**
+     * 计算元素伤害（派系使用枚举、护甲值使用基本类型，避免字符串处理和装箱）
+     * @param attacker 攻击者
+     * @param target 目标实体
+     * @param baseDamage 基础伤害
+     * @param weapon 武器物品
+     * @param targetFaction 目标派系
+     * @param targetArmor 目标护甲值
+     * @return 元素伤害数据
+     */
+    public static ElementDamageData calculateElementDamage(LivingEntity attacker, LivingEntity target, float baseDamage, ItemStack weapon, Faction targetFaction, double targetArmor) {
         // 通过modifier模块进行计算，从实体获取属性值
         return calculateElementDamageInternal(attacker, target, baseDamage, weapon, targetFaction, targetArmor);
     }
@@ -37,6 +65,7 @@ public class ElementDamageManager {
     
     /**
      * 计算元素伤害的核心逻辑
+     * 只计算基本类型的各项系数，分解表等详细结果在调用getModifierResults()时才构建
      * @param attacker 攻击者
      * @param target 目标实体
      * @param baseDamage 基础伤害
@@ -45,81 +74,209 @@ public class ElementDamageManager {
      * @param targetArmor 目标护甲值
      * @return 元素伤害数据
      */
-    private static ElementDamageData calculateElementDamageInternal(LivingEntity attacker, LivingEntity target, float baseDamage, ItemStack weapon, String targetFaction, Double targetArmor) {
-        ElementDamageData damageData = new ElementDamageData(baseDamage);
-        
+    private static ElementDamageData calculateElementDamageInternal(LivingEntity attacker, LivingEntity target, float baseDamage, ItemStack weapon, Faction targetFaction, double targetArmor) {
         // 对于空的武器栈，直接返回基础数据
         if (weapon.isEmpty()) {
-            damageData.finalDamage = baseDamage;
-            return damageData;
+            return new ElementDamageData(baseDamage);
         }
         
-        // 获取武器数据
-        WeaponData data = WeaponDataManager.loadElementData(weapon);
-        
-        // 计算各部分的伤害修正系数，通过modifier模块从实体获取属性值，并存储详细结果
-        ModifierResults modifierResults = new ModifierResults();
-        
-        // 计算派系克制 - 使用FactionModifierCalculator从实体获取派系属性
-        FactionModifierCalculator.FactionResult factionResult = FactionModifierCalculator.calculateFactionModifier(attacker, targetFaction);
-        double factionModifier = factionResult.getFactionModifier();
-        damageData.factionModifier = factionModifier;
-        modifierResults.setFactionModifier(factionModifier);
-        modifierResults.setFactionBreakdown(factionResult.getBreakdown());
-        
-        // 计算总元素倍率 - 使用TotalElementMultiplierCalculator从实体获取所有元素属性
-        TotalElementMultiplierCalculator.TotalElementResult totalElementResult = TotalElementMultiplierCalculator.calculateTotalElementMultiplier(attacker);
-        double totalElementMultiplier = totalElementResult.getTotalElementMultiplier();
-        damageData.elementMultiplier = totalElementMultiplier;
-        modifierResults.setElementMultiplier(totalElementMultiplier);
-        modifierResults.setElementBreakdown(totalElementResult.getBreakdown());
-        
-        // 计算暴击倍率和暴击信息 - 使用CriticalMultiplierCalculator从实体获取暴击属性
-        // 如果是DOT伤害，则跳过暴击计算，避免双重暴击
-        CriticalMultiplierCalculator.CriticalResult criticalResult;
-        if (ElementTriggerHandler.isProcessingDotDamage()) {
-            // 如果正在处理DOT伤害，创建一个没有暴击的结果
-            criticalResult = new CriticalMultiplierCalculator.CriticalResult(1.0, 0, 0.0);
-        } else {
-            // 否则正常计算暴击
-            criticalResult = CriticalMultiplierCalculator.calculateCriticalMultiplier(attacker, target, weapon, new HashMap<>());
+        // 攻击者侧的计算在同一tick内共享，横扫等同一tick命中多个目标的攻击只计算一次
+        AttackerDamageTerms terms = getAttackerTerms(attacker, weapon);
+        return calculateForTarget(terms, target, baseDamage, targetFaction, targetArmor);
+    }
+    
+    /**
+     * 获取目标实体的派系，没有派系能力时视为Orokin
+     * @param target 目标实体
+     * @return 目标派系
+     */
+    public static Faction getTargetFaction(LivingEntity target) {
+        return target.getCapability(EntityFactionCapabilityProvider.CAPABILITY)
+            .map(factionCap -> {
+                Faction faction = factionCap.getFaction();
+                return faction != null ? faction : Faction.OROKIN;
+            })
+            .orElse(Faction.OROKIN);
+    }
+    
+    /**
+     * 获取目标实体参与伤害计算的护甲值，上限为2700
+     * 降频更新的实体先补齐积累的tick，已经到期的火焰、腐蚀护甲削减不会继续生效
+     * @param target 目标实体
+     * @return 护甲值
+     */
+    public static double getTargetArmor(LivingEntity target) {
+        CombatStatusCapability status = CombatStatusCapability.get(target);
+        if (status != null) {
+            ElementEffectEventManager.catchUp(target, status);
+        }
+        double targetArmor = target.getCapability(EntityArmorCapabilityProvider.CAPABILITY)
+            .map(armorCap -> armorCap.getArmor())
+            .orElse(0.0);
+        return Math.min(targetArmor, CombatMath.MAX_ARMOR);
+    }
+    
+    /**
+     * 获取攻击者当前tick的攻击者侧计算结果，属性快照或武器变化时重新计算
+     */
+    private static AttackerDamageTerms getAttackerTerms(LivingEntity attacker, ItemStack weapon) {
+        AttackerCombatProfile profile = AttackerCombatProfile.of(attacker);
+        AttackerDamageTerms terms = ATTACKER_TERMS.get(attacker);
+        if (terms == null || terms.profile != profile || terms.weapon != weapon) {
+            // 加载武器数据（NBT中没有数据时会从配置写入武器）
+            WeaponDataManager.loadElementData(weapon);
+            terms = new AttackerDamageTerms(profile, weapon);
+            ATTACKER_TERMS.put(attacker, terms);
+        }
+        return terms;
+    }
+    
+    /**
+     * 计算单个目标的元素伤害
+     * 只计算基本类型的各项系数，分解表等详细结果在调用getModifierResults()时才构建
+     */
+    private static ElementDamageData calculateForTarget(AttackerDamageTerms terms, LivingEntity target, float baseDamage, Faction targetFaction, double targetArmor) {
+        TargetDamageTerms targetTerms = terms.computeTargetTerms(target, targetArmor);
+        ElementDamageData damageData = createDamageData(terms, targetTerms, baseDamage, targetFaction, targetArmor);
+        
+        // 计算暴击、护甲减免和最终伤害 - 每次命中独立判定暴击等级
+        // 如果是DOT伤害，则以0暴击率计算跳过暴击，避免双重暴击
+        boolean rollCritical = !ElementTriggerHandler.isProcessingDotDamage();
+        CombatMath.Hit hit = CombatMath.hit(baseDamage, damageData.factionModifier, damageData.elementMultiplier,
+                                            rollCritical ? targetTerms.criticalChance : 0.0, targetTerms.criticalDamage,
+                                            rollCritical ? CombatRandom.get(target.level()).nextDouble() : 0.0,
+                                            targetTerms.armorModifier);
+        applyHit(damageData, hit, rollCritical, targetTerms.criticalDamage);
+        return damageData;
+    }
+    
+    /**
+     * 计算同一攻击者在同一tick内对同一目标的多次命中（弹丸合并）的合计元素伤害
+     * 攻击者侧和目标侧的系数只计算一次，每发弹丸仍各自判定暴击等级，见CombatMath.hitGroup
+     * @param attacker 攻击者
+     * @param target 目标实体
+     * @param baseDamages 各发弹丸的基础伤害
+     * @param count 弹丸数量
+     * @param weapon 武器物品
+     * @param targetFaction 目标派系
+     * @param targetArmor 目标护甲值
+     * @return 合计的元素伤害数据，基础伤害和最终伤害为各发弹丸之和，暴击等级为最高等级
+     */
+    public static ElementDamageData calculateElementDamage(LivingEntity attacker, LivingEntity target, float[] baseDamages, int count, ItemStack weapon, Faction targetFaction, double targetArmor) {
+        float totalBaseDamage = 0.0F;
+        for (int i = 0; i < count; i++) {
+            totalBaseDamage += baseDamages[i];
         }
-        double critMultiplier = criticalResult.getMultiplier();
-        int criticalLevel = criticalResult.getLevel();
-        double criticalDamage = criticalResult.getDamage();
-        damageData.criticalMultiplier = critMultiplier;
-        damageData.setCriticalInfo(criticalLevel, criticalDamage);
-        modifierResults.setCriticalMultiplier(critMultiplier);
-        modifierResults.setCriticalLevel(criticalLevel);
-        modifierResults.setCriticalDamage(criticalDamage);
-        modifierResults.setCriticalChance(AttributeHelper.getCriticalChance(attacker));
-        
-        // 计算护甲减免
-        ArmorReductionCalculator.ArmorReductionResult armorResult = ArmorReductionCalculator.calculateArmorReduction(target, targetArmor);
-        damageData.armorReduction = armorResult.getArmorReduction();
-        modifierResults.setArmorReduction(armorResult.getArmorReduction());
-        modifierResults.setArmorValue(armorResult.getArmorValue());
-        modifierResults.setArmorModifier(armorResult.getArmorModifier());
-        
-        // 存储所有modifier结果
-        damageData.setModifierResults(modifierResults);
-        
-        // 计算最终伤害：使用总元素倍率（已经包含了所有元素的加成）
-        damageData.finalDamage = (float) (baseDamage * (1.0 + damageData.factionModifier) 
-                                         * damageData.elementMultiplier 
-                                         * damageData.criticalMultiplier 
-                                         * damageData.armorReduction);
-        
-        // 确保伤害不会小于0
-        if (damageData.finalDamage < 0) {
-            damageData.finalDamage = 0;
+        
+        // 对于空的武器栈，直接返回基础数据
+        if (weapon.isEmpty()) {
+            return new ElementDamageData(totalBaseDamage);
         }
         
+        AttackerDamageTerms terms = getAttackerTerms(attacker, weapon);
+        TargetDamageTerms targetTerms = terms.computeTargetTerms(target, targetArmor);
+        ElementDamageData damageData = createDamageData(terms, targetTerms, totalBaseDamage, targetFaction, targetArmor);
+        
+        SplittableRandom random = CombatRandom.get(target.level());
+        CombatMath.Hit hit = CombatMath.hitGroup(baseDamages, count, damageData.factionModifier, damageData.elementMultiplier,
+                                                 targetTerms.criticalChance, targetTerms.criticalDamage,
+                                                 random::nextDouble, targetTerms.armorModifier);
+        applyHit(damageData, hit, true, targetTerms.criticalDamage);
         return damageData;
     }
     
+    /**
+     * 创建伤害数据并填入派系克制、元素总倍率和护甲等不随暴击变化的系数
+     */
+    private static ElementDamageData createDamageData(AttackerDamageTerms terms, TargetDamageTerms targetTerms, float baseDamage, Faction targetFaction, double targetArmor) {
+        ElementDamageData damageData = new ElementDamageData(baseDamage);
+        AttackerCombatProfile profile = terms.profile;
+        damageData.profile = profile;
+        damageData.targetFaction = targetFaction;
+        
+        // 派系克制和总元素倍率只与攻击者和目标派系有关
+        damageData.factionModifier = terms.getFactionModifier(targetFaction);
+        damageData.elementMultiplier = terms.elementMultiplier;
+        damageData.criticalChance = profile.getCriticalChance();
+        
+        // 护甲减免
+        damageData.armorValue = targetArmor;
+        damageData.armorModifier = targetTerms.armorModifier;
+        return damageData;
+    }
     
+    /**
+     * 写入暴击信息、护甲减免系数和最终伤害（使用总元素倍率，已经包含了所有元素的加成，确保伤害不会小于0）
+     */
+    private static void applyHit(ElementDamageData damageData, CombatMath.Hit hit, boolean rollCritical, double criticalDamage) {
+        if (rollCritical) {
+            damageData.criticalMultiplier = hit.getCriticalMultiplier();
+            damageData.setCriticalInfo(hit.getCriticalLevel(), criticalDamage);
+        }
+        damageData.armorReduction = hit.getArmorReduction();
+        damageData.finalDamage = hit.getFinalDamage();
+    }
     
+    /**
+     * 攻击者侧的伤害计算结果
+     * 只依赖攻击者属性快照和目标派系，同一tick内对所有目标相同
+     */
+    private static final class AttackerDamageTerms {
+        private final AttackerCombatProfile profile;
+        private final ItemStack weapon;
+        private final double elementMultiplier;
+        private final double[] factionModifiers; // 按派系序号索引，未计算时为NaN
+        
+        private AttackerDamageTerms(AttackerCombatProfile profile, ItemStack weapon) {
+            this.profile = profile;
+            this.weapon = weapon;
+            // 计算总元素倍率 - 从属性快照读取所有元素属性
+            this.elementMultiplier = TotalElementMultiplierCalculator.calculateTotalElementMultiplierValue(profile);
+            this.factionModifiers = new double[Faction.values().length];
+            Arrays.fill(this.factionModifiers, Double.NaN);
+        }
+        
+        /**
+         * 获取对目标派系的派系克制系数，每个派系只计算一次
+         * 派系未知（例如按名称解析失败）时与FactionModifierCalculator一致，返回0
+         */
+        private double getFactionModifier(Faction targetFaction) {
+            if (targetFaction == null) {
+                return 0.0;
+            }
+            double value = factionModifiers[targetFaction.ordinal()];
+            if (Double.isNaN(value)) {
+                value = FactionModifierCalculator.calculateFactionModifierValue(profile, targetFaction);
+                factionModifiers[targetFaction.ordinal()] = value;
+            }
+            return value;
+        }
+        
+        /**
+         * 计算目标侧的结果（计入穿刺、冰冻后的暴击率和暴击伤害、护甲减免）
+         */
+        private TargetDamageTerms computeTargetTerms(LivingEntity target, double targetArmor) {
+            return new TargetDamageTerms(
+                CriticalMultiplierCalculator.getEffectiveCriticalChance(profile, target),
+                CriticalMultiplierCalculator.getEffectiveCriticalDamage(profile, target),
+                ArmorReductionCalculator.calculateArmorModifier(targetArmor));
+        }
+    }
+    
+    /**
+     * 目标侧的伤害计算结果（计入目标效果后的暴击率、暴击伤害和护甲减免）
+     */
+    private static final class TargetDamageTerms {
+        private final double criticalChance;
+        private final double criticalDamage;
+        private final double armorModifier;
+        
+        private TargetDamageTerms(double criticalChance, double criticalDamage, double armorModifier) {
+            this.criticalChance = criticalChance;
+            this.criticalDamage = criticalDamage;
+            this.armorModifier = armorModifier;
+        }
+    }
     
     /**
      * 统一的 modifier 计算结果类
@@ -205,7 +362,13 @@ public class ElementDamageManager {
         private double armorReduction;
         private int criticalLevel;
         private double criticalDamage;
-        private ModifierResults modifierResults;
+        private double criticalChance;
+        private double armorValue;
+        private double armorModifier;
+        // 用于按需构建分解表
+        private AttackerCombatProfile profile;
+        private Faction targetFaction;
+        private ModifierResults modifierResults; // 首次读取时才构建
         
         public ElementDamageData(float baseDamage) {
             this.baseDamage = baseDamage;
@@ -216,7 +379,9 @@ public class ElementDamageManager {
             this.armorReduction = 1.0;
             this.criticalLevel = 0;
             this.criticalDamage = 0.0;
-            this.modifierResults = new ModifierResults();
+            this.criticalChance = 0.0;
+            this.armorValue = 0.0;
+            this.armorModifier = 0.0;
         }
         
         // Getters
@@ -262,10 +427,35 @@ public class ElementDamageManager {
             this.criticalDamage = criticalDamage;
         }
         
+        /**
+         * 获取详细的modifier计算结果
+         * 伤害计算时不构建，只有显示或API读取时才根据已算出的系数和属性快照生成
+         */
         public ModifierResults getModifierResults() {
+            if (modifierResults == null) {
+                modifierResults = buildModifierResults();
+            }
             return modifierResults;
         }
         
+        private ModifierResults buildModifierResults() {
+            ModifierResults results = new ModifierResults();
+            results.setFactionModifier(factionModifier);
+            results.setElementMultiplier(elementMultiplier);
+            results.setCriticalMultiplier(criticalMultiplier);
+            results.setCriticalLevel(criticalLevel);
+            results.setCriticalDamage(criticalDamage);
+            results.setCriticalChance(criticalChance);
+            results.setArmorReduction(armorReduction);
+            results.setArmorValue(armorValue);
+            results.setArmorModifier(armorModifier);
+            if (profile != null) {
+                results.setFactionBreakdown(FactionModifierCalculator.calculateFactionBreakdown(profile, targetFaction));
+                results.setElementBreakdown(TotalElementMultiplierCalculator.calculateElementBreakdown(profile));
+            }
+            return results;
+        }
+        
         public void setModifierResults(ModifierResults modifierResults) {
             this.modifierResults = modifierResults;
         }
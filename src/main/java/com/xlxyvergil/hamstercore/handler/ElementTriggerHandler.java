@@ -1,19 +1,14 @@
 package com.xlxyvergil.hamstercore.handler;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.SplittableRandom;
 import com.xlxyvergil.hamstercore.element.ElementType;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffect;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectDataHelper;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectManager;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectRegistry.Effects;
 import com.xlxyvergil.hamstercore.element.effect.effects.*;
-import com.xlxyvergil.hamstercore.util.AttributeHelper;
 
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.effect.MobEffectInstance;
@@ -26,7 +21,13 @@ import net.minecraft.world.entity.player.Player;
  */
 public class ElementTriggerHandler {
     
-    private static final Random RANDOM = new Random();
+    // 可以触发状态效果的元素（物理、基础、复合元素），按固定顺序加入抽样器
+    private static final ElementType[] TRIGGER_ELEMENTS = {
+        ElementType.IMPACT, ElementType.PUNCTURE, ElementType.SLASH,
+        ElementType.COLD, ElementType.ELECTRICITY, ElementType.HEAT, ElementType.TOXIN,
+        ElementType.BLAST, ElementType.CORROSIVE, ElementType.GAS,
+        ElementType.MAGNETIC, ElementType.RADIATION, ElementType.VIRAL
+    };
     
     // 存储当前攻击会话中触发的元素信息（ThreadLocal确保线程安全）
     private static final ThreadLocal<List<ElementType>> triggeredElements = ThreadLocal.withInitial(ArrayList::new);
@@ -58,181 +59,93 @@ public class ElementTriggerHandler {
      * @param damageSource 原始伤害源
      */
     public static void handleElementTriggers(LivingEntity attacker, LivingEntity target, float finalDamage, DamageSource damageSource) {
-        // 检查是否正在处理DoT伤害，如果是，则不触发新的元素效果
-        if (isProcessingDotDamage()) {
-            return;
-        }
-        
-        // 只处理玩家攻击的情况
-        if (!(attacker instanceof Player)) {
-            return;
-        }
-        
-        // 检查伤害源是否为毒云伤害，如果是则不触发元素效果
-        if (damageSource == attacker.damageSources().magic() || damageSource.getMsgId().equals("magic")) {
+        if (!canTrigger(attacker, damageSource)) {
             return;
         }
         
         // 清空之前会话的触发元素记录
         triggeredElements.get().clear();
         
-        // 从攻击者实体获取元素属性
-        List<Map.Entry<ElementType, Double>> elementList = new ArrayList<>();
-        
-        // 添加物理元素
-        addElementIfPositive(elementList, ElementType.IMPACT, AttributeHelper.getImpact(attacker));
-        addElementIfPositive(elementList, ElementType.PUNCTURE, AttributeHelper.getPuncture(attacker));
-        addElementIfPositive(elementList, ElementType.SLASH, AttributeHelper.getSlash(attacker));
-        
-        // 添加基础元素
-        addElementIfPositive(elementList, ElementType.COLD, AttributeHelper.getCold(attacker));
-        addElementIfPositive(elementList, ElementType.ELECTRICITY, AttributeHelper.getElectricity(attacker));
-        addElementIfPositive(elementList, ElementType.HEAT, AttributeHelper.getHeat(attacker));
-        addElementIfPositive(elementList, ElementType.TOXIN, AttributeHelper.getToxin(attacker));
-        
-        // 添加复合元素
-        addElementIfPositive(elementList, ElementType.BLAST, AttributeHelper.getBlast(attacker));
-        addElementIfPositive(elementList, ElementType.CORROSIVE, AttributeHelper.getCorrosive(attacker));
-        addElementIfPositive(elementList, ElementType.GAS, AttributeHelper.getGas(attacker));
-        addElementIfPositive(elementList, ElementType.MAGNETIC, AttributeHelper.getMagnetic(attacker));
-        addElementIfPositive(elementList, ElementType.RADIATION, AttributeHelper.getRadiation(attacker));
-        addElementIfPositive(elementList, ElementType.VIRAL, AttributeHelper.getViral(attacker));
-        
-        // 检查攻击者是否有元素属性
-        if (elementList.isEmpty()) {
-            return;
+        AttackerCombatProfile profile = AttackerCombatProfile.of(attacker);
+        SplittableRandom random = CombatRandom.get(target.level());
+        ElementTriggerSampler sampler = ElementTriggerSampler.begin();
+        try {
+            triggerHit(sampler, profile, random, attacker, target, finalDamage, damageSource);
+        } finally {
+            sampler.release();
         }
-        
-        Map<ElementType, Map.Entry<ElementType, Double>> elements = new HashMap<>();
-        
-        // 只收集物理、基础和复合元素
-        for (Map.Entry<ElementType, Double> element : elementList) {
-            ElementType type = element.getKey();
-            if (type.isPhysical() || type.isBasic() || type.isComplex()) {
-                elements.put(type, element);
-            }
-        }
-        
-        if (elements.isEmpty()) {
-            return;
-        }
-        
-        // 计算元素总触发值（不包括特殊属性）
-        double totalElementValue = 0.0;
-        for (Map.Entry<ElementType, Double> element : elements.values()) {
-            totalElementValue += element.getValue();
-        }
-        
-        if (totalElementValue <= 0.0) {
+    }
+    
+    /**
+     * 处理合并后的多发弹丸的元素触发效果
+     * 攻击者属性快照和随机数流只获取一次，每发弹丸仍各自判定触发和触发等级，触发的效果按该弹丸的伤害施加
+     * @param attacker 攻击者
+     * @param target 目标实体
+     * @param pelletDamages 各发弹丸的伤害值
+     * @param pelletCount 弹丸数量
+     * @param damageSource 原始伤害源
+     */
+    public static void handleElementTriggers(LivingEntity attacker, LivingEntity target, float[] pelletDamages, int pelletCount, DamageSource damageSource) {
+        if (!canTrigger(attacker, damageSource)) {
             return;
         }
         
-        // 获取触发率值（从攻击者实体获取）
-        double triggerChance = AttributeHelper.getTriggerChance(attacker);
-        
-        // 判断是否触发
-        if (RANDOM.nextDouble() > triggerChance) {
-            return; // 没有触发
-        }
-        
-        // 计算触发等级
-        double chancePercent = triggerChance * 100;
-        int guaranteedTriggerLevel = (int) Math.floor((chancePercent + 100) / 100) - 1; // 保底触发等级
-        int maxTriggerLevel = (int) Math.floor((chancePercent + 100) / 100); // 最大可能触发等级
-        
-        // 确保触发等级至少为0
-        if (guaranteedTriggerLevel < 0) {
-            guaranteedTriggerLevel = 0;
-        }
-        
-        if (maxTriggerLevel < 0) {
-            maxTriggerLevel = 0;
-        }
-        
-        // 判断是否能达到更高的触发等级
-        int triggerLevel = guaranteedTriggerLevel;
-        double extraChance = chancePercent - (guaranteedTriggerLevel * 100); // 超出保底等级的部分
-        
-        if (RANDOM.nextDouble() * 100 < extraChance) {
-            triggerLevel = maxTriggerLevel;
-        }
-        
-        // 触发等级为0时，也要至少触发一个效果
-        if (triggerLevel == 0 && triggerChance > 0) {
-            triggerLevel = 1;
-        }
-        
-        // 计算每个元素的触发概率
-        Map<ElementType, Double> elementProbabilities = new HashMap<>();
-        for (Map.Entry<ElementType, Map.Entry<ElementType, Double>> entry : elements.entrySet()) {
-            double probability = entry.getValue().getValue() / totalElementValue;
-            elementProbabilities.put(entry.getKey(), probability);
-        }
+        // 清空之前会话的触发元素记录，本次合并的所有弹丸触发的元素一起记录
+        triggeredElements.get().clear();
         
-        // 根据触发等级和概率触发效果，但确保不重复触发相同元素
-        Set<ElementType> triggeredElementsSet = new HashSet<>(); // 记录已触发的元素类型
-        for (int i = 0; i < triggerLevel && triggeredElementsSet.size() < elementProbabilities.size(); i++) {
-            ElementType selectedElement = selectRandomElementExcluding(elementProbabilities, triggeredElementsSet);
-            if (selectedElement != null) {
-                triggeredElementsSet.add(selectedElement);
-                applyElementEffect(selectedElement, attacker, target, finalDamage, damageSource);
+        AttackerCombatProfile profile = AttackerCombatProfile.of(attacker);
+        SplittableRandom random = CombatRandom.get(target.level());
+        ElementTriggerSampler sampler = ElementTriggerSampler.begin();
+        try {
+            for (int i = 0; i < pelletCount && target.isAlive(); i++) {
+                // 上一发弹丸抽中的元素已从候选中移除，每发弹丸重新加入全部元素
+                sampler.clear();
+                triggerHit(sampler, profile, random, attacker, target, pelletDamages[i], damageSource);
             }
+        } finally {
+            sampler.release();
         }
     }
     
     /**
-     * 辅助方法：如果元素值为正，则添加到元素列表中
-     * @param elementList 元素列表
-     * @param elementType 元素类型
-     * @param value 元素值
+     * 检查这次伤害是否可以触发元素效果：不是DoT伤害、攻击者是玩家、不是毒云伤害
      */
-    private static void addElementIfPositive(List<Map.Entry<ElementType, Double>> elementList, ElementType elementType, double value) {
-        if (value > 0.0) {
-            elementList.add(new HashMap.SimpleEntry<>(elementType, value));
+    private static boolean canTrigger(LivingEntity attacker, DamageSource damageSource) {
+        // 检查是否正在处理DoT伤害，如果是，则不触发新的元素效果
+        if (isProcessingDotDamage()) {
+            return false;
+        }
+        
+        // 只处理玩家攻击的情况
+        if (!(attacker instanceof Player)) {
+            return false;
         }
+        
+        // 检查伤害源是否为毒云伤害，如果是则不触发元素效果
+        return damageSource != attacker.damageSources().magic() && !damageSource.getMsgId().equals("magic");
     }
     
     /**
-     * 根据概率随机选择一个元素，排除已选择的元素
-     * @param elementProbabilities 元素概率映射
-     * @param excludedElements 已选择的元素集合
-     * @return 选中的元素类型，如果没有可选元素则返回null
+     * 对一次命中进行元素触发判定并施加触发的效果
+     * @param sampler 已清空的抽样器
      */
-    private static ElementType selectRandomElementExcluding(Map<ElementType, Double> elementProbabilities, Set<ElementType> excludedElements) {
-        // 创建一个不包含已排除元素的概率映射
-        Map<ElementType, Double> filteredProbabilities = new HashMap<>();
-        double totalProbability = 0.0;
-        
-        for (Map.Entry<ElementType, Double> entry : elementProbabilities.entrySet()) {
-            if (!excludedElements.contains(entry.getKey())) {
-                filteredProbabilities.put(entry.getKey(), entry.getValue());
-                totalProbability += entry.getValue();
-            }
-        }
-        
-        if (filteredProbabilities.isEmpty()) {
-            return null; // 没有可选的元素
-        }
-        
-        // 标准化概率，使其总和为1
-        Map<ElementType, Double> normalizedProbabilities = new HashMap<>();
-        for (Map.Entry<ElementType, Double> entry : filteredProbabilities.entrySet()) {
-            normalizedProbabilities.put(entry.getKey(), entry.getValue() / totalProbability);
+    private static void triggerHit(ElementTriggerSampler sampler, AttackerCombatProfile profile, SplittableRandom random,
+                                   LivingEntity attacker, LivingEntity target, float damage, DamageSource damageSource) {
+        // 从攻击者当前tick的属性快照读取元素属性，只收集物理、基础和复合元素
+        for (ElementType type : TRIGGER_ELEMENTS) {
+            sampler.add(type, profile.getElementValue(type));
         }
         
-        // 根据标准化概率随机选择一个元素
-        double random = RANDOM.nextDouble();
-        double cumulative = 0.0;
-        
-        for (Map.Entry<ElementType, Double> entry : normalizedProbabilities.entrySet()) {
-            cumulative += entry.getValue();
-            if (random <= cumulative) {
-                return entry.getKey();
-            }
+        // 检查攻击者是否有元素属性（没有元素或元素总值不大于0时不触发）
+        if (sampler.isEmpty()) {
+            return;
         }
         
-        // 如果由于浮点数精度问题没有选中，返回最后一个元素
-        return normalizedProbabilities.keySet().iterator().next();
+        // 按触发率判定是否触发和触发等级，再根据元素值占比抽取触发元素，
+        // 抽中的元素从候选中移除，确保不重复触发相同元素
+        double triggerChance = profile.getTriggerChance();
+        sampler.sampleTriggered(triggerChance, random::nextDouble,
+            selectedElement -> applyElementEffect(selectedElement, attacker, target, damage, damageSource));
     }
     
     /**
@@ -0,0 +1,42 @@
+package com.xlxyvergil.hamstercore.handler;
+
+import com.xlxyvergil.hamstercore.combat.WeightedSampler;
+import com.xlxyvergil.hamstercore.element.ElementType;
+
+/**
+ * 元素触发抽样器
+ * 按元素值加权、不放回地抽取触发元素，抽样算法见战斗核心的WeightedSampler
+ * 每个线程复用同一个实例，抽样过程不产生临时对象
+ */
+public class ElementTriggerSampler extends WeightedSampler<ElementType> {
+
+    private static final ThreadLocal<ElementTriggerSampler> INSTANCE = ThreadLocal.withInitial(ElementTriggerSampler::new);
+
+    private boolean inUse;
+
+    private ElementTriggerSampler() {
+        super(Math.max(16, ElementType.count()));
+    }
+
+    /**
+     * 获取当前线程的抽样器并清空，使用完毕后必须调用release()
+     * 如果线程的抽样器正被外层调用使用（例如效果施加过程中再次触发了伤害事件），返回一个新实例
+     * @return 抽样器
+     */
+    public static ElementTriggerSampler begin() {
+        ElementTriggerSampler sampler = INSTANCE.get();
+        if (sampler.inUse) {
+            sampler = new ElementTriggerSampler();
+        }
+        sampler.clear();
+        sampler.inUse = true;
+        return sampler;
+    }
+
+    /**
+     * 释放抽样器，供同一线程的下一次抽样复用
+     */
+    public void release() {
+        inUse = false;
+    }
+}
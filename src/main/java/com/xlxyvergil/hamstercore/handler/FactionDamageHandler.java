@@ -1,11 +1,11 @@
 package com.xlxyvergil.hamstercore.handler;
 
 
-import com.xlxyvergil.hamstercore.content.capability.entity.EntityArmorCapabilityProvider;
-import com.xlxyvergil.hamstercore.content.capability.entity.EntityFactionCapabilityProvider;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectManager;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectRegistry.Effects;
 import com.xlxyvergil.hamstercore.element.ElementType;
+import com.xlxyvergil.hamstercore.events.EntityInfoDisplayHandler;
+import com.xlxyvergil.hamstercore.events.PlayerLevelEvents;
 import com.xlxyvergil.hamstercore.faction.Faction;
 
 import net.minecraft.world.entity.Entity;
@@ -20,9 +20,19 @@ import net.minecraftforge.fml.common.Mod;
 @Mod.EventBusSubscriber(modid = "hamstercore")
 public class FactionDamageHandler {
     
-    
+    /**
+     * 伤害管线入口
+     * 以LOWEST优先级运行，护盾吸收等监听器先处理原始伤害；
+     * 计算完成后直接把CombatContext交给伤害信息显示和玩家经验，护盾完全吸收（伤害为0）的命中同样会处理
+     * 开启弹丸合并时，同一tick内的多发弹丸由PelletHitAggregator在tick结束时合并为一次受伤事件进入这里
+     */
     @SubscribeEvent(priority = EventPriority.LOWEST)
     public static void onLivingHurt(LivingHurtEvent event) {
+        // 状态伤害已经计算好，不再经过伤害管线
+        if (StatusDamage.isStatusDamage(event.getSource())) {
+            return;
+        }
+        
         // 获取被攻击的实体
         LivingEntity target = event.getEntity();
         
@@ -31,33 +41,30 @@ public class FactionDamageHandler {
         
         // 确保攻击者也是生物实体
         if (sourceEntity instanceof LivingEntity livingAttacker) {
-            // 获取攻击者使用的物品
-            ItemStack weapon = livingAttacker instanceof Player ? 
-                             ((Player) livingAttacker).getMainHandItem() : ItemStack.EMPTY;
+            // 合并结算的弹丸命中（见PelletHitAggregator），为null时是普通的单次命中
+            PelletHitAggregator.PelletGroup pellets = PelletHitAggregator.getSettling(target);
             
-            // 获取目标实体的派系
-            String targetFaction = target.getCapability(EntityFactionCapabilityProvider.CAPABILITY)
-                .map(factionCap -> {
-                    Faction faction = factionCap.getFaction();
-                    return faction != null ? faction.name() : "OROKIN";
-                })
-                .orElse("OROKIN");
+            // 获取攻击者使用的物品，合并结算时使用弹丸命中时的武器
+            ItemStack weapon = pellets != null ? pellets.getWeapon() :
+                             livingAttacker instanceof Player ? ((Player) livingAttacker).getMainHandItem() : ItemStack.EMPTY;
             
-            // 获取目标实体的护甲值
-            Double targetArmor = target.getCapability(EntityArmorCapabilityProvider.CAPABILITY)
-                .map(armorCap -> armorCap.getArmor())
-                .orElse(0.0);
+            // 获取目标实体的派系
+            Faction targetFaction = ElementDamageManager.getTargetFaction(target);
             
-            // 限制护甲值上限为2700
-            targetArmor = Math.min(targetArmor, 2700.0);
+            // 获取目标实体的护甲值（上限为2700）
+            double targetArmor = ElementDamageManager.getTargetArmor(target);
             
             // 使用公式 ID = BD × (1+HM) × 元素总倍率 × 暴击伤害 × (1-AM)
             // BD = 基础伤害
             float baseDamage = event.getAmount();
             
-            // 使用元素伤害管理器计算最终伤害，直接传递攻击者实体
-            ElementDamageManager.ElementDamageData damageData = 
-                ElementDamageManager.calculateElementDamage(livingAttacker, target, baseDamage, weapon, targetFaction, targetArmor);
+            // 合并结算时各发弹丸的基础伤害按护盾吸收后的剩余伤害等比例缩放
+            float[] pelletDamages = pellets != null ? pellets.getDamages(baseDamage) : null;
+            
+            // 使用元素伤害管理器计算最终伤害，直接传递攻击者实体；合并结算时系数只计算一次，暴击逐发判定
+            ElementDamageManager.ElementDamageData damageData = pellets != null
+                ? ElementDamageManager.calculateElementDamage(livingAttacker, target, pelletDamages, pellets.getCount(), weapon, targetFaction, targetArmor)
+                : ElementDamageManager.calculateElementDamage(livingAttacker, target, baseDamage, weapon, targetFaction, targetArmor);
             
             // 检查攻击者是否具有穿刺效果，如果有则降低其造成的伤害
             float finalDamage = damageData.getFinalDamage();
@@ -88,8 +95,19 @@ public class FactionDamageHandler {
             // 设置最终伤害（包含病毒和磁力增伤）
             event.setAmount(damageWithMagneticBonus);
             
-            // 处理元素触发效果，传递原始基础伤害，而不是包含所有倍率的最终伤害
-            ElementTriggerHandler.handleElementTriggers(livingAttacker, target, baseDamage, event.getSource());        
+            // 记录本次计算结果，供后续处理共享
+            CombatContext context = CombatContext.create(event, livingAttacker, target, weapon, targetFaction, targetArmor, damageData, damageWithMagneticBonus);
+            
+            // 处理元素触发效果，传递原始基础伤害，而不是包含所有倍率的最终伤害；合并结算时逐发判定
+            if (pellets != null) {
+                ElementTriggerHandler.handleElementTriggers(livingAttacker, target, pelletDamages, pellets.getCount(), event.getSource());
+            } else {
+                ElementTriggerHandler.handleElementTriggers(livingAttacker, target, baseDamage, event.getSource());
+            }
+            
+            // 玩家经验和伤害信息显示（显示包含本次触发的元素）
+            PlayerLevelEvents.onCombatHit(context);
+            EntityInfoDisplayHandler.onCombatHit(context);
         }
     }
     
@@ -109,7 +127,7 @@ public class FactionDamageHandler {
      * @param amplifier 效果等级 (0-9，对应1-10级)
      * @return 伤害增幅倍率
      */
-    private static double calculateViralDamageMultiplier(int amplifier) {
+    static double calculateViralDamageMultiplier(int amplifier) {
         // 第1层提高100%，后续每级提高25%
         // 1级: 1.0 + 1.0 = 2.0 (100%增幅)
         // 2级: 1.0 + 1.0 + 0.25 = 2.25 (125%增幅)
@@ -0,0 +1,197 @@
+package com.xlxyvergil.hamstercore.handler;
+
+import com.xlxyvergil.hamstercore.config.CombatConfig;
+import net.minecraft.world.damagesource.DamageSource;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.living.LivingHurtEvent;
+import net.minecraftforge.event.entity.living.LivingKnockBackEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 弹丸命中合并
+ * TacZ霰弹枪和高射速枪械在同一tick内对同一目标产生多个受伤事件，每个事件都会经过完整的伤害管线、
+ * 各自判定元素触发并发送一次护盾同步包
+ *
+ * 开启CombatConfig.aggregatePelletHits后，弹射物（伤害的直接来源不是攻击者本身）的命中在受伤事件的最早阶段记录下来并取消，
+ * 同一攻击者在同一tick内对同一目标的所有命中在服务端tick结束时合并为一次伤害：
+ * 基础伤害相加后只调用一次hurt，护盾只吸收和同步一次，伤害管线只计算一次攻击者侧和目标侧的系数，
+ * 暴击和元素触发仍按弹丸逐发判定（见ElementDamageManager和ElementTriggerHandler的多发弹丸版本），
+ * 伤害信息显示和玩家经验也只处理一次
+ * 只应在服务端主线程上使用
+ */
+@Mod.EventBusSubscriber(modid = "hamstercore")
+public class PelletHitAggregator {
+
+    // 攻击者 -> 目标 -> 本tick待结算的弹丸
+    private static final Map<LivingEntity, Map<LivingEntity, PelletGroup>> PENDING = new IdentityHashMap<>();
+
+    // 正在结算的合并命中，结算期间伤害管线通过getSettling读取各发弹丸的伤害
+    private static PelletGroup settling;
+
+    /**
+     * 同一攻击者在同一tick内对同一目标的弹丸命中
+     */
+    public static final class PelletGroup {
+        private final LivingEntity target;
+        private final DamageSource source; // 第一发弹丸的伤害源
+        private final ItemStack weapon;    // 第一发弹丸命中时攻击者的主手物品
+        private float[] damages = new float[8];
+        private int count;
+        private float totalDamage;
+
+        private PelletGroup(LivingEntity target, DamageSource source, ItemStack weapon) {
+            this.target = target;
+            this.source = source;
+            this.weapon = weapon;
+        }
+
+        private void add(float damage) {
+            if (count == damages.length) {
+                damages = Arrays.copyOf(damages, count * 2);
+            }
+            damages[count++] = damage;
+            totalDamage += damage;
+        }
+
+        public ItemStack getWeapon() {
+            return weapon;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * 获取各发弹丸的伤害，按比例缩放到指定的总伤害（例如护盾吸收后剩余的伤害）
+         * @param total 缩放后的总伤害
+         * @return 各发弹丸的伤害，前getCount()个有效
+         */
+        public float[] getDamages(float total) {
+            float scale = totalDamage > 0 ? total / totalDamage : 0.0F;
+            if (scale != 1.0F) {
+                for (int i = 0; i < count; i++) {
+                    damages[i] *= scale;
+                }
+                totalDamage = total;
+            }
+            return damages;
+        }
+    }
+
+    /**
+     * 获取正在对目标结算的合并命中
+     * @param target 受伤实体
+     * @return 合并命中，不在结算中时返回null
+     */
+    public static PelletGroup getSettling(LivingEntity target) {
+        PelletGroup current = settling;
+        return current != null && current.target == target ? current : null;
+    }
+
+    /**
+     * 在护盾和伤害管线之前记录弹射物的命中并取消本次受伤事件
+     */
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onLivingHurt(LivingHurtEvent event) {
+        if (!CombatConfig.getInstance().isAggregatePelletHits()) {
+            return;
+        }
+
+        LivingEntity target = event.getEntity();
+        if (target.level().isClientSide() || getSettling(target) != null) {
+            return;
+        }
+
+        // 状态伤害已经在StatusDamage中按实体合并
+        DamageSource source = event.getSource();
+        if (StatusDamage.isStatusDamage(source)) {
+            return;
+        }
+
+        // 只合并弹射物的命中（TacZ子弹的直接来源是子弹实体）
+        if (!(source.getEntity() instanceof LivingEntity attacker) || source.getDirectEntity() == attacker) {
+            return;
+        }
+
+        float amount = event.getAmount();
+        if (amount <= 0) {
+            return;
+        }
+
+        Map<LivingEntity, PelletGroup> groups = PENDING.get(attacker);
+        if (groups == null) {
+            groups = new IdentityHashMap<>();
+            PENDING.put(attacker, groups);
+        }
+        PelletGroup group = groups.get(target);
+        if (group == null) {
+            ItemStack weapon = attacker instanceof Player player ? player.getMainHandItem() : ItemStack.EMPTY;
+            group = new PelletGroup(target, source, weapon);
+            groups.put(target, group);
+        }
+        group.add(amount);
+        event.setCanceled(true);
+    }
+
+    /**
+     * 每发弹丸命中时已经产生过击退，合并结算的伤害不再重复击退
+     */
+    @SubscribeEvent
+    public static void onKnockBack(LivingKnockBackEvent event) {
+        if (getSettling(event.getEntity()) != null) {
+            event.setCanceled(true);
+        }
+    }
+
+    /**
+     * 服务端tick结束时结算所有合并的弹丸命中
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || PENDING.isEmpty()) {
+            return;
+        }
+
+        // 伤害可能导致实体死亡并触发其他逻辑，先取出待处理列表，处理过程中新增的命中留到下一tick
+        List<PelletGroup> groups = new ArrayList<>();
+        for (Map<LivingEntity, PelletGroup> byTarget : PENDING.values()) {
+            groups.addAll(byTarget.values());
+        }
+        PENDING.clear();
+
+        for (PelletGroup group : groups) {
+            LivingEntity target = group.target;
+            if (target.isRemoved() || !target.isAlive()) {
+                continue;
+            }
+            settling = group;
+            try {
+                // 弹丸命中时已经进入受伤冷却，合并后的伤害作为一次新的命中结算
+                target.invulnerableTime = 0;
+                target.hurt(group.source, group.totalDamage);
+            } finally {
+                settling = null;
+            }
+        }
+    }
+
+    /**
+     * 服务器关闭时丢弃未结算的命中
+     */
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        PENDING.clear();
+    }
+}
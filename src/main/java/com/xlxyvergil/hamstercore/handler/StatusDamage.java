@@ -0,0 +1,230 @@
+package com.xlxyvergil.hamstercore.handler;
+
+import com.xlxyvergil.hamstercore.element.ElementType;
+import com.xlxyvergil.hamstercore.element.effect.ElementEffectRegistry.Effects;
+import com.xlxyvergil.hamstercore.element.effect.StatusBudget;
+import com.xlxyvergil.hamstercore.events.ShieldEvents;
+import com.xlxyvergil.hamstercore.level.PlayerLevelManager;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.damagesource.DamageSource;
+import net.minecraft.world.damagesource.DamageType;
+import net.minecraft.world.effect.MobEffectInstance;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 状态伤害通道
+ * DoT（出血、火焰、毒素、电击、毒气等）的伤害在施加状态时已经按攻击者的元素、派系和护甲计算好，
+ * 以前每次跳伤都用攻击伤害源调用hurt，会再次经过FactionDamageHandler的完整伤害管线（重新计算元素倍率和护甲），
+ * 再由护盾、经验、信息显示等监听器各处理一遍
+ *
+ * 状态伤害使用独立的伤害类型hamstercore:status（忽略原版护甲、盾牌，不产生受击冲击），
+ * 伤害管线的各个监听器遇到该类型时直接跳过；这里只做最少的处理：
+ * 病毒增伤 -> 护盾吸收 -> 扣除生命值 -> 给攻击玩家记一次经验
+ *
+ * DoT跳伤通过queue按实体合并，在服务端tick结束时每个实体只结算一次：
+ * 一个实体身上同一tick到期的所有DoT条目和状态效果伤害相加后只调用一次hurt，
+ * 只触发一次无敌帧判定、受伤动画和同步包；所有状态伤害同属hamstercore:status一种伤害类型，因此按实体而不是按元素合并，
+ * 但各元素的伤害分别累计：结算期间（受伤事件的监听器中）可通过getElementDamage读取，
+ * 结算完成后发布StatusDamageEvent，携带各元素的伤害
+ * 只应在服务端主线程上使用
+ */
+@Mod.EventBusSubscriber(modid = "hamstercore")
+public class StatusDamage {
+
+    // 状态伤害类型
+    public static final ResourceKey<DamageType> STATUS = ResourceKey.create(Registries.DAMAGE_TYPE, new ResourceLocation("hamstercore", "status"));
+
+    // 实体 -> 本tick待结算的状态伤害
+    private static final Map<LivingEntity, PendingDamage> PENDING = new IdentityHashMap<>();
+
+    // 正在结算的状态伤害，结算期间供伤害事件的监听器读取各元素的伤害
+    private static PendingDamage settling;
+
+    /**
+     * 一个实体本tick待结算的状态伤害
+     */
+    private static class PendingDamage {
+        private float[] elementDamage = new float[ElementType.count()];
+        private float total;
+        private Entity attacker;
+
+        private void add(ElementType element, float amount, Entity source) {
+            if (element != null) {
+                int index = element.ordinal();
+                if (index >= elementDamage.length) {
+                    // 运行期间通过API注册了新的元素类型
+                    elementDamage = Arrays.copyOf(elementDamage, ElementType.count());
+                }
+                elementDamage[index] += amount;
+            }
+            total += amount;
+            // 优先记录玩家攻击者，保证经验和击杀归属
+            if (source != null && (attacker == null || (source instanceof Player && !(attacker instanceof Player)))) {
+                attacker = source;
+            }
+        }
+    }
+
+    /**
+     * 判断伤害源是否为状态伤害
+     * @param source 伤害源
+     * @return 是否为状态伤害
+     */
+    public static boolean isStatusDamage(DamageSource source) {
+        return source.is(STATUS);
+    }
+
+    /**
+     * 创建状态伤害源
+     * @param target 受伤实体
+     * @param attacker 施加状态的攻击者，可能为null
+     * @return 状态伤害源
+     */
+    public static DamageSource source(LivingEntity target, Entity attacker) {
+        return new DamageSource(target.level().registryAccess().registryOrThrow(Registries.DAMAGE_TYPE).getHolderOrThrow(STATUS), attacker);
+    }
+
+    /**
+     * 将一次DoT跳伤加入本tick的结算，同一实体在同一tick内的所有跳伤在tick结束时合并为一次伤害
+     * @param target 受伤实体
+     * @param element 伤害的元素类型，可能为null
+     * @param amount 伤害值
+     * @param attacker 施加状态的攻击者，可能为null
+     */
+    public static void queue(LivingEntity target, ElementType element, float amount, Entity attacker) {
+        if (amount <= 0 || target.level().isClientSide()) {
+            return;
+        }
+        PendingDamage pending = PENDING.get(target);
+        if (pending == null) {
+            pending = new PendingDamage();
+            PENDING.put(target, pending);
+        }
+        pending.add(element, amount, attacker);
+    }
+
+    /**
+     * 获取正在结算的状态伤害中某个元素的伤害，供伤害事件监听器（统计、显示）使用
+     * @param element 元素类型
+     * @return 该元素的伤害值，不在结算中时返回0
+     */
+    public static float getElementDamage(ElementType element) {
+        PendingDamage current = settling;
+        if (current == null || element.ordinal() >= current.elementDamage.length) {
+            return 0.0F;
+        }
+        return current.elementDamage[element.ordinal()];
+    }
+
+    /**
+     * 服务端tick结束时结算所有待处理的状态伤害
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || PENDING.isEmpty()) {
+            return;
+        }
+
+        // 伤害可能导致实体死亡并触发其他逻辑，先取出待处理列表，处理过程中新增的跳伤留到下一tick
+        List<Map.Entry<LivingEntity, PendingDamage>> entries = new ArrayList<>(PENDING.entrySet());
+        PENDING.clear();
+
+        for (Map.Entry<LivingEntity, PendingDamage> entry : entries) {
+            LivingEntity target = entry.getKey();
+            if (target.isRemoved() || !target.isAlive()) {
+                continue;
+            }
+            PendingDamage pending = entry.getValue();
+            settling = pending;
+            try {
+                // DoT伤害是关键工作，总是立即结算，只计入时间预算
+                StatusBudget.measure(StatusBudget.Subsystem.DOT, () -> {
+                    if (apply(target, pending.total, pending.attacker)) {
+                        // 结算完成后把各元素的伤害发布给统计、显示等监听器
+                        MinecraftForge.EVENT_BUS.post(new StatusDamageEvent(target, pending.attacker, pending.total, pending.elementDamage));
+                    }
+                });
+            } finally {
+                settling = null;
+            }
+        }
+    }
+
+    /**
+     * 服务器关闭时丢弃未结算的伤害
+     */
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        PENDING.clear();
+    }
+
+    /**
+     * 对实体造成已经计算好的状态伤害
+     * @param target 受伤实体
+     * @param amount 伤害值
+     * @param attacker 施加状态的攻击者，可能为null
+     * @return 是否造成了伤害（包括被护盾完全吸收的情况）
+     */
+    public static boolean apply(LivingEntity target, float amount, Entity attacker) {
+        if (amount <= 0 || target.level().isClientSide() || !target.isAlive()) {
+            return false;
+        }
+
+        // 病毒效果对状态伤害同样生效
+        MobEffectInstance viralEffect = target.getEffect(Effects.VIRAL.get());
+        if (viralEffect != null) {
+            amount = amount * (float) FactionDamageHandler.calculateViralDamageMultiplier(viralEffect.getAmplifier());
+        }
+
+        // 护盾吸收，同一tick内的多次护盾变化在tick结束时只同步一次
+        float remaining = ShieldEvents.absorbDamage(target, amount, attacker, true);
+
+        boolean damaged = true;
+        if (remaining > 0) {
+            // 设置正在处理DoT伤害的标志，防止DoT伤害触发新的元素效果
+            ElementTriggerHandler.setProcessingDotDamage(true);
+            try {
+                damaged = target.hurt(source(target, attacker), remaining);
+            } finally {
+                // 确保在伤害处理完成后重置标志
+                ElementTriggerHandler.setProcessingDotDamage(false);
+            }
+        }
+
+        if (damaged) {
+            creditExperience(target, amount, attacker);
+        }
+        return damaged;
+    }
+
+    /**
+     * 玩家造成状态伤害时获得经验：每5点伤害获得1点经验，至少1点
+     * 与PlayerLevelEvents中普通伤害的经验规则相同
+     */
+    private static void creditExperience(LivingEntity target, float damage, Entity attacker) {
+        if (attacker instanceof Player player && !(target instanceof Player)) {
+            int experience = (int) (damage / 5.0f);
+            if (damage > 0 && experience == 0) {
+                experience = 1;
+            }
+            if (experience > 0) {
+                PlayerLevelManager.addExperience(player, experience);
+            }
+        }
+    }
+}
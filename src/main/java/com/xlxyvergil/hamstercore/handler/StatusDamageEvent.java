@@ -0,0 +1,53 @@
+package com.xlxyvergil.hamstercore.handler;
+
+import com.xlxyvergil.hamstercore.element.ElementType;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraftforge.eventbus.api.Event;
+
+/**
+ * 状态伤害结算事件
+ * StatusDamage在服务端tick结束时对一个实体结算完本tick合并的DoT伤害后发布，
+ * 携带各元素的伤害，供统计、显示等监听器使用
+ */
+public class StatusDamageEvent extends Event {
+    private final LivingEntity target;
+    private final Entity attacker;
+    private final float totalDamage;
+    private final float[] elementDamage;
+
+    public StatusDamageEvent(LivingEntity target, Entity attacker, float totalDamage, float[] elementDamage) {
+        this.target = target;
+        this.attacker = attacker;
+        this.totalDamage = totalDamage;
+        this.elementDamage = elementDamage;
+    }
+
+    public LivingEntity getTarget() {
+        return target;
+    }
+
+    /**
+     * 获取施加状态的攻击者，有多个攻击者时优先为玩家，可能为null
+     */
+    public Entity getAttacker() {
+        return attacker;
+    }
+
+    /**
+     * 获取本次结算的总伤害（病毒增伤和护盾吸收之前）
+     */
+    public float getTotalDamage() {
+        return totalDamage;
+    }
+
+    /**
+     * 获取某个元素在本次结算中的伤害
+     * @param element 元素类型
+     * @return 该元素的伤害值，没有该元素时返回0
+     */
+    public float getElementDamage(ElementType element) {
+        int index = element.ordinal();
+        return index < elementDamage.length ? elementDamage[index] : 0.0F;
+    }
+}
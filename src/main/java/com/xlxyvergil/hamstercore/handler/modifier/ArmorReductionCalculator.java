@@ -1,5 +1,6 @@
 package com.xlxyvergil.hamstercore.handler.modifier;
 
+import com.xlxyvergil.hamstercore.combat.CombatMath;
 import net.minecraft.world.entity.LivingEntity;
 
 /**
@@ -41,10 +42,19 @@ public class ArmorReductionCalculator {
      * @return 护甲减免计算结果
      */
     public static ArmorReductionResult calculateArmorReduction(LivingEntity target, Double targetArmor) {
-        // 计算AM = 0.9 × √(AR/2700)
-        double AM = 0.9 * Math.sqrt(targetArmor / 2700.0);
+        double AM = calculateArmorModifier(targetArmor);
         double reduction = 1.0 - AM;
         
         return new ArmorReductionResult(reduction, targetArmor, AM);
     }
+    
+    /**
+     * 计算AM值（伤害计算快速路径）
+     * @param targetArmor 目标护甲值
+     * @return AM值，护甲减免系数为 1-AM
+     */
+    public static double calculateArmorModifier(double targetArmor) {
+        // 计算AM = 0.9 × √(AR/2700)
+        return CombatMath.armorModifier(targetArmor);
+    }
 }
\ No newline at end of file
@@ -1,14 +1,16 @@
 package com.xlxyvergil.hamstercore.handler.modifier;
 
+import com.xlxyvergil.hamstercore.combat.CombatMath;
 import com.xlxyvergil.hamstercore.element.ElementType;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectManager;
 import com.xlxyvergil.hamstercore.element.effect.ElementEffectRegistry.Effects;
-import com.xlxyvergil.hamstercore.util.AttributeHelper;
+import com.xlxyvergil.hamstercore.handler.AttackerCombatProfile;
+import com.xlxyvergil.hamstercore.handler.CombatRandom;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.item.ItemStack;
 
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * 暴击倍率计算器
@@ -52,11 +54,29 @@ public class CriticalMultiplierCalculator {
      * @return 暴击计算结果
      */
     public static CriticalResult calculateCriticalMultiplier(LivingEntity attacker, LivingEntity target, ItemStack weapon, Map<String, Double> specialAndFactionValues) {
-        double criticalMultiplier = 1.0; // 默认暴击倍率
-        
-        // 直接从实体获取暴击相关属性值
-        double criticalChance = AttributeHelper.getCriticalChance(attacker);
-        double criticalDamage = AttributeHelper.getCriticalDamage(attacker);
+        return calculateCriticalMultiplier(AttackerCombatProfile.of(attacker), target);
+    }
+    
+    /**
+     * 计算暴击倍率（从攻击者属性快照读取暴击属性）- 返回详细结果，既用于显示也用于计算
+     * @param profile 攻击者属性快照
+     * @param target 被攻击者
+     * @return 暴击计算结果
+     */
+    public static CriticalResult calculateCriticalMultiplier(AttackerCombatProfile profile, LivingEntity target) {
+        double criticalDamage = getEffectiveCriticalDamage(profile, target);
+        int criticalLevel = rollCriticalLevel(getEffectiveCriticalChance(profile, target), CombatRandom.get(target.level()));
+        return new CriticalResult(calculateMultiplier(criticalLevel, criticalDamage), criticalLevel, criticalDamage);
+    }
+    
+    /**
+     * 获取计入目标穿刺效果后的暴击率
+     * @param profile 攻击者属性快照
+     * @param target 被攻击者
+     * @return 暴击率
+     */
+    public static double getEffectiveCriticalChance(AttackerCombatProfile profile, LivingEntity target) {
+        double criticalChance = profile.getCriticalChance();
         
         // 检查被攻击者是否具有穿刺效果，如果有则增加暴击几率
         var punctureEffect = target.getEffect(Effects.PUNCTURE.get());
@@ -66,6 +86,17 @@ public class CriticalMultiplierCalculator {
             double punctureCriticalBonus = amplifier * 0.05;
             criticalChance += punctureCriticalBonus;
         }
+        return criticalChance;
+    }
+    
+    /**
+     * 获取计入目标冰冻效果后的暴击伤害
+     * @param profile 攻击者属性快照
+     * @param target 被攻击者
+     * @return 暴击伤害
+     */
+    public static double getEffectiveCriticalDamage(AttackerCombatProfile profile, LivingEntity target) {
+        double criticalDamage = profile.getCriticalDamage();
 
         // 检查被攻击者是否具有冰冻效果，如果有则增加暴击伤害
         var coldEffect = target.getEffect(Effects.COLD.get());
@@ -75,49 +106,26 @@ public class CriticalMultiplierCalculator {
             double coldCriticalDamageBonus = amplifier * 0.20;
             criticalDamage += coldCriticalDamageBonus;
         }
-        
-        // 使用Random判断暴击等级
-        Random random = new Random();
-        // 暴击等级判断逻辑：
-        // 每个暴击等级需要100%的暴击率，超出保底的部分由随机数决定是否达到更高等级
-        // 例如：150%暴击率 = 保底1级 + 50%概率达到2级
-        
-        double chancePercent = criticalChance * 100;
-        int guaranteedCriticalLevel = (int) Math.floor((chancePercent + 100) / 100) - 1; // 保底暴击等级
-        int maxCriticalLevel = (int) Math.floor((chancePercent + 100) / 100); // 最大可能暴击等级
-        double extraChance = chancePercent - (guaranteedCriticalLevel * 100); // 超出保底等级的部分
-        
-        // 确保暴击等级至少为0
-        if (guaranteedCriticalLevel < 0) {
-            guaranteedCriticalLevel = 0;
-        }
-        
-        if (maxCriticalLevel < 0) {
-            maxCriticalLevel = 0;
-        }
-        
-        // 先判断随机数是否达到更高等级
-        int criticalLevel;
-        if (random.nextDouble() * 100 < extraChance) {
-            // 达到更高暴击等级
-            criticalLevel = maxCriticalLevel;
-        } else {
-            // 保底暴击等级
-            criticalLevel = guaranteedCriticalLevel;
-        }
-        
-        // 暴击倍率计算公式：
-        // 暴击倍率 = 1 + 暴击等级 × (暴击伤害 - 1)
-        // 其中：
-        // - 暴击伤害：从实体获取的已经过基础暴击伤害计算的完整值
-        // - 暴击等级：根据暴击率计算得出
-        
-        // 从实体获取的暴击伤害值（已经是经过基础暴击伤害计算的完整值）
-        double totalCriticalDamage = criticalDamage;
-        
-        // 计算最终暴击倍率（基于暴击等级的增幅），确保至少为1.0
-        criticalMultiplier = Math.max(1.0, 1 + criticalLevel * (totalCriticalDamage - 1));
-        
-        return new CriticalResult(criticalMultiplier, criticalLevel, criticalDamage);
+        return criticalDamage;
+    }
+    
+    /**
+     * 根据暴击率判定暴击等级，见CombatMath.criticalLevel
+     * @param criticalChance 暴击率
+     * @param random 战斗随机数流
+     * @return 暴击等级
+     */
+    public static int rollCriticalLevel(double criticalChance, SplittableRandom random) {
+        return CombatMath.criticalLevel(criticalChance, random.nextDouble());
+    }
+    
+    /**
+     * 计算暴击倍率，见CombatMath.criticalMultiplier
+     * @param criticalLevel 暴击等级
+     * @param criticalDamage 暴击伤害
+     * @return 暴击倍率
+     */
+    public static double calculateMultiplier(int criticalLevel, double criticalDamage) {
+        return CombatMath.criticalMultiplier(criticalLevel, criticalDamage);
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,10 @@
 package com.xlxyvergil.hamstercore.handler.modifier;
 
-import com.xlxyvergil.hamstercore.util.AttributeHelper;
+import com.xlxyvergil.hamstercore.combat.CombatMath;
+import com.xlxyvergil.hamstercore.config.FactionResistanceConfig;
+import com.xlxyvergil.hamstercore.element.ElementType;
+import com.xlxyvergil.hamstercore.faction.Faction;
+import com.xlxyvergil.hamstercore.handler.AttackerCombatProfile;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -32,50 +36,74 @@ public class FactionModifierCalculator {
         }
     }
     
-    // 派系克制关系表
-    private static final Map<String, Map<String, Double>> FACTION_RESISTANCES = new HashMap<>();
+    // 派系克制系数矩阵 [派系序号][元素序号]，由FactionResistanceConfig编译
+    private static volatile double[][] resistanceMatrix;
+    
+    // 参与派系克制判定的元素（派系元素、复合元素、物理元素），按判定顺序排列
+    private static final ElementType[] RESISTANCE_ELEMENTS = {
+        ElementType.GRINEER, ElementType.INFESTED, ElementType.CORPUS,
+        ElementType.OROKIN, ElementType.SENTIENT, ElementType.MURMUR,
+        ElementType.BLAST, ElementType.CORROSIVE, ElementType.GAS,
+        ElementType.MAGNETIC, ElementType.RADIATION, ElementType.VIRAL,
+        ElementType.IMPACT, ElementType.PUNCTURE, ElementType.SLASH
+    };
+    
+    // 参与派系克制判定的元素序号
+    private static final int[] RESISTANCE_ORDINALS = new int[RESISTANCE_ELEMENTS.length];
     
     static {
-        // Grineer: 冲击+50% 腐蚀+50%
-        Map<String, Double> grineerResistances = new HashMap<>();
-        grineerResistances.put("impact", 0.5);
-        grineerResistances.put("corrosive", 0.5);
-        FACTION_RESISTANCES.put("grineer", grineerResistances);
-        
-        // Infested: 切割+50% 火焰+50%
-        Map<String, Double> infestedResistances = new HashMap<>();
-        infestedResistances.put("slash", 0.5);
-        infestedResistances.put("heat", 0.5);
-        FACTION_RESISTANCES.put("infested", infestedResistances);
-        
-        // Corpus: 穿刺+50% 磁力+50%
-        Map<String, Double> corpusResistances = new HashMap<>();
-        corpusResistances.put("puncture", 0.5);
-        corpusResistances.put("magnetic", 0.5);
-        FACTION_RESISTANCES.put("corpus", corpusResistances);
-        
-        // Orokin: 穿刺+50% 病毒+50% 辐射-50%
-        Map<String, Double> orokinResistances = new HashMap<>();
-        orokinResistances.put("puncture", 0.5);
-        orokinResistances.put("viral", 0.5);
-        orokinResistances.put("radiation", -0.5); // 负值表示弱点
-        FACTION_RESISTANCES.put("orokin", orokinResistances);
-        
-        // Sentient: 冰冻+50% 辐射+50% 腐蚀-50%
-        Map<String, Double> sentientResistances = new HashMap<>();
-        sentientResistances.put("cold", 0.5);
-        sentientResistances.put("radiation", 0.5);
-        sentientResistances.put("corrosive", -0.5); // 负值表示弱点
-        FACTION_RESISTANCES.put("sentient", sentientResistances);
-        
-        // Murmur: 电击+50% 辐射+50% 病毒-50%
-        Map<String, Double> murmurResistances = new HashMap<>();
-        murmurResistances.put("electricity", 0.5);
-        murmurResistances.put("radiation", 0.5);
-        murmurResistances.put("viral", -0.5); // 负值表示弱点
-        FACTION_RESISTANCES.put("murmur", murmurResistances);
+        for (int i = 0; i < RESISTANCE_ELEMENTS.length; i++) {
+            RESISTANCE_ORDINALS[i] = RESISTANCE_ELEMENTS[i].ordinal();
+        }
+    }
+    
+    /**
+     * 获取派系克制系数矩阵，首次使用时从配置编译
+     */
+    private static double[][] getResistanceMatrix() {
+        double[][] matrix = resistanceMatrix;
+        if (matrix == null) {
+            matrix = FactionResistanceConfig.getInstance().compileMatrix();
+            resistanceMatrix = matrix;
+        }
+        return matrix;
     }
     
+    /**
+     * 重新加载派系克制配置并重新编译矩阵
+     */
+    public static void reloadResistances() {
+        resistanceMatrix = FactionResistanceConfig.load().compileMatrix();
+    }
+    
+    /**
+     * 获取派系对指定元素的克制系数
+     * @param faction 派系
+     * @param type 元素类型
+     * @return 克制系数，没有克制关系时为0
+     */
+    public static double getResistance(Faction faction, ElementType type) {
+        double[] row = getResistanceMatrix()[faction.ordinal()];
+        int ordinal = type.ordinal();
+        return ordinal < row.length ? row[ordinal] : 0.0;
+    }
+    
+    /**
+     * 按名称解析派系（不区分大小写）
+     * @param factionName 派系名
+     * @return 派系，未知派系返回null
+     */
+    public static Faction parseFaction(String factionName) {
+        if (factionName == null) {
+            return null;
+        }
+        for (Faction faction : Faction.values()) {
+            if (faction.name().equalsIgnoreCase(factionName)) {
+                return faction;
+            }
+        }
+        return null;
+    }
     
     /**
      * 计算针对特定派系的HM值（派系克制系数）- 返回详细结果，既用于显示也用于计算
@@ -88,160 +116,60 @@ public class FactionModifierCalculator {
         if (attacker == null || targetFaction == null) {
             return new FactionResult(0.0, new HashMap<>());
         }
-        
-        // 获取目标派系的克制关系
-        String factionName = targetFaction.toLowerCase();
-        Map<String, Double> resistances = FACTION_RESISTANCES.get(factionName);
-        if (resistances == null) {
-            return new FactionResult(0.0, new HashMap<>()); // 未知派系，无克制关系
+        return calculateFactionModifier(AttackerCombatProfile.of(attacker), parseFaction(targetFaction));
+    }
+    
+    /**
+     * 计算针对特定派系的HM值（从攻击者属性快照读取）
+     * HM = 派系元素数据值 + 克制系数
+     * @param profile 攻击者属性快照
+     * @param targetFaction 目标派系
+     * @return 派系克制计算结果
+     */
+    public static FactionResult calculateFactionModifier(AttackerCombatProfile profile, Faction targetFaction) {
+        if (profile == null || targetFaction == null) {
+            return new FactionResult(0.0, new HashMap<>());
         }
         
-        // 计算HM值：基于元素类型和派系克制关系
-        double hm = 0.0;
-        Map<String, Double> breakdown = new HashMap<>();
-        
-        // 从攻击者实体获取派系元素值
-        double grineerValue = AttributeHelper.getGrineer(attacker);
-        double infestedValue = AttributeHelper.getInfested(attacker);
-        double corpusValue = AttributeHelper.getCorpus(attacker);
-        double orokinValue = AttributeHelper.getOrokin(attacker);
-        double sentientValue = AttributeHelper.getSentient(attacker);
-        double murmurValue = AttributeHelper.getMurmur(attacker);
-        
-        // 计算派系元素总值
-        double totalFactionValue = grineerValue + infestedValue + corpusValue + orokinValue + sentientValue + murmurValue;
-        
-        // 获取武器所有有克制关系的元素，并累加克制系数
-        double totalResistance = 0.0;
-        Map<String, Double> resistanceBreakdown = new HashMap<>();
-        
-        // 检查派系元素
-        if (grineerValue > 0) {
-            Double resistance = resistances.get("grineer");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("grineer", resistance);
-            }
-        }
-        if (infestedValue > 0) {
-            Double resistance = resistances.get("infested");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("infested", resistance);
-            }
-        }
-        if (corpusValue > 0) {
-            Double resistance = resistances.get("corpus");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("corpus", resistance);
-            }
-        }
-        if (orokinValue > 0) {
-            Double resistance = resistances.get("orokin");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("orokin", resistance);
-            }
-        }
-        if (sentientValue > 0) {
-            Double resistance = resistances.get("sentient");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("sentient", resistance);
-            }
-        }
-        if (murmurValue > 0) {
-            Double resistance = resistances.get("murmur");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("murmur", resistance);
-            }
+        return new FactionResult(calculateFactionModifierValue(profile, targetFaction), calculateFactionBreakdown(profile, targetFaction));
+    }
+    
+    /**
+     * 只计算HM值，不构建分解表，不产生临时对象（伤害计算快速路径）
+     * 克制系数之和为攻击者元素（大于0的记为1）与派系克制矩阵对应行的点积
+     * @param profile 攻击者属性快照
+     * @param targetFaction 目标派系
+     * @return HM值
+     */
+    public static double calculateFactionModifierValue(AttackerCombatProfile profile, Faction targetFaction) {
+        if (profile == null || targetFaction == null) {
+            return 0.0; // 未知派系，无克制关系
         }
         
-        // 检查复合元素
-        double blastValue = AttributeHelper.getBlast(attacker);
-        double corrosiveValue = AttributeHelper.getCorrosive(attacker);
-        double gasValue = AttributeHelper.getGas(attacker);
-        double magneticValue = AttributeHelper.getMagnetic(attacker);
-        double radiationValue = AttributeHelper.getRadiation(attacker);
-        double viralValue = AttributeHelper.getViral(attacker);
-        
-        if (blastValue > 0) {
-            Double resistance = resistances.get("blast");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("blast", resistance);
-            }
-        }
-        if (corrosiveValue > 0) {
-            Double resistance = resistances.get("corrosive");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("corrosive", resistance);
-            }
-        }
-        if (gasValue > 0) {
-            Double resistance = resistances.get("gas");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("gas", resistance);
-            }
-        }
-        if (magneticValue > 0) {
-            Double resistance = resistances.get("magnetic");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("magnetic", resistance);
-            }
-        }
-        if (radiationValue > 0) {
-            Double resistance = resistances.get("radiation");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("radiation", resistance);
-            }
-        }
-        if (viralValue > 0) {
-            Double resistance = resistances.get("viral");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("viral", resistance);
-            }
+        // HM = 派系元素数据值 + 总克制系数
+        return CombatMath.factionModifier(profile.getTotalFactionValue(), profile.getElementValues(),
+            RESISTANCE_ORDINALS, getResistanceMatrix()[targetFaction.ordinal()]);
+    }
+    
+    /**
+     * 构建各元素的克制系数分解（仅在显示或API需要时调用）
+     * @param profile 攻击者属性快照
+     * @param targetFaction 目标派系
+     * @return 元素名 -> 克制系数
+     */
+    public static Map<String, Double> calculateFactionBreakdown(AttackerCombatProfile profile, Faction targetFaction) {
+        Map<String, Double> breakdown = new HashMap<>();
+        if (profile == null || targetFaction == null) {
+            return breakdown;
         }
         
-        // 检查物理元素
-        double impactValue = AttributeHelper.getImpact(attacker);
-        double punctureValue = AttributeHelper.getPuncture(attacker);
-        double slashValue = AttributeHelper.getSlash(attacker);
-        
-        if (impactValue > 0) {
-            Double resistance = resistances.get("impact");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("impact", resistance);
-            }
-        }
-        if (punctureValue > 0) {
-            Double resistance = resistances.get("puncture");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("puncture", resistance);
-            }
-        }
-        if (slashValue > 0) {
-            Double resistance = resistances.get("slash");
-            if (resistance != null) {
-                totalResistance += resistance;
-                resistanceBreakdown.put("slash", resistance);
+        double[] row = getResistanceMatrix()[targetFaction.ordinal()];
+        for (ElementType type : RESISTANCE_ELEMENTS) {
+            int ordinal = type.ordinal();
+            if (ordinal < row.length && row[ordinal] != 0.0 && profile.getElementValue(type) > 0) {
+                breakdown.put(type.getName(), row[ordinal]);
             }
         }
-        
-        breakdown.putAll(resistanceBreakdown);
-        
-        // HM = 派系元素数据值 + 总克制系数
-        hm = totalFactionValue + totalResistance;
-        
-        return new FactionResult(hm, breakdown);
+        return breakdown;
     }
-}
\ No newline at end of file
+}
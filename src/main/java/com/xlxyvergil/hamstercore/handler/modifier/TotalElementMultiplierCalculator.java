@@ -1,6 +1,8 @@
 package com.xlxyvergil.hamstercore.handler.modifier;
 
-import com.xlxyvergil.hamstercore.util.AttributeHelper;
+import com.xlxyvergil.hamstercore.combat.CombatMath;
+import com.xlxyvergil.hamstercore.element.ElementType;
+import com.xlxyvergil.hamstercore.handler.AttackerCombatProfile;
 import net.minecraft.world.entity.LivingEntity;
 
 import java.util.Map;
@@ -39,92 +41,43 @@ public class TotalElementMultiplierCalculator {
      * @return 总元素倍率计算结果
      */
     public static TotalElementResult calculateTotalElementMultiplier(LivingEntity attacker) {
-        double totalElementMultiplier = 0.0; // 默认总元素倍率为0.0（无加成）
-        Map<String, Double> breakdown = new HashMap<>();
-        
-        // 计算所有元素总倍率（所有元素倍率之和）
-        double totalRatio = 0.0;
-        
-        // 从实体获取基础元素的值
-        double heatValue = AttributeHelper.getHeat(attacker);
-        double coldValue = AttributeHelper.getCold(attacker);
-        double electricityValue = AttributeHelper.getElectricity(attacker);
-        double toxinValue = AttributeHelper.getToxin(attacker);
-        
-        // 从实体获取复合元素的值
-        double blastValue = AttributeHelper.getBlast(attacker);
-        double corrosiveValue = AttributeHelper.getCorrosive(attacker);
-        double gasValue = AttributeHelper.getGas(attacker);
-        double magneticValue = AttributeHelper.getMagnetic(attacker);
-        double radiationValue = AttributeHelper.getRadiation(attacker);
-        double viralValue = AttributeHelper.getViral(attacker);
-        
-        // 从实体获取物理元素的值
-        double slashValue = AttributeHelper.getSlash(attacker);
-        double punctureValue = AttributeHelper.getPuncture(attacker);
-        double impactValue = AttributeHelper.getImpact(attacker);
-        
-        // 添加基础元素倍率
-        if (heatValue > 0) {
-            totalRatio += heatValue;
-            breakdown.put("heat", heatValue);
-        }
-        if (coldValue > 0) {
-            totalRatio += coldValue;
-            breakdown.put("cold", coldValue);
-        }
-        if (electricityValue > 0) {
-            totalRatio += electricityValue;
-            breakdown.put("electricity", electricityValue);
-        }
-        if (toxinValue > 0) {
-            totalRatio += toxinValue;
-            breakdown.put("toxin", toxinValue);
-        }
-        
-        // 添加复合元素倍率
-        if (blastValue > 0) {
-            totalRatio += blastValue;
-            breakdown.put("blast", blastValue);
-        }
-        if (corrosiveValue > 0) {
-            totalRatio += corrosiveValue;
-            breakdown.put("corrosive", corrosiveValue);
-        }
-        if (gasValue > 0) {
-            totalRatio += gasValue;
-            breakdown.put("gas", gasValue);
-        }
-        if (magneticValue > 0) {
-            totalRatio += magneticValue;
-            breakdown.put("magnetic", magneticValue);
-        }
-        if (radiationValue > 0) {
-            totalRatio += radiationValue;
-            breakdown.put("radiation", radiationValue);
-        }
-        if (viralValue > 0) {
-            totalRatio += viralValue;
-            breakdown.put("viral", viralValue);
-        }
-        
-        // 添加物理元素倍率
-        if (slashValue > 0) {
-            totalRatio += slashValue;
-            breakdown.put("slash", slashValue);
-        }
-        if (punctureValue > 0) {
-            totalRatio += punctureValue;
-            breakdown.put("puncture", punctureValue);
-        }
-        if (impactValue > 0) {
-            totalRatio += impactValue;
-            breakdown.put("impact", impactValue);
-        }
-        
+        return calculateTotalElementMultiplier(AttackerCombatProfile.of(attacker));
+    }
+    
+    /**
+     * 计算总元素倍率（从攻击者属性快照读取）- 返回详细结果，既用于显示也用于计算
+     * @param profile 攻击者属性快照
+     * @return 总元素倍率计算结果
+     */
+    public static TotalElementResult calculateTotalElementMultiplier(AttackerCombatProfile profile) {
+        return new TotalElementResult(calculateTotalElementMultiplierValue(profile), calculateElementBreakdown(profile));
+    }
+    
+    /**
+     * 只计算总元素倍率，不构建分解表（伤害计算快速路径）
+     * @param profile 攻击者属性快照
+     * @return 总元素倍率
+     */
+    public static double calculateTotalElementMultiplierValue(AttackerCombatProfile profile) {
         // 总元素倍率 = 所有元素倍率之和，确保至少为1.0
-        totalElementMultiplier = Math.max(1.0, totalRatio);
+        return CombatMath.totalElementMultiplier(profile.getTotalElementRatio());
+    }
+    
+    /**
+     * 构建各元素的倍率分解（仅在显示或API需要时调用）
+     * @param profile 攻击者属性快照
+     * @return 元素名 -> 倍率
+     */
+    public static Map<String, Double> calculateElementBreakdown(AttackerCombatProfile profile) {
+        Map<String, Double> breakdown = new HashMap<>();
         
-        return new TotalElementResult(totalElementMultiplier, breakdown);
+        // 记录所有为正的基础、复合、物理元素倍率
+        for (ElementType type : AttackerCombatProfile.DAMAGE_ELEMENTS) {
+            double value = profile.getElementValue(type);
+            if (value > 0) {
+                breakdown.put(type.getName(), value);
+            }
+        }
+        return breakdown;
     }
-}
\ No newline at end of file
+}